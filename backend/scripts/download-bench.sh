@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+#
+# Download benchmark - concurrent file downloads
+#
+# Creates a test file for a DigitalBook in the content store, then
+# downloads it at increasing concurrency levels and prints aggregate
+# throughput and per-download latency. Watch the heap while it runs
+# (e.g. /actuator/metrics/jvm.memory.used): it should stay flat
+# regardless of the file size, since files are never buffered on the heap.
+#
+#   mvn spring-boot:run
+#   ./scripts/download-bench.sh
+#
+# Environment:
+#   BASE_URL     Server URL (default http://localhost:8080)
+#   CONTENT_DIR  Content store directory of the server (default data/content)
+#   BOOK_ID      DigitalBook to use (default 1)
+#   FORMAT       File extension matching the book's fileFormat (default pdf)
+#   SIZE_MB      Test file size in MiB (default 256)
+#   LEVELS       Concurrency levels (default "1 4 16 32")
+#   DOWNLOADS    Downloads per level (default 32)
+#
+# Downloads run as admin, so no loan is required. Requires curl, xargs and awk.
+
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+CONTENT_DIR="${CONTENT_DIR:-data/content}"
+BOOK_ID="${BOOK_ID:-1}"
+FORMAT="${FORMAT:-pdf}"
+SIZE_MB="${SIZE_MB:-256}"
+LEVELS="${LEVELS:-1 4 16 32}"
+DOWNLOADS="${DOWNLOADS:-32}"
+
+FILE="$CONTENT_DIR/books/$BOOK_ID.$FORMAT"
+mkdir -p "$CONTENT_DIR/books"
+if [ ! -f "$FILE" ] || [ "$(( $(stat -c %s "$FILE") / 1048576 ))" -ne "$SIZE_MB" ]; then
+    echo "Creating $SIZE_MB MiB test file $FILE"
+    head -c "$(( SIZE_MB * 1048576 ))" /dev/urandom > "$FILE"
+fi
+
+TOKEN=$(curl -s -X POST "$BASE_URL/api/auth/login" \
+    -H 'Content-Type: application/json' \
+    -d '{"username":"admin","password":"admin123"}' | sed -n 's/.*"token" *: *"\([^"]*\)".*/\1/p')
+
+if [ -z "$TOKEN" ]; then
+    echo "Login failed - is the server running at $BASE_URL?" >&2
+    exit 1
+fi
+
+# One download; prints its total time in seconds and the bytes received
+download() {
+    curl -s -o /dev/null -w '%{time_total} %{size_download}\n' \
+        "$BASE_URL/api/books/$BOOK_ID/file" -H "Authorization: Bearer $TOKEN"
+}
+export -f download
+export BASE_URL TOKEN BOOK_ID
+
+printf '%-12s %10s %10s %10s %10s\n' "concurrency" "MiB/s" "p50(ms)" "p90(ms)" "max(ms)"
+
+for level in $LEVELS; do
+    start=$(date +%s.%N)
+    times=$(seq 1 "$DOWNLOADS" | xargs -P "$level" -I{} bash -c 'download' | sort -n)
+    end=$(date +%s.%N)
+
+    echo "$times" | awk -v c="$level" -v start="$start" -v end="$end" '
+        function pct(p,   i) { i = int(NR * p); if (i < 1) i = 1; return t[i] }
+        { t[NR] = $1 * 1000; bytes += $2 }
+        END {
+            printf "%-12d %10.1f %10.2f %10.2f %10.2f\n", c, bytes / 1048576 / (end - start),
+                pct(0.50), pct(0.90), t[NR]
+        }'
+done
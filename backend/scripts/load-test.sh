@@ -0,0 +1,71 @@
+#!/usr/bin/env bash
+#
+# Load test - concurrency vs latency
+#
+# Runs the same request mix at increasing concurrency levels and prints
+# throughput and latency percentiles per level. Run it once against each
+# execution mode and compare the tables:
+#
+#   # Platform threads (default Tomcat pool)
+#   mvn spring-boot:run
+#   ./scripts/load-test.sh
+#
+#   # Virtual threads (Java 21)
+#   mvn -Pjava21 spring-boot:run -Dspring-boot.run.arguments=--biblioteca.virtual-threads.enabled=true
+#   ./scripts/load-test.sh
+#
+# Optional: shrink the Tomcat pool so saturation shows at low concurrency,
+# e.g. --server.tomcat.threads.max=16
+#
+# Environment:
+#   BASE_URL   Server URL (default http://localhost:8080)
+#   LEVELS     Concurrency levels (default "1 8 32 128 256")
+#   REQUESTS   Requests per level (default 2000)
+#
+# Request mix: login (reads users.json from disk) and catalog listing.
+# Requires curl, xargs and awk.
+
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+LEVELS="${LEVELS:-1 8 32 128 256}"
+REQUESTS="${REQUESTS:-2000}"
+
+TOKEN=$(curl -s -X POST "$BASE_URL/api/auth/login" \
+    -H 'Content-Type: application/json' \
+    -d '{"username":"admin","password":"admin123"}' | sed -n 's/.*"token" *: *"\([^"]*\)".*/\1/p')
+
+if [ -z "$TOKEN" ]; then
+    echo "Login failed - is the server running at $BASE_URL?" >&2
+    exit 1
+fi
+
+# One request; prints its total time in seconds
+request() {
+    if [ $(( $1 % 2 )) -eq 0 ]; then
+        curl -s -o /dev/null -w '%{time_total}\n' -X POST "$BASE_URL/api/auth/login" \
+            -H 'Content-Type: application/json' \
+            -d '{"username":"john","password":"user123"}'
+    else
+        curl -s -o /dev/null -w '%{time_total}\n' "$BASE_URL/api/books" \
+            -H "Authorization: Bearer $TOKEN"
+    fi
+}
+export -f request
+export BASE_URL TOKEN
+
+printf '%-12s %10s %10s %10s %10s %10s\n' "concurrency" "req/s" "p50(ms)" "p90(ms)" "p99(ms)" "max(ms)"
+
+for level in $LEVELS; do
+    start=$(date +%s.%N)
+    times=$(seq 1 "$REQUESTS" | xargs -P "$level" -I{} bash -c 'request {}' | sort -n)
+    end=$(date +%s.%N)
+
+    echo "$times" | awk -v c="$level" -v start="$start" -v end="$end" '
+        function pct(p,   i) { i = int(NR * p); if (i < 1) i = 1; return t[i] }
+        { t[NR] = $1 * 1000 }
+        END {
+            printf "%-12d %10.1f %10.2f %10.2f %10.2f %10.2f\n", c, NR / (end - start),
+                pct(0.50), pct(0.90), pct(0.99), t[NR]
+        }'
+done
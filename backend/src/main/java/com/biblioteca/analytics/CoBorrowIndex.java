@@ -0,0 +1,244 @@
+package com.biblioteca.analytics;
+
+import com.biblioteca.models.Loan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * CoBorrowIndex (Singleton)
+ * "Readers also borrowed" - item-to-item co-occurrence of borrowed books
+ *
+ * Two books co-occur once for every user who has borrowed both. The index keeps:
+ * - Per user: the sorted set of books borrowed (int[])
+ * - Per book: co-occurrence counts with other books (IntCountMap, primitive keys)
+ * - Per book: the precomputed top-N related books, replaced as a whole
+ *
+ * Updates come from LibraryManager.addLoan; a borrow only touches the pairs
+ * of that user's books. Reads of the top-N lists are a map lookup.
+ *
+ * A book's count map is pruned of its weakest pairs when it grows past
+ * MAX_PAIRS, so memory stays bounded for prolific readers.
+ *
+ * On startup the index is rebuilt from the loan history in parallel, one
+ * book per task; loans arriving meanwhile are applied after the rebuild.
+ */
+public class CoBorrowIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CoBorrowIndex.class);
+
+    // Related books kept per book
+    public static final int TOP_N = 10;
+
+    // Pairs kept per book before the weakest are pruned
+    private static final int MAX_PAIRS = 512;
+
+    // username -> sorted distinct book IDs borrowed
+    private Map<String, int[]> userBooks = new HashMap<>();
+
+    // bookId -> co-occurrence counts with other books
+    private Map<Integer, IntCountMap> pairCounts = new HashMap<>();
+
+    // bookId -> top-N related books (read without locking)
+    private final Map<Integer, Related> related = new ConcurrentHashMap<>();
+
+    // Loans recorded while a rebuild is running; guarded by this
+    private List<Loan> pending;
+
+    // Until the first rebuild, loans are left to it; guarded by this
+    private boolean built;
+
+    private CoBorrowIndex() {
+        log.info("🤝 CoBorrowIndex (Singleton) initialized");
+    }
+
+    /**
+     * Get the unique instance
+     */
+    public static CoBorrowIndex getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final CoBorrowIndex INSTANCE = new CoBorrowIndex();
+    }
+
+    /**
+     * Related books of a book, most co-borrowed first
+     *
+     * @return The related books (empty if none)
+     */
+    public Related getRelated(int bookId) {
+        return related.getOrDefault(bookId, Related.EMPTY);
+    }
+
+    /**
+     * Update the index with a new loan
+     */
+    public synchronized void recordLoan(Loan loan) {
+        if (!built && pending == null) {
+            return;
+        }
+        if (pending != null) {
+            pending.add(loan);
+            return;
+        }
+        apply(loan.getUsername(), loan.getBookId());
+    }
+
+    /**
+     * Rebuild the index from the full loan history, in parallel
+     *
+     * The history is read after buffering starts, so no loan is missed; a loan
+     * both in the history and in the buffer is counted once.
+     *
+     * @param history Supplies all loans
+     */
+    public void rebuild(Supplier<? extends Collection<Loan>> history) {
+        long start = System.nanoTime();
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        Collection<Loan> loans = history.get();
+
+        // username -> distinct books
+        Map<String, int[]> users = loans.parallelStream()
+                .collect(Collectors.groupingByConcurrent(Loan::getUsername,
+                        Collectors.mapping(Loan::getBookId, Collectors.toList())))
+                .entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                        e -> IntCountMap.sortedUnique(e.getValue().stream().mapToInt(Integer::intValue).toArray())));
+
+        // bookId -> users' book sets containing it (inverted index)
+        Map<Integer, List<int[]>> readersOf = new HashMap<>();
+        for (int[] books : users.values()) {
+            for (int book : books) {
+                readersOf.computeIfAbsent(book, id -> new ArrayList<>()).add(books);
+            }
+        }
+
+        // Each book's counts depend only on its own readers: one independent task per book
+        Map<Integer, IntCountMap> counts = readersOf.entrySet().parallelStream()
+                .collect(Collectors.toConcurrentMap(Map.Entry::getKey, e -> {
+                    int book = e.getKey();
+                    IntCountMap map = new IntCountMap();
+                    for (int[] books : e.getValue()) {
+                        for (int other : books) {
+                            if (other != book) {
+                                map.increment(other);
+                            }
+                        }
+                    }
+                    prune(map);
+                    return map;
+                }));
+
+        Map<Integer, Related> tops = counts.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> Related.of(e.getValue())));
+
+        synchronized (this) {
+            this.userBooks = new HashMap<>(users);
+            this.pairCounts = new HashMap<>(counts);
+            related.clear();
+            related.putAll(tops);
+
+            List<Loan> arrived = pending;
+            pending = null;
+            built = true;
+            for (Loan loan : arrived) {
+                apply(loan.getUsername(), loan.getBookId());
+            }
+        }
+        log.info("🤝 Co-borrow index rebuilt: {} users, {} books in {} ms",
+                users.size(), counts.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Count the new pairs of a user's borrow and refresh the affected top-N lists
+     */
+    private void apply(String username, int bookId) {
+        int[] books = userBooks.getOrDefault(username, new int[0]);
+        int index = Arrays.binarySearch(books, bookId);
+        if (index >= 0) {
+            // Borrowed again: no new pairs
+            return;
+        }
+
+        IntCountMap own = pairCounts.computeIfAbsent(bookId, id -> new IntCountMap());
+        for (int other : books) {
+            own.increment(other);
+            IntCountMap theirs = pairCounts.computeIfAbsent(other, id -> new IntCountMap());
+            theirs.increment(bookId);
+            prune(theirs);
+            related.put(other, Related.of(theirs));
+        }
+        prune(own);
+        related.put(bookId, Related.of(own));
+
+        // Insert keeping the array sorted
+        int insert = -index - 1;
+        int[] updated = new int[books.length + 1];
+        System.arraycopy(books, 0, updated, 0, insert);
+        updated[insert] = bookId;
+        System.arraycopy(books, insert, updated, insert + 1, books.length - insert);
+        userBooks.put(username, updated);
+    }
+
+    /**
+     * Drop the weakest pairs until the map is back under 3/4 of MAX_PAIRS
+     */
+    private static void prune(IntCountMap map) {
+        if (map.size() <= MAX_PAIRS) {
+            return;
+        }
+        int threshold = 1;
+        while (map.size() > MAX_PAIRS * 3 / 4) {
+            map.removeAtMost(threshold++);
+        }
+    }
+
+    /**
+     * Precomputed related books of one book (immutable)
+     */
+    public static class Related {
+
+        static final Related EMPTY = new Related(new int[0], new int[0]);
+
+        private final int[] bookIds;
+        private final int[] counts;
+
+        private Related(int[] bookIds, int[] counts) {
+            this.bookIds = bookIds;
+            this.counts = counts;
+        }
+
+        static Related of(IntCountMap map) {
+            int[][] top = map.top(TOP_N);
+            return new Related(top[0], top[1]);
+        }
+
+        public int size() {
+            return bookIds.length;
+        }
+
+        public int getBookId(int i) {
+            return bookIds[i];
+        }
+
+        /**
+         * Number of users who borrowed both books
+         */
+        public int getCount(int i) {
+            return counts[i];
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.biblioteca.analytics;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * HeavyHitters
+ * Bounded candidate set for the most borrowed books of a window
+ *
+ * Space-Saving style: every borrow offers the book with its current window
+ * count; when the set is over capacity the candidate with the lowest count
+ * is dropped. The set is a few times larger than the largest top-K served,
+ * so books whose counts decay are replaced by rising ones without scanning
+ * all books.
+ */
+class HeavyHitters {
+
+    private final int capacity;
+
+    // bookId -> window count when last offered or refreshed
+    private final Map<Integer, Integer> candidates = new HashMap<>();
+
+    HeavyHitters(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Offer a book with its current count; zero counts remove it
+     */
+    synchronized void offer(int bookId, int count) {
+        if (count <= 0) {
+            candidates.remove(bookId);
+            return;
+        }
+        candidates.put(bookId, count);
+        if (candidates.size() > capacity) {
+            evictMin();
+        }
+    }
+
+    /**
+     * Snapshot of the candidate book IDs
+     */
+    synchronized int[] candidates() {
+        int[] ids = new int[candidates.size()];
+        int i = 0;
+        for (int id : candidates.keySet()) {
+            ids[i++] = id;
+        }
+        return ids;
+    }
+
+    private void evictMin() {
+        Iterator<Map.Entry<Integer, Integer>> entries = candidates.entrySet().iterator();
+        Map.Entry<Integer, Integer> min = null;
+        while (entries.hasNext()) {
+            Map.Entry<Integer, Integer> entry = entries.next();
+            if (min == null || entry.getValue() < min.getValue()) {
+                min = entry;
+            }
+        }
+        if (min != null) {
+            candidates.remove(min.getKey());
+        }
+    }
+}
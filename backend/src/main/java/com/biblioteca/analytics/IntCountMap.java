@@ -0,0 +1,173 @@
+package com.biblioteca.analytics;
+
+import java.util.Arrays;
+
+/**
+ * IntCountMap
+ * Sparse int -> int counter map with primitive arrays
+ *
+ * Open addressing with linear probing; 0 is reserved as the empty key, so
+ * keys must be positive (book IDs are). No boxing, two arrays per map.
+ * Not thread-safe: callers guard it.
+ */
+class IntCountMap {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private int[] counts;
+    private int size;
+
+    IntCountMap() {
+        this(8);
+    }
+
+    IntCountMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new int[capacity];
+        this.counts = new int[capacity];
+    }
+
+    /**
+     * Add one to the count of a key
+     *
+     * @return The new count
+     */
+    int increment(int key) {
+        return add(key, 1);
+    }
+
+    /**
+     * Add to the count of a key
+     *
+     * @return The new count
+     */
+    int add(int key, int delta) {
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            resize(keys.length << 1);
+        }
+        int slot = find(key);
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            size++;
+        }
+        counts[slot] += delta;
+        return counts[slot];
+    }
+
+    int get(int key) {
+        int slot = find(key);
+        return keys[slot] == key ? counts[slot] : 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Remove all keys whose count is at most a threshold
+     *
+     * @return Number of keys removed
+     */
+    int removeAtMost(int threshold) {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        int removed = 0;
+        keys = new int[oldKeys.length];
+        counts = new int[oldCounts.length];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) {
+                continue;
+            }
+            if (oldCounts[i] <= threshold) {
+                removed++;
+            } else {
+                add(oldKeys[i], oldCounts[i]);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * The keys with the highest counts, highest first (ties: lower key first)
+     *
+     * @param n Maximum number of keys
+     * @return {keys, counts}
+     */
+    int[][] top(int n) {
+        int[] order = new int[size];
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                order[j++] = i;
+            }
+        }
+        // Partial selection sort: n is small
+        int limit = Math.min(n, size);
+        for (int a = 0; a < limit; a++) {
+            int best = a;
+            for (int b = a + 1; b < size; b++) {
+                if (better(order[b], order[best])) {
+                    best = b;
+                }
+            }
+            int swap = order[a];
+            order[a] = order[best];
+            order[best] = swap;
+        }
+        int[] topKeys = new int[limit];
+        int[] topCounts = new int[limit];
+        for (int i = 0; i < limit; i++) {
+            topKeys[i] = keys[order[i]];
+            topCounts[i] = counts[order[i]];
+        }
+        return new int[][]{topKeys, topCounts};
+    }
+
+    private boolean better(int slotA, int slotB) {
+        return counts[slotA] > counts[slotB] || (counts[slotA] == counts[slotB] && keys[slotA] < keys[slotB]);
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new int[capacity];
+        counts = new int[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                add(oldKeys[i], oldCounts[i]);
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Sorted copy of an array without duplicates
+     */
+    static int[] sortedUnique(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, n);
+    }
+}
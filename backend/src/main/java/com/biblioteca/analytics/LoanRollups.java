@@ -0,0 +1,492 @@
+package com.biblioteca.analytics;
+
+import com.biblioteca.models.Loan;
+import com.biblioteca.patterns.factory.Book;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * LoanRollups (Singleton)
+ * Pre-aggregated loan counts for the admin dashboard
+ *
+ * Three rollup tables, updated on every borrow and return:
+ * - Per day: loans made and loans returned that day
+ * - Per category: loans, returns and total loan duration (days) of returned
+ *   loans, hence the average loan duration
+ * - Per book type: the same as per category
+ *
+ * Alongside the tables, LoanSketches keep loan duration quantiles
+ * (p50 / p90 / p99) and distinct borrower counts in bounded memory.
+ *
+ * Counters are LongAdders, so concurrent borrows never contend on a lock;
+ * days are kept in a skip list, so a time series of N days costs O(N)
+ * whatever the size of the loan history.
+ *
+ * The tables are saved to rollups.json periodically and on shutdown
+ * (see LibraryInitializer), not on every borrow and return. On startup the
+ * saved tables are reused when their totals match the loan history;
+ * otherwise they are rebuilt with a fork-join pass over the history
+ * (see LibraryInitializer).
+ */
+public class LoanRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(LoanRollups.class);
+
+    // Category / book type of loans whose book is no longer in the catalog
+    public static final String UNKNOWN = "Unknown";
+
+    // Loans per fork-join leaf task
+    private static final int THRESHOLD = 8192;
+
+    // Replaced as a whole by rebuild() and restore()
+    private volatile Tables tables = new Tables();
+
+    private LoanRollups() {
+        log.info("📊 LoanRollups (Singleton) initialized");
+    }
+
+    /**
+     * Get the unique instance
+     */
+    public static LoanRollups getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final LoanRollups INSTANCE = new LoanRollups();
+    }
+
+    /**
+     * Count a new loan
+     *
+     * @param loan New loan
+     * @param book Borrowed book (null if unknown)
+     */
+    public void recordLoan(Loan loan, Book book) {
+        Tables current = tables;
+        if (loan.getLoanDate() != null) {
+            current.day(loan.getLoanDate().toEpochDay()).loans.increment();
+            current.sketches.addLoan(loan.getUsername(), loan.getLoanDate().toEpochDay());
+        }
+        current.category(categoryOf(book)).loans.increment();
+        current.bookType(bookTypeOf(book)).loans.increment();
+    }
+
+    /**
+     * Count a returned loan and its duration
+     *
+     * @param loan Returned loan
+     * @param book Returned book (null if unknown)
+     */
+    public void recordReturn(Loan loan, Book book) {
+        Tables current = tables;
+        if (loan.getReturnDate() != null) {
+            current.day(loan.getReturnDate().toEpochDay()).returns.increment();
+        }
+        long duration = durationDays(loan);
+        current.category(categoryOf(book)).addReturn(duration);
+        current.bookType(bookTypeOf(book)).addReturn(duration);
+        current.sketches.addDuration(duration);
+    }
+
+    /**
+     * Rebuilds the tables from the loan history with a fork-join pass
+     *
+     * The history is split in halves down to THRESHOLD loans; each leaf
+     * counts its loans into plain maps and its own sketches, and partial
+     * tables and sketches are merged on the way up.
+     *
+     * @param loans Loan history
+     * @param books Book lookup by ID
+     */
+    public void rebuild(Collection<Loan> loans, IntFunction<Book> books) {
+        long start = System.nanoTime();
+        List<Loan> history = new ArrayList<>(loans);
+        Partial total = ForkJoinPool.commonPool().invoke(new RollupTask(history, 0, history.size(), books));
+        this.tables = total.toTables();
+        log.info("📊 Loan rollups rebuilt from {} loans: {} days in {} ms",
+                history.size(), total.days.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reuses saved tables if they account for exactly the loans of the history
+     *
+     * @param saved Saved tables (may be null)
+     * @param loans Loan history
+     * @return false if the saved tables are missing or stale (rebuild them)
+     */
+    public boolean restore(Snapshot saved, Collection<Loan> loans) {
+        if (saved == null || saved.days == null || saved.categories == null || saved.bookTypes == null
+                || saved.sketches == null) {
+            return false;
+        }
+        long made = 0;
+        long returned = 0;
+        for (Loan loan : loans) {
+            made++;
+            if (loan.isReturned()) {
+                returned++;
+            }
+        }
+        if (saved.loans != made || saved.returns != returned) {
+            log.info("📊 Saved loan rollups are stale ({} loans saved, {} in history)", saved.loans, made);
+            return false;
+        }
+        Tables restored;
+        try {
+            restored = new Tables(LoanSketches.of(saved.sketches));
+        } catch (IllegalArgumentException e) {
+            log.warn("📊 Saved loan sketches are unreadable: {}", e.getMessage());
+            return false;
+        }
+        for (DayRow row : saved.days) {
+            DayCounts day = restored.day(LocalDate.parse(row.date).toEpochDay());
+            day.loans.add(row.loans);
+            day.returns.add(row.returns);
+        }
+        for (GroupRow row : saved.categories) {
+            restored.category(row.name).add(row);
+        }
+        for (GroupRow row : saved.bookTypes) {
+            restored.bookType(row.name).add(row);
+        }
+        this.tables = restored;
+        return true;
+    }
+
+    /**
+     * Loans made and returned per day of a range, zero-filled
+     *
+     * @param from First day (inclusive)
+     * @param to Last day (inclusive)
+     * @return One row per day, in date order
+     */
+    public List<DayRow> getDaily(LocalDate from, LocalDate to) {
+        NavigableMap<Long, DayCounts> days = tables.days;
+        List<DayRow> rows = new ArrayList<>();
+        for (long day = from.toEpochDay(); day <= to.toEpochDay(); day++) {
+            DayCounts counts = days.get(day);
+            rows.add(new DayRow(LocalDate.ofEpochDay(day).toString(),
+                    counts != null ? counts.loans.sum() : 0, counts != null ? counts.returns.sum() : 0));
+        }
+        return rows;
+    }
+
+    /**
+     * Rows of the category table, most loans first
+     */
+    public List<GroupRow> getCategories() {
+        return rows(tables.categories);
+    }
+
+    /**
+     * Rows of the book type table, most loans first
+     */
+    public List<GroupRow> getBookTypes() {
+        return rows(tables.bookTypes);
+    }
+
+    /**
+     * Loan duration quantiles and distinct borrower counts
+     */
+    public LoanSketches getSketches() {
+        return tables.sketches;
+    }
+
+    /**
+     * Copy of all tables, for persistence
+     */
+    public Snapshot snapshot() {
+        Tables current = tables;
+        Snapshot snapshot = new Snapshot();
+        snapshot.days = new ArrayList<>();
+        for (Map.Entry<Long, DayCounts> entry : current.days.entrySet()) {
+            snapshot.days.add(new DayRow(LocalDate.ofEpochDay(entry.getKey()).toString(),
+                    entry.getValue().loans.sum(), entry.getValue().returns.sum()));
+        }
+        snapshot.categories = rows(current.categories);
+        snapshot.bookTypes = rows(current.bookTypes);
+        snapshot.sketches = current.sketches.snapshot();
+        for (GroupRow row : snapshot.bookTypes) {
+            snapshot.loans += row.loans;
+            snapshot.returns += row.returns;
+        }
+        return snapshot;
+    }
+
+    private static List<GroupRow> rows(Map<String, GroupCounts> table) {
+        List<GroupRow> rows = new ArrayList<>();
+        for (Map.Entry<String, GroupCounts> entry : table.entrySet()) {
+            GroupCounts counts = entry.getValue();
+            rows.add(new GroupRow(entry.getKey(), counts.loans.sum(), counts.returns.sum(), counts.durationDays.sum()));
+        }
+        rows.sort((a, b) -> Long.compare(b.loans, a.loans));
+        return rows;
+    }
+
+    private static String categoryOf(Book book) {
+        return book != null && book.getCategory() != null ? book.getCategory() : UNKNOWN;
+    }
+
+    private static String bookTypeOf(Book book) {
+        return book != null && book.getBookType() != null ? book.getBookType() : UNKNOWN;
+    }
+
+    private static long durationDays(Loan loan) {
+        if (loan.getLoanDate() == null || loan.getReturnDate() == null) {
+            return 0;
+        }
+        return Math.max(0, ChronoUnit.DAYS.between(loan.getLoanDate(), loan.getReturnDate()));
+    }
+
+    /**
+     * Live tables
+     */
+    private static class Tables {
+
+        // epoch day -> loans and returns of the day
+        private final ConcurrentSkipListMap<Long, DayCounts> days = new ConcurrentSkipListMap<>();
+        private final Map<String, GroupCounts> categories = new ConcurrentHashMap<>();
+        private final Map<String, GroupCounts> bookTypes = new ConcurrentHashMap<>();
+        private final LoanSketches sketches;
+
+        Tables() {
+            this(new LoanSketches());
+        }
+
+        Tables(LoanSketches sketches) {
+            this.sketches = sketches;
+        }
+
+        DayCounts day(long epochDay) {
+            return days.computeIfAbsent(epochDay, d -> new DayCounts());
+        }
+
+        GroupCounts category(String category) {
+            return categories.computeIfAbsent(category, c -> new GroupCounts());
+        }
+
+        GroupCounts bookType(String bookType) {
+            return bookTypes.computeIfAbsent(bookType, t -> new GroupCounts());
+        }
+    }
+
+    private static class DayCounts {
+        private final LongAdder loans = new LongAdder();
+        private final LongAdder returns = new LongAdder();
+    }
+
+    private static class GroupCounts {
+        private final LongAdder loans = new LongAdder();
+        private final LongAdder returns = new LongAdder();
+        private final LongAdder durationDays = new LongAdder();
+
+        void addReturn(long duration) {
+            returns.increment();
+            durationDays.add(duration);
+        }
+
+        void add(GroupRow row) {
+            loans.add(row.loans);
+            returns.add(row.returns);
+            durationDays.add(row.durationDays);
+        }
+    }
+
+    /**
+     * Counts of a slice of the history, in plain maps (one task owns it)
+     * Arrays hold {loans, returns} per day and {loans, returns, durationDays} per group.
+     */
+    private static class Partial {
+        private final Map<Long, long[]> days = new HashMap<>();
+        private final Map<String, long[]> categories = new HashMap<>();
+        private final Map<String, long[]> bookTypes = new HashMap<>();
+        private final LoanSketches sketches = new LoanSketches();
+
+        void add(Loan loan, Book book) {
+            long[] category = categories.computeIfAbsent(categoryOf(book), c -> new long[3]);
+            long[] bookType = bookTypes.computeIfAbsent(bookTypeOf(book), t -> new long[3]);
+            if (loan.getLoanDate() != null) {
+                days.computeIfAbsent(loan.getLoanDate().toEpochDay(), d -> new long[2])[0]++;
+                sketches.addLoan(loan.getUsername(), loan.getLoanDate().toEpochDay());
+            }
+            category[0]++;
+            bookType[0]++;
+            if (loan.isReturned()) {
+                if (loan.getReturnDate() != null) {
+                    days.computeIfAbsent(loan.getReturnDate().toEpochDay(), d -> new long[2])[1]++;
+                }
+                long duration = durationDays(loan);
+                category[1]++;
+                category[2] += duration;
+                bookType[1]++;
+                bookType[2] += duration;
+                sketches.addDuration(duration);
+            }
+        }
+
+        Partial merge(Partial other) {
+            other.days.forEach((day, counts) -> sum(days.computeIfAbsent(day, d -> new long[2]), counts));
+            other.categories.forEach((name, counts) -> sum(categories.computeIfAbsent(name, c -> new long[3]), counts));
+            other.bookTypes.forEach((name, counts) -> sum(bookTypes.computeIfAbsent(name, t -> new long[3]), counts));
+            sketches.merge(other.sketches);
+            return this;
+        }
+
+        Tables toTables() {
+            Tables result = new Tables(sketches);
+            days.forEach((day, counts) -> {
+                DayCounts target = result.day(day);
+                target.loans.add(counts[0]);
+                target.returns.add(counts[1]);
+            });
+            categories.forEach((name, counts) -> result.category(name).add(new GroupRow(name, counts[0], counts[1], counts[2])));
+            bookTypes.forEach((name, counts) -> result.bookType(name).add(new GroupRow(name, counts[0], counts[1], counts[2])));
+            return result;
+        }
+
+        private static void sum(long[] target, long[] source) {
+            for (int i = 0; i < target.length; i++) {
+                target[i] += source[i];
+            }
+        }
+    }
+
+    /**
+     * Counts loans [from, to) of the history, splitting while above THRESHOLD
+     */
+    private static class RollupTask extends RecursiveTask<Partial> {
+
+        private final List<Loan> loans;
+        private final int from;
+        private final int to;
+        private final IntFunction<Book> books;
+
+        RollupTask(List<Loan> loans, int from, int to, IntFunction<Book> books) {
+            this.loans = loans;
+            this.from = from;
+            this.to = to;
+            this.books = books;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= THRESHOLD) {
+                Partial partial = new Partial();
+                for (int i = from; i < to; i++) {
+                    Loan loan = loans.get(i);
+                    partial.add(loan, books.apply(loan.getBookId()));
+                }
+                return partial;
+            }
+            int middle = (from + to) >>> 1;
+            RollupTask left = new RollupTask(loans, from, middle, books);
+            left.fork();
+            Partial right = new RollupTask(loans, middle, to, books).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Saved form of the tables (rollups.json)
+     * loans and returns are the totals, checked against the history on startup.
+     */
+    public static class Snapshot {
+        private long loans;
+        private long returns;
+        private List<DayRow> days;
+        private List<GroupRow> categories;
+        private List<GroupRow> bookTypes;
+        private LoanSketches.Snapshot sketches;
+
+        public long getLoans() {
+            return loans;
+        }
+
+        public long getReturns() {
+            return returns;
+        }
+    }
+
+    /**
+     * Loans made and returned on one day
+     */
+    public static class DayRow {
+        private final String date;
+        private final long loans;
+        private final long returns;
+
+        public DayRow(String date, long loans, long returns) {
+            this.date = date;
+            this.loans = loans;
+            this.returns = returns;
+        }
+
+        public String getDate() {
+            return date;
+        }
+
+        public long getLoans() {
+            return loans;
+        }
+
+        public long getReturns() {
+            return returns;
+        }
+    }
+
+    /**
+     * Loans of one category or book type
+     */
+    public static class GroupRow {
+        private final String name;
+        private final long loans;
+        private final long returns;
+        private final long durationDays;
+
+        public GroupRow(String name, long loans, long returns, long durationDays) {
+            this.name = name;
+            this.loans = loans;
+            this.returns = returns;
+            this.durationDays = durationDays;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getLoans() {
+            return loans;
+        }
+
+        public long getReturns() {
+            return returns;
+        }
+
+        public long getDurationDays() {
+            return durationDays;
+        }
+
+        /**
+         * Average duration of the returned loans, in days (0 if none returned)
+         */
+        public double getAverageDurationDays() {
+            return returns > 0 ? (double) durationDays / returns : 0;
+        }
+    }
+}
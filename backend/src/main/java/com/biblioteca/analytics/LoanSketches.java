@@ -0,0 +1,198 @@
+package com.biblioteca.analytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * LoanSketches
+ * Loan duration quantiles and distinct borrower counts in bounded memory
+ *
+ * - Durations: a QuantileDigest of the duration (days) of returned loans,
+ *   for p50 / p90 / p99 without keeping every duration
+ * - Borrowers: a HyperLogLog of all borrowers, and one per day for the
+ *   last RETENTION_DAYS days with loans (older days are dropped)
+ *
+ * Memory stays under about 200 KB whatever the size of the loan history.
+ * Sketches of two slices of the history merge into the sketches of the
+ * whole, which is how LoanRollups rebuilds them in parallel.
+ *
+ * Owned by LoanRollups; methods are synchronized (updates are a few
+ * hundred nanoseconds, so borrows barely contend).
+ */
+public class LoanSketches {
+
+    // Days of per-day borrower sketches kept
+    public static final int RETENTION_DAYS = 90;
+
+    private static final double COMPRESSION = 100;
+    private static final int BORROWERS_PRECISION = 14;
+    private static final int DAILY_PRECISION = 11;
+
+    private final QuantileDigest durations = new QuantileDigest(COMPRESSION);
+    private final HyperLogLog borrowers = new HyperLogLog(BORROWERS_PRECISION);
+
+    // epoch day -> borrowers of the day
+    private final TreeMap<Long, HyperLogLog> daily = new TreeMap<>();
+
+    /**
+     * Count the borrower of a loan made on a day
+     */
+    public synchronized void addLoan(String username, long epochDay) {
+        borrowers.add(username);
+        HyperLogLog day = daily.get(epochDay);
+        if (day == null) {
+            if (daily.size() >= RETENTION_DAYS && epochDay < daily.firstKey()) {
+                return;
+            }
+            day = new HyperLogLog(DAILY_PRECISION);
+            daily.put(epochDay, day);
+            trim();
+        }
+        day.add(username);
+    }
+
+    /**
+     * Count the duration of a returned loan
+     */
+    public synchronized void addDuration(long days) {
+        durations.add(days);
+    }
+
+    /**
+     * Add the loans counted by other sketches
+     */
+    public synchronized LoanSketches merge(LoanSketches other) {
+        synchronized (other) {
+            durations.merge(other.durations);
+            borrowers.merge(other.borrowers);
+            other.daily.forEach((day, sketch) -> {
+                HyperLogLog target = daily.get(day);
+                if (target != null) {
+                    target.merge(sketch);
+                } else {
+                    daily.put(day, sketch.copy());
+                }
+            });
+            trim();
+        }
+        return this;
+    }
+
+    /**
+     * Approximate loan duration (days) at a quantile, or NaN if no loan was returned
+     */
+    public synchronized double getDurationQuantile(double q) {
+        return durations.quantile(q);
+    }
+
+    /**
+     * Number of returned loans counted in the duration quantiles
+     */
+    public synchronized long getDurationCount() {
+        return durations.count();
+    }
+
+    /**
+     * Approximate number of distinct borrowers of all time
+     */
+    public synchronized long getDistinctBorrowers() {
+        return borrowers.estimate();
+    }
+
+    /**
+     * Approximate number of distinct borrowers of a range of days
+     * Only days within the retention window are counted.
+     */
+    public synchronized long getDistinctBorrowers(LocalDate from, LocalDate to) {
+        HyperLogLog union = new HyperLogLog(DAILY_PRECISION);
+        for (HyperLogLog day : daily.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values()) {
+            union.merge(day);
+        }
+        return union.estimate();
+    }
+
+    /**
+     * Approximate number of distinct borrowers of each day of a range, zero-filled
+     *
+     * @return One count per day, in date order
+     */
+    public synchronized long[] getDailyDistinctBorrowers(LocalDate from, LocalDate to) {
+        long first = from.toEpochDay();
+        long[] counts = new long[(int) Math.max(0, to.toEpochDay() - first + 1)];
+        for (Map.Entry<Long, HyperLogLog> entry : daily.subMap(first, true, to.toEpochDay(), true).entrySet()) {
+            counts[(int) (entry.getKey() - first)] = entry.getValue().estimate();
+        }
+        return counts;
+    }
+
+    /**
+     * Copy of the sketches, for persistence
+     */
+    public synchronized Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.durationMeans = durations.getMeans();
+        snapshot.durationWeights = durations.getWeights();
+        // No infinities in JSON: min / max are unused while the digest is empty
+        boolean empty = snapshot.durationMeans.length == 0;
+        snapshot.durationMin = empty ? 0 : durations.getMin();
+        snapshot.durationMax = empty ? 0 : durations.getMax();
+        snapshot.borrowers = borrowers.encode();
+        snapshot.daily = new ArrayList<>();
+        daily.forEach((day, sketch) -> snapshot.daily.add(new DailyBorrowers(LocalDate.ofEpochDay(day).toString(), sketch.encode())));
+        return snapshot;
+    }
+
+    /**
+     * Sketches from a saved copy
+     *
+     * @throws IllegalArgumentException if the saved copy is incomplete or malformed
+     */
+    public static LoanSketches of(Snapshot saved) {
+        if (saved.durationMeans == null || saved.durationWeights == null || saved.borrowers == null || saved.daily == null) {
+            throw new IllegalArgumentException("Incomplete sketches");
+        }
+        LoanSketches sketches = new LoanSketches();
+        sketches.durations.merge(QuantileDigest.of(COMPRESSION, saved.durationMeans, saved.durationWeights,
+                saved.durationMin, saved.durationMax));
+        sketches.borrowers.merge(HyperLogLog.decode(BORROWERS_PRECISION, saved.borrowers));
+        for (DailyBorrowers day : saved.daily) {
+            sketches.daily.put(LocalDate.parse(day.date).toEpochDay(), HyperLogLog.decode(DAILY_PRECISION, day.registers));
+        }
+        sketches.trim();
+        return sketches;
+    }
+
+    private void trim() {
+        while (daily.size() > RETENTION_DAYS) {
+            daily.pollFirstEntry();
+        }
+    }
+
+    /**
+     * Saved form of the sketches (part of rollups.json)
+     */
+    public static class Snapshot {
+        private double[] durationMeans;
+        private double[] durationWeights;
+        private double durationMin;
+        private double durationMax;
+        private String borrowers;
+        private List<DailyBorrowers> daily;
+    }
+
+    /**
+     * Saved borrower sketch of one day (Base64 registers)
+     */
+    public static class DailyBorrowers {
+        private final String date;
+        private final String registers;
+
+        public DailyBorrowers(String date, String registers) {
+            this.date = date;
+            this.registers = registers;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.biblioteca.analytics;
+
+import java.util.Arrays;
+
+/**
+ * QuantileDigest
+ * Approximate quantiles of a stream of values in bounded memory (merging t-digest)
+ *
+ * Values are summarized by centroids (mean, weight) sorted by mean. New
+ * values are buffered and, when the buffer is full, merged into the
+ * centroids in one sorted pass: neighbours are combined while the merged
+ * centroid spans at most one unit of the scale function
+ * k(q) = compression / 2π · asin(2q - 1). The scale is steep near q = 0 and
+ * q = 1, so centroids stay small at the tails (accurate p99) and large in
+ * the middle; the number of centroids stays around the compression.
+ *
+ * Two digests merge by the same pass over both centroid lists.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public class QuantileDigest {
+
+    private static final int BUFFER_FACTOR = 5;
+
+    private final double compression;
+
+    // Centroids sorted by mean
+    private double[] means = new double[0];
+    private double[] weights = new double[0];
+    private double totalWeight;
+
+    // Values not yet merged into the centroids
+    private final double[] buffer;
+    private int buffered;
+
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param compression Accuracy / size trade-off (about as many centroids; 100 is typical)
+     */
+    public QuantileDigest(double compression) {
+        this.compression = compression;
+        this.buffer = new double[(int) (compression * BUFFER_FACTOR)];
+    }
+
+    /**
+     * Add a value
+     */
+    public void add(double value) {
+        if (buffered == buffer.length) {
+            flush();
+        }
+        buffer[buffered++] = value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Add the values summarized by another digest
+     */
+    public void merge(QuantileDigest other) {
+        other.flush();
+        if (other.totalWeight == 0) {
+            return;
+        }
+        flush();
+        mergeSorted(other.means, other.weights, other.means.length);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Number of values added
+     */
+    public long count() {
+        return Math.round(totalWeight) + buffered;
+    }
+
+    /**
+     * Approximate value at a quantile
+     *
+     * @param q Quantile in [0, 1] (0.5 = median)
+     * @return The value, or NaN if no value was added
+     */
+    public double quantile(double q) {
+        flush();
+        int n = means.length;
+        if (n == 0) {
+            return Double.NaN;
+        }
+        if (n == 1) {
+            return means[0];
+        }
+        double index = Math.max(0, Math.min(1, q)) * totalWeight;
+
+        // Left tail: between the minimum and the first centroid's center
+        if (index < weights[0] / 2) {
+            return min + (index / (weights[0] / 2)) * (means[0] - min);
+        }
+
+        // Between two centroid centers
+        double cumulative = weights[0] / 2;
+        for (int i = 0; i < n - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + step > index) {
+                double z = (index - cumulative) / step;
+                return means[i] + z * (means[i + 1] - means[i]);
+            }
+            cumulative += step;
+        }
+
+        // Right tail: between the last centroid's center and the maximum
+        double z = Math.min(1, (index - cumulative) / (weights[n - 1] / 2));
+        return means[n - 1] + z * (max - means[n - 1]);
+    }
+
+    public double getCompression() {
+        return compression;
+    }
+
+    /**
+     * Centroid means, for persistence
+     */
+    public double[] getMeans() {
+        flush();
+        return means.clone();
+    }
+
+    /**
+     * Centroid weights, for persistence
+     */
+    public double[] getWeights() {
+        flush();
+        return weights.clone();
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Digest from saved centroids (getMeans / getWeights, sorted by mean)
+     */
+    public static QuantileDigest of(double compression, double[] means, double[] weights, double min, double max) {
+        QuantileDigest digest = new QuantileDigest(compression);
+        digest.mergeSorted(means, weights, Math.min(means.length, weights.length));
+        if (digest.totalWeight > 0) {
+            digest.min = min;
+            digest.max = max;
+        }
+        return digest;
+    }
+
+    /**
+     * Merge the buffered values into the centroids
+     */
+    private void flush() {
+        if (buffered == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, buffered);
+        double[] ones = new double[buffered];
+        Arrays.fill(ones, 1.0);
+        int count = buffered;
+        buffered = 0;
+        mergeSorted(buffer, ones, count);
+    }
+
+    /**
+     * Merge sorted (mean, weight) points into the centroids, in one pass over both lists
+     */
+    private void mergeSorted(double[] otherMeans, double[] otherWeights, int otherCount) {
+        double total = totalWeight;
+        for (int i = 0; i < otherCount; i++) {
+            total += otherWeights[i];
+        }
+        double[] outMeans = new double[means.length + otherCount];
+        double[] outWeights = new double[means.length + otherCount];
+        int out = 0;
+
+        // Cumulative weight up to which the last output centroid may grow:
+        // one unit of k past its left edge, computed once per output centroid
+        double limit = 0;
+        double before = 0;
+        int i = 0;
+        int j = 0;
+        while (i < means.length || j < otherCount) {
+            double mean;
+            double weight;
+            if (j >= otherCount || (i < means.length && means[i] <= otherMeans[j])) {
+                mean = means[i];
+                weight = weights[i++];
+            } else {
+                mean = otherMeans[j];
+                weight = otherWeights[j++];
+            }
+
+            if (out > 0) {
+                double merged = outWeights[out - 1] + weight;
+                if (before + merged <= limit) {
+                    outMeans[out - 1] += (mean - outMeans[out - 1]) * weight / merged;
+                    outWeights[out - 1] = merged;
+                    continue;
+                }
+                before += outWeights[out - 1];
+            }
+            outMeans[out] = mean;
+            outWeights[out] = weight;
+            out++;
+            limit = total * inverseScale(scale(before / total) + 1);
+        }
+
+        this.means = Arrays.copyOf(outMeans, out);
+        this.weights = Arrays.copyOf(outWeights, out);
+        this.totalWeight = total;
+    }
+
+    /**
+     * Scale function k(q): one unit of k is the most a centroid may span
+     */
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.max(0, Math.min(1, q)) - 1);
+    }
+
+    /**
+     * Quantile q such that scale(q) = k
+     */
+    private double inverseScale(double k) {
+        return (Math.sin(Math.min(k * 2 * Math.PI / compression, Math.PI / 2)) + 1) / 2;
+    }
+}
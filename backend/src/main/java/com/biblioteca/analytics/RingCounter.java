@@ -0,0 +1,53 @@
+package com.biblioteca.analytics;
+
+import java.util.Arrays;
+
+/**
+ * RingCounter
+ * Event count over a sliding window of time buckets
+ *
+ * The ring has one slot per bucket of the window. Each slot remembers the
+ * bucket it counts; a slot holding an older bucket is reset when reused, and
+ * ignored when summing, so buckets expire without a background sweep.
+ */
+class RingCounter {
+
+    private final long[] bucketIds;
+    private final int[] counts;
+
+    RingCounter(int buckets) {
+        this.bucketIds = new long[buckets];
+        this.counts = new int[buckets];
+        Arrays.fill(bucketIds, Long.MIN_VALUE);
+    }
+
+    /**
+     * Count one event in a bucket
+     */
+    synchronized void increment(long bucket) {
+        int slot = (int) Math.floorMod(bucket, (long) counts.length);
+        if (bucketIds[slot] != bucket) {
+            if (bucketIds[slot] > bucket) {
+                // Older than the window already covered by this slot
+                return;
+            }
+            bucketIds[slot] = bucket;
+            counts[slot] = 0;
+        }
+        counts[slot]++;
+    }
+
+    /**
+     * Sum of the window ending at (and including) a bucket
+     */
+    synchronized int sum(long currentBucket) {
+        long oldest = currentBucket - counts.length + 1;
+        int total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (bucketIds[i] >= oldest && bucketIds[i] <= currentBucket) {
+                total += counts[i];
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,56 @@
+package com.biblioteca.analytics;
+
+import java.util.Locale;
+
+/**
+ * TrendWindow
+ * Sliding windows for borrow counts
+ *
+ * Each window is a ring of fixed-size time buckets; it slides one bucket
+ * at a time, so counts are exact up to the bucket granularity:
+ * - HOUR: 12 buckets of 5 minutes
+ * - DAY: 24 buckets of 1 hour
+ * - WEEK: 28 buckets of 6 hours
+ */
+public enum TrendWindow {
+
+    HOUR(5 * 60 * 1000L, 12),
+    DAY(60 * 60 * 1000L, 24),
+    WEEK(6 * 60 * 60 * 1000L, 28);
+
+    private final long bucketMillis;
+    private final int buckets;
+
+    TrendWindow(long bucketMillis, int buckets) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = buckets;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Index of the bucket containing a timestamp, counted from the epoch
+     */
+    public long bucketOf(long timeMillis) {
+        return Math.floorDiv(timeMillis, bucketMillis);
+    }
+
+    /**
+     * Parse a window name (case-insensitive)
+     *
+     * @return The window, or null if the name is unknown
+     */
+    public static TrendWindow parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+}
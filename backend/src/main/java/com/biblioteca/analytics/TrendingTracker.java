@@ -0,0 +1,141 @@
+package com.biblioteca.analytics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TrendingTracker (Singleton)
+ * Borrow counts per book over sliding windows (see TrendWindow)
+ *
+ * Fed from LibraryFacade.borrowBook (and from the loan history on startup):
+ * - Each borrowed book has one RingCounter per window
+ * - Each window has a HeavyHitters candidate set, updated on every borrow
+ *
+ * getTrending refreshes the candidates' counts and keeps the top K in a
+ * min-heap, so its cost depends on K, not on the number of loans.
+ */
+public class TrendingTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingTracker.class);
+
+    // Largest list served; candidate sets hold several times as many books
+    public static final int MAX_LIMIT = 50;
+    private static final int CANDIDATES = MAX_LIMIT * 4;
+
+    private static final TrendWindow[] WINDOWS = TrendWindow.values();
+
+    // bookId -> one ring counter per window (indexed by ordinal)
+    private final Map<Integer, RingCounter[]> counters = new ConcurrentHashMap<>();
+
+    private final Map<TrendWindow, HeavyHitters> heavyHitters = new EnumMap<>(TrendWindow.class);
+
+    private TrendingTracker() {
+        for (TrendWindow window : WINDOWS) {
+            heavyHitters.put(window, new HeavyHitters(CANDIDATES));
+        }
+        log.info("📈 TrendingTracker (Singleton) initialized");
+    }
+
+    /**
+     * Get the unique instance
+     */
+    public static TrendingTracker getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final TrendingTracker INSTANCE = new TrendingTracker();
+    }
+
+    /**
+     * Record a borrow happening now
+     */
+    public void recordBorrow(int bookId) {
+        recordBorrow(bookId, System.currentTimeMillis());
+    }
+
+    /**
+     * Record a borrow at a given time (e.g. when replaying loan history)
+     * Borrows older than a window are ignored by that window.
+     */
+    public void recordBorrow(int bookId, long timeMillis) {
+        long now = System.currentTimeMillis();
+        RingCounter[] rings = counters.computeIfAbsent(bookId, id -> newRings());
+        for (TrendWindow window : WINDOWS) {
+            RingCounter ring = rings[window.ordinal()];
+            ring.increment(window.bucketOf(timeMillis));
+            heavyHitters.get(window).offer(bookId, ring.sum(window.bucketOf(now)));
+        }
+    }
+
+    /**
+     * Most borrowed books of a window
+     *
+     * @param window Sliding window
+     * @param limit Number of books (at most MAX_LIMIT)
+     * @return Books with their borrow counts, most borrowed first
+     */
+    public List<TrendingEntry> getTrending(TrendWindow window, int limit) {
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        long currentBucket = window.bucketOf(System.currentTimeMillis());
+        HeavyHitters candidates = heavyHitters.get(window);
+
+        PriorityQueue<TrendingEntry> top = new PriorityQueue<>(k + 1, Comparator.comparingInt(TrendingEntry::getBorrows));
+        for (int bookId : candidates.candidates()) {
+            RingCounter[] rings = counters.get(bookId);
+            int count = rings != null ? rings[window.ordinal()].sum(currentBucket) : 0;
+
+            // Refresh the candidate so expired counts make room for rising books
+            candidates.offer(bookId, count);
+            if (count > 0) {
+                top.add(new TrendingEntry(bookId, count));
+                if (top.size() > k) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<TrendingEntry> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingInt(TrendingEntry::getBorrows).reversed()
+                .thenComparingInt(TrendingEntry::getBookId));
+        return result;
+    }
+
+    private RingCounter[] newRings() {
+        RingCounter[] rings = new RingCounter[WINDOWS.length];
+        for (TrendWindow window : WINDOWS) {
+            rings[window.ordinal()] = new RingCounter(window.getBuckets());
+        }
+        return rings;
+    }
+
+    /**
+     * A book and its borrow count in a window
+     */
+    public static class TrendingEntry {
+
+        private final int bookId;
+        private final int borrows;
+
+        public TrendingEntry(int bookId, int borrows) {
+            this.bookId = bookId;
+            this.borrows = borrows;
+        }
+
+        public int getBookId() {
+            return bookId;
+        }
+
+        public int getBorrows() {
+            return borrows;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.biblioteca.catalog;
+
+import com.biblioteca.export.ExportFormat;
+import com.biblioteca.patterns.singleton.LibraryManager;
+import com.biblioteca.services.DataService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * BookImportCli
+ * Command-line bulk import into data/books.json, without the server
+ *
+ * Usage: BookImportCli <file> [csv|ndjson]
+ *
+ * The format defaults to the file extension (.csv or .ndjson, optionally
+ * followed by .gz). The catalog is loaded from data/books.json on the
+ * classpath, the file imported with BookImporter, and the catalog written
+ * back once. Stop the server first: it keeps the catalog in memory and
+ * would overwrite the file on its next save. Holds waiting for books that
+ * got more copies are not promoted here.
+ *
+ * Exit status: 0 if every row was imported, 1 if some rows failed,
+ * 2 if nothing could be imported.
+ */
+public final class BookImportCli {
+
+    private BookImportCli() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: BookImportCli <file> [csv|ndjson]");
+            System.exit(2);
+        }
+
+        Path file = Paths.get(args[0]);
+        ExportFormat format = ExportFormat.parse(args.length > 1 ? args[1] : formatOf(file));
+        if (format == null) {
+            System.err.println("Unknown format: give csv or ndjson after the file name");
+            System.exit(2);
+        }
+
+        DataService dataService = new DataService();
+        LibraryManager libraryManager = LibraryManager.getInstance();
+        libraryManager.addBooks(dataService.loadBooks());
+        System.out.println("Catalog: " + libraryManager.getAllBooks().size() + " books");
+
+        ImportReport report;
+        try (InputStream in = Files.newInputStream(file)) {
+            report = new BookImporter().importBooks(in, format);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Import failed: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        if (report.getCreated() > 0 || report.getUpdated() > 0) {
+            dataService.saveBooks(libraryManager.getAllBooks());
+        }
+
+        System.out.printf("Imported %d rows in %d ms (%d rows/s): %d created, %d updated, %d failed%n",
+                report.getRows(), report.getElapsedMillis(), report.getRowsPerSecond(),
+                report.getCreated(), report.getUpdated(), report.getFailed());
+        for (ImportReport.RowError error : report.getErrors()) {
+            System.out.printf("  line %d (%s): %s%n", error.getLine(),
+                    error.getIsbn() != null ? error.getIsbn() : "no ISBN", error.getMessage());
+        }
+        if (report.isErrorsTruncated()) {
+            System.out.printf("  ... and %d more%n", report.getFailed() - report.getErrors().size());
+        }
+        System.exit(report.getFailed() > 0 ? 1 : 0);
+    }
+
+    /**
+     * Format name from the file extension, ignoring a trailing .gz
+     */
+    private static String formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1) : null;
+    }
+}
@@ -0,0 +1,626 @@
+package com.biblioteca.catalog;
+
+import com.biblioteca.export.ExportFormat;
+import com.biblioteca.patterns.factory.AudioBook;
+import com.biblioteca.patterns.factory.Book;
+import com.biblioteca.patterns.factory.BookFactory;
+import com.biblioteca.patterns.factory.BookSpec;
+import com.biblioteca.patterns.factory.DigitalBook;
+import com.biblioteca.patterns.factory.EBook;
+import com.biblioteca.patterns.singleton.LibraryManager;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * BookImporter
+ * Bulk import of books from CSV or NDJSON, upserting by ISBN
+ *
+ * - Input: the columns / fields of the books export (ExportTable.BOOKS),
+ *   so an exported catalog imports as is; id, availableCopies and unknown
+ *   columns are ignored. gzip input is detected from its magic bytes.
+ * - Parallel parsing: one thread splits the input into records (CSV
+ *   quoted fields may span lines) and hands chunks of CHUNK_SIZE records
+ *   to worker threads, which parse, validate and build the books through
+ *   the typed BookFactory path. At most CHUNKS_PER_WORKER chunks per
+ *   worker are in flight, so memory does not grow with the input.
+ * - Upsert: chunks are applied in input order. A new ISBN creates a book;
+ *   a known one (in the catalog or earlier in the input) updates its
+ *   title, author, category, copies and format details; the book is
+ *   re-indexed for search (LibraryManager.updateMetadata). The type of an
+ *   existing book cannot change (lent copies and files belong to the
+ *   book as it is), so such rows fail.
+ * - Commit: new books are added in one batch (LibraryManager.addBooks)
+ *   and updates applied once the whole input was read, so a broken
+ *   stream changes nothing. Persisting is left to the caller, once.
+ *
+ * One import runs at a time per importer.
+ */
+public class BookImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImporter.class);
+
+    // Records parsed per worker task
+    private static final int CHUNK_SIZE = 2048;
+
+    // Chunks queued or being parsed, per worker
+    private static final int CHUNKS_PER_WORKER = 2;
+
+    // Read buffer size
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] REQUIRED = {"title", "author", "isbn", "category", "bookType"};
+
+    private static final Set<String> BOOK_TYPES = Set.of("DIGITAL", "AUDIO", "EBOOK");
+
+    // CSV column -> BookSpec setter (the export column names)
+    private static final Map<String, BiConsumer<BookSpec, String>> COLUMNS = new HashMap<>();
+
+    static {
+        COLUMNS.put("title", BookSpec::setTitle);
+        COLUMNS.put("author", BookSpec::setAuthor);
+        COLUMNS.put("isbn", BookSpec::setIsbn);
+        COLUMNS.put("category", BookSpec::setCategory);
+        COLUMNS.put("bookType", BookSpec::setBookType);
+        COLUMNS.put("totalCopies", (spec, value) -> spec.setTotalCopies(parseInt("totalCopies", value)));
+        COLUMNS.put("fileFormat", BookSpec::setFileFormat);
+        COLUMNS.put("fileSizeMB", (spec, value) -> spec.setFileSizeMB(parseDouble("fileSizeMB", value)));
+        COLUMNS.put("narrator", BookSpec::setNarrator);
+        COLUMNS.put("durationMinutes", (spec, value) -> spec.setDurationMinutes(parseInt("durationMinutes", value)));
+        COLUMNS.put("audioFormat", BookSpec::setAudioFormat);
+        COLUMNS.put("hasInteractiveContent",
+                (spec, value) -> spec.setHasInteractiveContent(parseBoolean("hasInteractiveContent", value)));
+        COLUMNS.put("pageCount", (spec, value) -> spec.setPageCount(parseInt("pageCount", value)));
+        COLUMNS.put("publisher", BookSpec::setPublisher);
+    }
+
+    private static final AtomicInteger workerCount = new AtomicInteger();
+
+    private final LibraryManager libraryManager;
+    private final Gson gson = new Gson();
+    private volatile int parallelism;
+
+    public BookImporter() {
+        this.libraryManager = LibraryManager.getInstance();
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Sets the number of parsing threads
+     *
+     * @param parallelism Worker threads; 0 or less for one per processor
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Imports books from a stream (read to the end, not closed)
+     *
+     * @param in CSV with a header line, or NDJSON; plain or gzip
+     * @param format ExportFormat.CSV or NDJSON
+     * @return Counts, per-row errors and throughput
+     * @throws IllegalArgumentException if the CSV header lacks a required column
+     * @throws IOException if the stream fails; the catalog is then unchanged
+     */
+    public synchronized ImportReport importBooks(InputStream in, ExportFormat format) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport(format.name().toLowerCase(Locale.ROOT));
+        RecordReader records = new RecordReader(open(in), format);
+
+        List<BiConsumer<BookSpec, String>> setters = format == ExportFormat.CSV ? readHeader(records) : null;
+
+        int workers = parallelism;
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "import-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // ISBN -> book to create, in input order
+        Map<String, Book> created = new LinkedHashMap<>();
+        List<Update> updates = new ArrayList<>();
+        try {
+            Deque<Future<ParsedChunk>> inFlight = new ArrayDeque<>();
+            Chunk chunk;
+            while ((chunk = records.next(CHUNK_SIZE)) != null) {
+                Chunk toParse = chunk;
+                inFlight.add(pool.submit(() -> parse(toParse, setters)));
+                if (inFlight.size() >= workers * CHUNKS_PER_WORKER) {
+                    plan(await(inFlight.poll()), created, updates, report);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                plan(await(inFlight.poll()), created, updates, report);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        commit(created, updates, report);
+        report.finish((System.nanoTime() - start) / 1_000_000);
+        log.info("📥 Imported {} rows ({}): {} created, {} updated, {} failed in {} ms ({} rows/s)",
+                report.getRows(), report.getFormat(), report.getCreated(), report.getUpdated(),
+                report.getFailed(), report.getElapsedMillis(), report.getRowsPerSecond());
+        return report;
+    }
+
+    /**
+     * Buffers the stream and unwraps gzip if it starts with the gzip magic bytes
+     */
+    private static BufferedReader open(InputStream in) throws IOException {
+        InputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(2);
+        boolean gzip = buffered.read() == 0x1f && buffered.read() == 0x8b;
+        buffered.reset();
+        InputStream data = gzip ? new GZIPInputStream(buffered, BUFFER_SIZE) : buffered;
+        return new BufferedReader(new InputStreamReader(data, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Reads the CSV header and maps each column to a setter (null to ignore it)
+     */
+    private static List<BiConsumer<BookSpec, String>> readHeader(RecordReader records) throws IOException {
+        Chunk header = records.next(1);
+        if (header == null) {
+            throw new IllegalArgumentException("The CSV has no header line");
+        }
+        List<String> columns = splitCsv(header.records[0]);
+        List<BiConsumer<BookSpec, String>> setters = new ArrayList<>();
+        for (String column : columns) {
+            setters.add(COLUMNS.get(column.trim()));
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (String required : REQUIRED) {
+            if (!setters.contains(COLUMNS.get(required))) {
+                missing.add(required);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing CSV column(s): " + String.join(", ", missing));
+        }
+        return setters;
+    }
+
+    /**
+     * Parses, validates and builds the books of a chunk (worker thread)
+     */
+    private ParsedChunk parse(Chunk chunk, List<BiConsumer<BookSpec, String>> setters) {
+        ParsedChunk parsed = new ParsedChunk(chunk);
+        for (int i = 0; i < chunk.size; i++) {
+            try {
+                BookSpec spec;
+                if (setters != null) {
+                    // Filled field by field: a bad field still leaves the ISBN for the report
+                    spec = parsed.specs[i] = new BookSpec();
+                    parseCsv(chunk.records[i], setters, spec);
+                } else {
+                    spec = gson.fromJson(chunk.records[i], BookSpec.class);
+                    if (spec == null) {
+                        throw new IllegalArgumentException("Empty record");
+                    }
+                }
+                normalize(spec);
+                parsed.specs[i] = spec;
+                String error = validate(spec);
+                if (error != null) {
+                    parsed.errors[i] = error;
+                } else {
+                    parsed.books[i] = BookFactory.createBook(spec);
+                }
+            } catch (JsonParseException e) {
+                parsed.errors[i] = "Invalid JSON: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            } catch (IllegalArgumentException e) {
+                parsed.errors[i] = e.getMessage();
+            }
+        }
+        return parsed;
+    }
+
+    private static void parseCsv(String record, List<BiConsumer<BookSpec, String>> setters, BookSpec spec) {
+        List<String> fields = splitCsv(record);
+        if (fields.size() != setters.size()) {
+            throw new IllegalArgumentException("Expected " + setters.size() + " fields, found " + fields.size());
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            BiConsumer<BookSpec, String> setter = setters.get(i);
+            String value = fields.get(i).trim();
+            if (setter != null && !value.isEmpty()) {
+                setter.accept(spec, value);
+            }
+        }
+    }
+
+    /**
+     * Splits a CSV record into fields (RFC 4180 quoting)
+     */
+    private static List<String> splitCsv(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Trims the common fields (blank becomes missing) and upper-cases the type
+     */
+    private static void normalize(BookSpec spec) {
+        spec.setTitle(trim(spec.getTitle()));
+        spec.setAuthor(trim(spec.getAuthor()));
+        spec.setIsbn(trim(spec.getIsbn()));
+        spec.setCategory(trim(spec.getCategory()));
+        String bookType = trim(spec.getBookType());
+        spec.setBookType(bookType != null ? bookType.toUpperCase(Locale.ROOT) : null);
+    }
+
+    private static String trim(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * @return Why the row cannot be imported, or null if it is valid
+     */
+    private static String validate(BookSpec spec) {
+        if (spec.getTitle() == null) {
+            return "Missing title";
+        }
+        if (spec.getAuthor() == null) {
+            return "Missing author";
+        }
+        if (spec.getIsbn() == null) {
+            return "Missing isbn";
+        }
+        if (spec.getCategory() == null) {
+            return "Missing category";
+        }
+        if (spec.getBookType() == null) {
+            return "Missing bookType";
+        }
+        if (!BOOK_TYPES.contains(spec.getBookType())) {
+            return "Invalid bookType: " + spec.getBookType() + ". Valid types: DIGITAL, AUDIO, EBOOK";
+        }
+        if (!Isbn.isValid(spec.getIsbn())) {
+            return "Invalid ISBN: " + spec.getIsbn();
+        }
+        if (spec.getTotalCopies() != null && spec.getTotalCopies() < 1) {
+            return "totalCopies must be at least 1";
+        }
+        if (spec.getFileSizeMB() != null && !(spec.getFileSizeMB() >= 0)) {
+            return "fileSizeMB cannot be negative";
+        }
+        if (spec.getDurationMinutes() != null && spec.getDurationMinutes() < 1) {
+            return "durationMinutes must be at least 1";
+        }
+        if (spec.getPageCount() != null && spec.getPageCount() < 1) {
+            return "pageCount must be at least 1";
+        }
+        return null;
+    }
+
+    /**
+     * Sorts the rows of a parsed chunk into creations, updates and failures
+     * (importing thread, in input order)
+     */
+    private void plan(ParsedChunk chunk, Map<String, Book> created, List<Update> updates, ImportReport report) {
+        for (int i = 0; i < chunk.size; i++) {
+            report.countRow();
+            long line = chunk.lines[i];
+            BookSpec spec = chunk.specs[i];
+            if (chunk.errors[i] != null) {
+                report.fail(line, spec != null ? spec.getIsbn() : null, chunk.errors[i]);
+                continue;
+            }
+
+            String key = Isbn.normalize(spec.getIsbn());
+            Book earlier = created.get(key);
+            Book existing = earlier != null ? earlier : libraryManager.getBookByIsbn(key);
+            if (existing == null) {
+                created.put(key, chunk.books[i]);
+                report.countCreated();
+                continue;
+            }
+
+            String conflict = conflict(existing, spec);
+            if (conflict != null) {
+                report.fail(line, spec.getIsbn(), conflict);
+            } else if (earlier != null) {
+                // Not in the catalog yet: nobody else can see it
+                if (spec.getTotalCopies() != null) {
+                    earlier.setTotalCopies(spec.getTotalCopies());
+                }
+                earlier.setTitle(spec.getTitle());
+                earlier.setAuthor(spec.getAuthor());
+                earlier.setCategory(spec.getCategory());
+                updateDetails(earlier, spec);
+                report.countUpdated();
+            } else {
+                updates.add(new Update(line, existing, spec));
+            }
+        }
+    }
+
+    /**
+     * @return Why a row cannot update a book, or null if it can
+     */
+    private static String conflict(Book book, BookSpec spec) {
+        if (book.getBookType().equals(spec.getBookType())) {
+            return null;
+        }
+        return "ISBN belongs to " + (book.getId() > 0 ? "book " + book.getId() : "a book earlier in this import")
+                + " of type " + book.getBookType() + "; an import cannot change the type of a book";
+    }
+
+    /**
+     * Adds the new books in one batch, then updates the existing ones
+     */
+    private void commit(Map<String, Book> created, List<Update> updates, ImportReport report) {
+        libraryManager.addBooks(created.values());
+
+        for (Update update : updates) {
+            Book book = update.book;
+            Integer totalCopies = update.spec.getTotalCopies();
+            if (totalCopies != null && totalCopies != book.getTotalCopies()) {
+                int before = book.getTotalCopies();
+                if (!libraryManager.setTotalCopies(book, totalCopies)) {
+                    report.fail(update.line, update.spec.getIsbn(),
+                            "totalCopies " + totalCopies + " is below the copies on loan or held");
+                    continue;
+                }
+                if (totalCopies > before) {
+                    report.restocked(book);
+                }
+            }
+            BookSpec spec = update.spec;
+            if (!Objects.equals(book.getTitle(), spec.getTitle())
+                    || !Objects.equals(book.getAuthor(), spec.getAuthor())
+                    || !Objects.equals(book.getCategory(), spec.getCategory())) {
+                libraryManager.updateMetadata(book, spec.getTitle(), spec.getAuthor(), spec.getCategory());
+            }
+            updateDetails(book, update.spec);
+            report.countUpdated();
+        }
+    }
+
+    /**
+     * Copies the type-specific fields that were given onto a book
+     */
+    private static void updateDetails(Book book, BookSpec spec) {
+        if (book instanceof DigitalBook) {
+            DigitalBook digital = (DigitalBook) book;
+            if (spec.getFileFormat() != null) {
+                digital.setFileFormat(spec.getFileFormat());
+            }
+            if (spec.getFileSizeMB() != null) {
+                digital.setFileSizeMB(spec.getFileSizeMB());
+            }
+        } else if (book instanceof AudioBook) {
+            AudioBook audio = (AudioBook) book;
+            if (spec.getNarrator() != null) {
+                audio.setNarrator(spec.getNarrator());
+            }
+            if (spec.getDurationMinutes() != null) {
+                audio.setDurationMinutes(spec.getDurationMinutes());
+            }
+            if (spec.getAudioFormat() != null) {
+                audio.setAudioFormat(spec.getAudioFormat());
+            }
+        } else if (book instanceof EBook) {
+            EBook ebook = (EBook) book;
+            if (spec.getHasInteractiveContent() != null) {
+                ebook.setHasInteractiveContent(spec.getHasInteractiveContent());
+            }
+            if (spec.getPageCount() != null) {
+                ebook.setPageCount(spec.getPageCount());
+            }
+            if (spec.getPublisher() != null) {
+                ebook.setPublisher(spec.getPublisher());
+            }
+        }
+    }
+
+    private static ParsedChunk await(Future<ParsedChunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static int parseInt(String field, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static double parseDouble(String field, String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static boolean parseBoolean(String field, String value) {
+        if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+            return Boolean.parseBoolean(value);
+        }
+        throw new IllegalArgumentException("Invalid " + field + ": " + value);
+    }
+
+    /**
+     * Splits the input into records with the line each starts on
+     * Blank lines are skipped; a CSV record continues over line breaks
+     * while a quoted field is open.
+     */
+    private static class RecordReader {
+
+        private final BufferedReader reader;
+        private final ExportFormat format;
+        private long line;
+
+        RecordReader(BufferedReader reader, ExportFormat format) {
+            this.reader = reader;
+            this.format = format;
+        }
+
+        /**
+         * @return Up to size records, or null at the end of the input
+         */
+        Chunk next(int size) throws IOException {
+            Chunk chunk = new Chunk(size);
+            String text;
+            while (chunk.size < size && (text = reader.readLine()) != null) {
+                line++;
+                if (line == 1 && text.startsWith("\uFEFF")) {
+                    text = text.substring(1);
+                }
+                if (text.isBlank()) {
+                    continue;
+                }
+                long first = line;
+                int open = format == ExportFormat.CSV ? quotes(text) : 0;
+                if (open % 2 != 0) {
+                    StringBuilder record = new StringBuilder(text);
+                    while (open % 2 != 0 && (text = reader.readLine()) != null) {
+                        line++;
+                        record.append('\n').append(text);
+                        open += quotes(text);
+                    }
+                    text = record.toString();
+                }
+                chunk.records[chunk.size] = text;
+                chunk.lines[chunk.size] = first;
+                chunk.size++;
+            }
+            return chunk.size > 0 ? chunk : null;
+        }
+
+        private static int quotes(String text) {
+            int count = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Raw records handed to a worker
+     */
+    private static class Chunk {
+
+        final String[] records;
+        final long[] lines;
+        int size;
+
+        Chunk(int capacity) {
+            this.records = new String[capacity];
+            this.lines = new long[capacity];
+        }
+    }
+
+    /**
+     * A chunk after parsing: per record, the spec and either a book or an error
+     */
+    private static class ParsedChunk {
+
+        final int size;
+        final long[] lines;
+        final BookSpec[] specs;
+        final Book[] books;
+        final String[] errors;
+
+        ParsedChunk(Chunk chunk) {
+            this.size = chunk.size;
+            this.lines = chunk.lines;
+            this.specs = new BookSpec[size];
+            this.books = new Book[size];
+            this.errors = new String[size];
+        }
+    }
+
+    /**
+     * An existing book to update at commit
+     */
+    private static class Update {
+
+        final long line;
+        final Book book;
+        final BookSpec spec;
+
+        Update(long line, Book book, BookSpec spec) {
+            this.line = line;
+            this.book = book;
+            this.spec = spec;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.biblioteca.catalog;
+
+import com.biblioteca.patterns.factory.Book;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * ImportReport
+ * Outcome of one bulk import
+ *
+ * Every data row is counted exactly once: rows = created + updated + failed.
+ * The first MAX_ERRORS failures are kept with their line number; the
+ * rest are only counted.
+ */
+public class ImportReport {
+
+    // Failures kept with their details
+    public static final int MAX_ERRORS = 1000;
+
+    private final String format;
+    private long rows;
+    private long created;
+    private long updated;
+    private long failed;
+    private final List<RowError> errors = new ArrayList<>();
+    private long elapsedMillis;
+
+    // Existing books that got more copies (their waiting holds can move up)
+    private final List<Book> restocked = new ArrayList<>();
+
+    ImportReport(String format) {
+        this.format = format;
+    }
+
+    void countRow() {
+        rows++;
+    }
+
+    void countCreated() {
+        created++;
+    }
+
+    void countUpdated() {
+        updated++;
+    }
+
+    void fail(long line, String isbn, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, isbn, message));
+        }
+    }
+
+    void restocked(Book book) {
+        restocked.add(book);
+    }
+
+    void finish(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+        // Update failures are found after the whole input was read
+        errors.sort(Comparator.comparingLong(RowError::getLine));
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * True if more rows failed than are listed in getErrors()
+     */
+    public boolean isErrorsTruncated() {
+        return failed > errors.size();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Rows read per second, over the whole import
+     */
+    public long getRowsPerSecond() {
+        return elapsedMillis > 0 ? rows * 1000 / elapsedMillis : rows;
+    }
+
+    public List<Book> getRestocked() {
+        return Collections.unmodifiableList(restocked);
+    }
+
+    /**
+     * A row that was not imported
+     */
+    public static class RowError {
+
+        private final long line;
+        private final String isbn;
+        private final String message;
+
+        RowError(long line, String isbn, String message) {
+            this.line = line;
+            this.isbn = isbn;
+            this.message = message;
+        }
+
+        /**
+         * Line of the input where the row starts (1-based, header included)
+         */
+        public long getLine() {
+            return line;
+        }
+
+        public String getIsbn() {
+            return isbn;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.biblioteca.catalog;
+
+/**
+ * Isbn
+ * ISBN normalization and format checks
+ *
+ * ISBNs are compared without hyphens or spaces and with an upper-case
+ * check character, so "978-0-13-235088-4" and "9780132350884" are the
+ * same book. Only the shape is checked (13 digits, or 9 digits and a
+ * digit or X): catalog data carries ISBNs with wrong check digits, and
+ * rejecting them would make exported catalogs impossible to re-import.
+ */
+public final class Isbn {
+
+    private Isbn() {
+    }
+
+    /**
+     * Comparison key of an ISBN
+     *
+     * @return The ISBN without hyphens or spaces, upper-cased; null for null
+     */
+    public static String normalize(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(isbn.length());
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c != '-' && c != ' ') {
+                key.append(Character.toUpperCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Checks that an ISBN has the shape of an ISBN-10 or ISBN-13
+     */
+    public static boolean isValid(String isbn) {
+        String key = normalize(isbn);
+        if (key == null || (key.length() != 10 && key.length() != 13)) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            boolean checkX = c == 'X' && key.length() == 10 && i == 9;
+            if ((c < '0' || c > '9') && !checkX) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
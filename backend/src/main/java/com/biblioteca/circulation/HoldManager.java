@@ -0,0 +1,406 @@
+package com.biblioteca.circulation;
+
+import com.biblioteca.models.Hold;
+import com.biblioteca.patterns.factory.Book;
+import com.biblioteca.patterns.singleton.LibraryManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * HoldManager (Singleton)
+ * Per-book FIFO hold queues for titles with no free copy
+ *
+ * A user who cannot borrow a book places one hold instead of retrying.
+ * When a copy comes back (return, expired or cancelled claim, more copies),
+ * it is not released to whoever asks first: it is set aside for the oldest
+ * waiting hold, which becomes READY for a claim window. Borrowing the book
+ * within the window consumes the set-aside copy; after it, the copy moves on
+ * to the next holder (or back to the shelf when nobody is waiting).
+ *
+ * Each book's queue is guarded by its own monitor, so hand-offs of different
+ * books never contend; the copy counters themselves stay lock-free
+ * (LibraryManager.acquireCopy / releaseCopy).
+ *
+ * Invariant: a book has free copies only when nobody waits for it, so a
+ * borrow without a hold never jumps the queue.
+ */
+public class HoldManager {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldManager.class);
+
+    private static final Duration DEFAULT_CLAIM_WINDOW = Duration.ofHours(48);
+
+    private final LibraryManager libraryManager;
+
+    // bookId -> queue of the book
+    private final Map<Integer, HoldQueue> queues = new ConcurrentHashMap<>();
+
+    // holdId -> active (WAITING or READY) hold
+    private final Map<Integer, Hold> holds = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextHoldId = new AtomicInteger(1);
+
+    private volatile long claimWindowMillis = DEFAULT_CLAIM_WINDOW.toMillis();
+
+    private HoldManager() {
+        this.libraryManager = LibraryManager.getInstance();
+        log.info("📌 HoldManager (Singleton) initialized");
+    }
+
+    /**
+     * Get the unique instance
+     */
+    public static HoldManager getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final HoldManager INSTANCE = new HoldManager();
+    }
+
+    /**
+     * Sets how long a READY hold keeps its copy
+     */
+    public void setClaimWindow(Duration claimWindow) {
+        this.claimWindowMillis = claimWindow.toMillis();
+    }
+
+    /**
+     * Places a hold on a book
+     *
+     * If nobody is waiting and a copy is free, the copy is set aside at once
+     * (the hold is READY). A user has at most one hold per book: placing it
+     * again returns the existing hold.
+     *
+     * @param username Holder
+     * @param book Book to hold
+     * @return The user's hold on the book
+     */
+    public Hold placeHold(String username, Book book) {
+        long now = System.currentTimeMillis();
+        HoldQueue queue = queueOf(book.getId());
+        synchronized (queue) {
+            Hold existing = queue.find(username);
+            if (existing != null) {
+                return existing;
+            }
+            Hold hold = new Hold(nextHoldId.getAndIncrement(), username, book.getId(), book.getTitle(), now);
+            if (queue.waiting.isEmpty() && libraryManager.acquireCopy(book)) {
+                hold.markReady(now, claimWindowMillis);
+                queue.ready.add(hold);
+            } else {
+                queue.waiting.addLast(hold);
+            }
+            holds.put(hold.getId(), hold);
+            log.debug("📌 Hold {} placed on '{}' for {} ({})", hold.getId(), book.getTitle(), username, hold.getStatus());
+            return hold;
+        }
+    }
+
+    /**
+     * Consumes the user's READY hold on a book, if any (borrow path)
+     *
+     * @return true if a copy was set aside for the user; the caller lends
+     * it without taking another copy
+     */
+    public boolean claim(String username, int bookId) {
+        HoldQueue queue = queues.get(bookId);
+        if (queue == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (queue) {
+            for (Iterator<Hold> it = queue.ready.iterator(); it.hasNext(); ) {
+                Hold hold = it.next();
+                if (hold.getUsername().equals(username) && !hold.isExpired(now)) {
+                    it.remove();
+                    holds.remove(hold.getId());
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Hands a returned copy to the next waiting holder (return path)
+     *
+     * Expired claims of the book are settled first. When nobody waits, the
+     * copy goes back to the shelf. The copy is released under the queue
+     * lock even when the book has no holds yet, so a hold placed at the
+     * same time either sees the copy on the shelf or receives it here.
+     *
+     * @param book Returned book
+     * @return The hold that received the copy, or null if it was released
+     */
+    public Hold handOff(Book book) {
+        HoldQueue queue = queueOf(book.getId());
+        long now = System.currentTimeMillis();
+        synchronized (queue) {
+            expireLocked(queue, book, now);
+            return passOnLocked(queue, book, now);
+        }
+    }
+
+    /**
+     * Cancels a hold of a user; a copy set aside for it moves on
+     *
+     * @return false if the hold does not exist or belongs to someone else
+     */
+    public boolean cancel(String username, int holdId) {
+        Hold hold = holds.get(holdId);
+        if (hold == null || !hold.getUsername().equals(username)) {
+            return false;
+        }
+        HoldQueue queue = queueOf(hold.getBookId());
+        synchronized (queue) {
+            if (queue.waiting.remove(hold)) {
+                holds.remove(holdId);
+                return true;
+            }
+            if (queue.ready.remove(hold)) {
+                holds.remove(holdId);
+                Book book = libraryManager.getBookById(hold.getBookId());
+                if (book != null) {
+                    passOnLocked(queue, book, System.currentTimeMillis());
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Moves free copies of a book to its waiting holders (e.g. after copies
+     * were added)
+     *
+     * @return Number of holds that became READY
+     */
+    public int promote(Book book) {
+        HoldQueue queue = queues.get(book.getId());
+        if (queue == null) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        int promoted = 0;
+        synchronized (queue) {
+            while (!queue.waiting.isEmpty() && libraryManager.acquireCopy(book)) {
+                Hold next = queue.waiting.pollFirst();
+                next.markReady(now, claimWindowMillis);
+                queue.ready.add(next);
+                promoted++;
+            }
+        }
+        return promoted;
+    }
+
+    /**
+     * Settles every READY hold whose claim window has passed
+     *
+     * @param now Current time (epoch millis)
+     * @return Number of expired holds
+     */
+    public int expireClaims(long now) {
+        int expired = 0;
+        for (Map.Entry<Integer, HoldQueue> entry : queues.entrySet()) {
+            HoldQueue queue = entry.getValue();
+            synchronized (queue) {
+                if (queue.ready.isEmpty()) {
+                    continue;
+                }
+                Book book = libraryManager.getBookById(entry.getKey());
+                if (book != null) {
+                    expired += expireLocked(queue, book, now);
+                }
+            }
+        }
+        if (expired > 0) {
+            log.info("📌 {} hold claims expired and were passed on", expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Active holds of a user
+     */
+    public List<Hold> getHoldsByUser(String username) {
+        return holds.values().stream()
+                .filter(hold -> hold.getUsername().equals(username))
+                .sorted(Comparator.comparingInt(Hold::getId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Active holds of a book: READY first, then the waiting queue in order
+     */
+    public List<Hold> getHoldsByBook(int bookId) {
+        HoldQueue queue = queues.get(bookId);
+        if (queue == null) {
+            return List.of();
+        }
+        synchronized (queue) {
+            List<Hold> result = new ArrayList<>(queue.ready);
+            result.addAll(queue.waiting);
+            return result;
+        }
+    }
+
+    /**
+     * Position of a hold in its book's queue
+     *
+     * @return 1 for the next holder to be served, 0 if READY or no longer active
+     */
+    public int getPosition(Hold hold) {
+        HoldQueue queue = queues.get(hold.getBookId());
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            int position = 1;
+            for (Hold waiting : queue.waiting) {
+                if (waiting.getId() == hold.getId()) {
+                    return position;
+                }
+                position++;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Number of copies set aside per book (READY holds)
+     */
+    public Map<Integer, Integer> getReadyCounts() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (Hold hold : holds.values()) {
+            if (hold.isReady()) {
+                counts.merge(hold.getBookId(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * All active holds, for persistence
+     */
+    public List<Hold> getAllHolds() {
+        return holds.values().stream()
+                .sorted(Comparator.comparingInt(Hold::getId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Rebuilds the queues from persisted holds (on startup)
+     * Waiting holds are queued by placement time; holds of unknown books
+     * are dropped.
+     */
+    public void load(List<Hold> saved) {
+        clear();
+        List<Hold> ordered = new ArrayList<>(saved);
+        ordered.sort(Comparator.comparingLong(Hold::getPlacedAt).thenComparingInt(Hold::getId));
+        int maxId = 0;
+        for (Hold hold : ordered) {
+            if (libraryManager.getBookById(hold.getBookId()) == null) {
+                continue;
+            }
+            HoldQueue queue = queueOf(hold.getBookId());
+            synchronized (queue) {
+                if (hold.isReady()) {
+                    queue.ready.add(hold);
+                } else {
+                    hold.setStatus(Hold.Status.WAITING);
+                    queue.waiting.addLast(hold);
+                }
+            }
+            holds.put(hold.getId(), hold);
+            maxId = Math.max(maxId, hold.getId());
+        }
+        nextHoldId.set(maxId + 1);
+        if (!holds.isEmpty()) {
+            log.info("📌 Loaded {} holds on {} books", holds.size(), queues.size());
+        }
+    }
+
+    /**
+     * Remove all holds
+     */
+    public void clear() {
+        queues.clear();
+        holds.clear();
+        nextHoldId.set(1);
+    }
+
+    private HoldQueue queueOf(int bookId) {
+        return queues.computeIfAbsent(bookId, id -> new HoldQueue());
+    }
+
+    /**
+     * Drops expired READY holds of a book, passing each copy on; caller holds the queue lock
+     */
+    private int expireLocked(HoldQueue queue, Book book, long now) {
+        int expired = 0;
+        for (Iterator<Hold> it = queue.ready.iterator(); it.hasNext(); ) {
+            Hold hold = it.next();
+            if (hold.isExpired(now)) {
+                it.remove();
+                holds.remove(hold.getId());
+                expired++;
+            }
+        }
+        for (int i = 0; i < expired; i++) {
+            passOnLocked(queue, book, now);
+        }
+        return expired;
+    }
+
+    /**
+     * Gives one copy to the next waiting holder, or back to the shelf; caller holds the queue lock
+     */
+    private Hold passOnLocked(HoldQueue queue, Book book, long now) {
+        Hold next = queue.waiting.pollFirst();
+        if (next == null) {
+            libraryManager.releaseCopy(book);
+            return null;
+        }
+        next.markReady(now, claimWindowMillis);
+        queue.ready.add(next);
+        log.debug("📌 Copy of '{}' set aside for {} (hold {})", book.getTitle(), next.getUsername(), next.getId());
+        return next;
+    }
+
+    /**
+     * Holds of one book: copies set aside (READY) and the FIFO of waiting holds
+     */
+    private static class HoldQueue {
+
+        private final List<Hold> ready = new ArrayList<>();
+        private final Deque<Hold> waiting = new ArrayDeque<>();
+
+        Hold find(String username) {
+            for (Hold hold : ready) {
+                if (hold.getUsername().equals(username)) {
+                    return hold;
+                }
+            }
+            for (Hold hold : waiting) {
+                if (hold.getUsername().equals(username)) {
+                    return hold;
+                }
+            }
+            return null;
+        }
+    }
+}
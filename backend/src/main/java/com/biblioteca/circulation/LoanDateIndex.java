@@ -0,0 +1,74 @@
+package com.biblioteca.circulation;
+
+import com.biblioteca.models.Loan;
+
+import java.time.LocalDate;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * LoanDateIndex
+ * Loans ordered by one of their dates (loan date or return date)
+ *
+ * Loans are bucketed by epoch day in a ConcurrentSkipListMap. A range
+ * query takes the sub-map view between two days and walks only its
+ * buckets, so its cost depends on the loans in the range (plus a
+ * logarithmic seek), not on the size of the loan history.
+ *
+ * Appends and reads never lock: buckets are lock-free queues and the
+ * skip list is concurrent, so a range read concurrently with new loans
+ * is weakly consistent (it may or may not see them).
+ *
+ * Owned by LibraryManager, which indexes loan dates in addLoan() and
+ * return dates when a loan is returned.
+ */
+public class LoanDateIndex {
+
+    // epoch day -> loans of the day, in insertion order
+    private final ConcurrentSkipListMap<Long, Queue<Loan>> days = new ConcurrentSkipListMap<>();
+
+    /**
+     * Index a loan under a date (ignored when the date is null)
+     */
+    public void add(LocalDate date, Loan loan) {
+        if (date == null) {
+            return;
+        }
+        days.computeIfAbsent(date.toEpochDay(), day -> new ConcurrentLinkedQueue<>()).add(loan);
+    }
+
+    /**
+     * Loans dated within a range, in date order
+     *
+     * @param from First day (inclusive), or null for no lower bound
+     * @param to Last day (inclusive), or null for no upper bound
+     * @return Lazy stream over the buckets of the range
+     */
+    public Stream<Loan> range(LocalDate from, LocalDate to) {
+        NavigableMap<Long, Queue<Loan>> view = days;
+        if (from != null) {
+            view = view.tailMap(from.toEpochDay(), true);
+        }
+        if (to != null) {
+            view = view.headMap(to.toEpochDay(), true);
+        }
+        return view.values().stream().flatMap(Queue::stream);
+    }
+
+    /**
+     * Number of days with at least one loan
+     */
+    public int days() {
+        return days.size();
+    }
+
+    /**
+     * Remove all loans
+     */
+    public void clear() {
+        days.clear();
+    }
+}
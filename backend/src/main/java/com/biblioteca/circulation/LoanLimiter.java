@@ -0,0 +1,133 @@
+package com.biblioteca.circulation;
+
+import com.biblioteca.models.Loan;
+import com.biblioteca.models.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LoanLimiter (Singleton)
+ * Per-user active-loan counters and per-role loan limits
+ *
+ * Each user has an AtomicInteger of active (not returned) loans, taken on
+ * borrow and given back on return. A borrow reserves a slot with a
+ * compare-and-set below the user's role limit, so checking the limit is
+ * O(1) and two concurrent borrows cannot both take the last slot, without
+ * scanning the loan list or locking the user.
+ *
+ * Counters are rebuilt from the loan history on startup (see LibraryInitializer).
+ */
+public class LoanLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoanLimiter.class);
+
+    // Limit of a role with no configured limit
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    // username -> active loans
+    private final Map<String, AtomicInteger> activeLoans = new ConcurrentHashMap<>();
+
+    // role (upper case) -> maximum active loans
+    private final Map<String, Integer> limits = new ConcurrentHashMap<>();
+
+    private LoanLimiter() {
+        log.info("🚦 LoanLimiter (Singleton) initialized");
+    }
+
+    /**
+     * Get the unique instance
+     */
+    public static LoanLimiter getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final LoanLimiter INSTANCE = new LoanLimiter();
+    }
+
+    /**
+     * Sets the maximum active loans of a role
+     *
+     * @param role Role (ADMIN, USER, GUEST)
+     * @param limit Maximum active loans; negative for unlimited
+     */
+    public void setLimit(String role, int limit) {
+        limits.put(role.toUpperCase(Locale.ROOT), limit < 0 ? UNLIMITED : limit);
+    }
+
+    /**
+     * Maximum active loans of a role (UNLIMITED if not configured)
+     */
+    public int getLimit(String role) {
+        return role != null ? limits.getOrDefault(role.toUpperCase(Locale.ROOT), UNLIMITED) : UNLIMITED;
+    }
+
+    /**
+     * Reserves one active-loan slot of a user, if below the role limit
+     *
+     * @param user Borrower
+     * @return false if the user already has as many active loans as the role allows
+     */
+    public boolean tryAcquire(User user) {
+        int limit = getLimit(user.getRole());
+        AtomicInteger active = counterOf(user.getUsername());
+        while (true) {
+            int current = active.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back an active-loan slot (return, or a borrow that failed after reserving)
+     */
+    public void release(String username) {
+        AtomicInteger active = activeLoans.get(username);
+        if (active != null) {
+            active.updateAndGet(current -> Math.max(0, current - 1));
+        }
+    }
+
+    /**
+     * Number of active loans of a user
+     */
+    public int getActiveLoans(String username) {
+        AtomicInteger active = activeLoans.get(username);
+        return active != null ? active.get() : 0;
+    }
+
+    /**
+     * Check if a user has no active-loan slot left
+     */
+    public boolean isAtLimit(User user) {
+        return getActiveLoans(user.getUsername()) >= getLimit(user.getRole());
+    }
+
+    /**
+     * Recounts the active loans of every user from the loan history
+     * Existing counts above a role limit are kept (they only block new borrows).
+     */
+    public void rebuild(Collection<Loan> loans) {
+        activeLoans.clear();
+        for (Loan loan : loans) {
+            if (!loan.isReturned()) {
+                counterOf(loan.getUsername()).incrementAndGet();
+            }
+        }
+        log.info("🚦 Active-loan counters rebuilt for {} users", activeLoans.size());
+    }
+
+    private AtomicInteger counterOf(String username) {
+        return activeLoans.computeIfAbsent(username, u -> new AtomicInteger());
+    }
+}
@@ -0,0 +1,68 @@
+package com.biblioteca.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * ReactiveConfig
+ * Configuration for the reactive API variant (profile "reactive")
+ *
+ * DataService reads and writes JSON files with blocking I/O. The reactive
+ * controllers offload those calls to a bounded scheduler so the Netty
+ * event loop never blocks. When all threads are busy, tasks queue up to
+ * the configured limit and are rejected beyond it.
+ *
+ * The MVC starter puts Tomcat on the classpath, and Spring Boot would
+ * otherwise prefer it for reactive apps too; this profile runs on Netty.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig implements WebFluxConfigurer {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${biblioteca.reactive.persistence-threads:8}")
+    private int persistenceThreads;
+
+    @Value("${biblioteca.reactive.persistence-queue:10000}")
+    private int persistenceQueue;
+
+    /**
+     * Run the reactive application on Netty's event loop
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * JSON encoder without pretty printing
+     * spring.jackson.serialization.indent-output would split each
+     * streamed NDJSON element across several lines
+     */
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        ObjectMapper compact = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+        configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(compact));
+    }
+
+    /**
+     * Bounded scheduler for blocking persistence calls
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler persistenceScheduler() {
+        return Schedulers.newBoundedElastic(persistenceThreads, persistenceQueue, "persistence");
+    }
+}
@@ -0,0 +1,69 @@
+package com.biblioteca.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * VirtualThreadsConfig
+ * Opt-in virtual-thread execution mode (requires Java 21)
+ *
+ * Enabled with: biblioteca.virtual-threads.enabled=true
+ * Build with the java21 Maven profile: mvn -Pjava21 spring-boot:run
+ *
+ * When enabled:
+ * - Tomcat runs every request on its own virtual thread
+ * - DataService runs file writes on virtual threads (persistenceExecutor)
+ *
+ * A request blocked on a stalled disk write then parks its virtual thread
+ * instead of holding one of the fixed pool's platform threads.
+ *
+ * The executor is looked up reflectively so the project still compiles
+ * on Java 17; enabling the mode on an older JVM fails at startup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biblioteca.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    /**
+     * Run Tomcat request handling on virtual threads
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            protocolHandler.setExecutor(newVirtualThreadPerTaskExecutor());
+            log.info("🧵 Tomcat request handling running on virtual threads");
+        };
+    }
+
+    /**
+     * Executor used by DataService for file writes
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService persistenceExecutor() {
+        return newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor(), available from Java 21
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(
+                    "Virtual threads require Java 21+ (running on Java " + Runtime.version().feature() + ")", e);
+        }
+    }
+}
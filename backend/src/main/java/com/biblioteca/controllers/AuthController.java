@@ -4,6 +4,7 @@ import com.biblioteca.models.User;
 import com.biblioteca.patterns.facade.LibraryFacade;
 import com.biblioteca.services.DataService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -27,6 +28,7 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*")
+@Profile("!reactive")
 public class AuthController {
 
     @Autowired
@@ -0,0 +1,571 @@
+package com.biblioteca.controllers;
+
+import com.biblioteca.models.User;
+import com.biblioteca.patterns.factory.AudioBook;
+import com.biblioteca.patterns.factory.Book;
+import com.biblioteca.patterns.factory.DigitalBook;
+import com.biblioteca.patterns.factory.EBook;
+import com.biblioteca.patterns.facade.LibraryFacade;
+import com.biblioteca.patterns.singleton.LibraryManager;
+import com.biblioteca.services.AudioSegmentCache;
+import com.biblioteca.services.BlobStore;
+import com.biblioteca.services.BlobStore.Manifest;
+import com.biblioteca.services.BlobStore.UploadResult;
+import com.biblioteca.services.ContentStore;
+import com.biblioteca.services.ContentStore.StoredFile;
+import com.biblioteca.services.EBookPageStore;
+import com.biblioteca.services.EBookPageStore.Page;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * BookContentController
+ * REST Controller for the content of digital books and audiobooks
+ *
+ * Endpoints:
+ * - GET /api/books/{id}/file - Download the file of a DigitalBook or EBook
+ * - PUT /api/books/{id}/file - Upload the file of a DigitalBook or EBook (Admin only)
+ * - GET /api/books/{id}/audio - Stream the audio of an AudioBook
+ * - GET /api/books/{id}/pages/{n} - Read a page of an EBook
+ * - PUT /api/books/{id}/pages - Store the pages of an EBook (Admin only)
+ *
+ * Access requires an active loan of the book (admins always have access).
+ * The token is read from the Authorization header or, for plain links and
+ * media elements that cannot set headers, from the "token" query parameter.
+ *
+ * Files are never buffered on the heap:
+ * - Downloads: on Tomcat the byte range is handed to the connector's sendfile
+ *   support, otherwise FileChannel.transferTo copies it to the response;
+ *   uploaded files are sent chunk by chunk from the BlobStore
+ * - Uploads: streamed into the BlobStore one chunk at a time
+ * - Audio: ranges are written from memory-mapped segments shared by all
+ *   listeners (AudioSegmentCache)
+ *
+ * Supports single byte ranges (Range, If-Range) and conditional requests
+ * (If-None-Match, If-Modified-Since).
+ */
+@RestController
+@RequestMapping("/api/books")
+@CrossOrigin(origins = "*")
+@Profile("!reactive")
+public class BookContentController {
+
+    // Tomcat request attributes for sendfile (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Below this size a direct transfer is cheaper than a sendfile hand-off
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private AudioSegmentCache audioSegmentCache;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private EBookPageStore pageStore;
+
+    private final LibraryFacade libraryFacade;
+    private final LibraryManager libraryManager;
+
+    public BookContentController() {
+        this.libraryFacade = LibraryFacade.getInstance();
+        this.libraryManager = LibraryManager.getInstance();
+    }
+
+    /**
+     * Download the file of a digital book
+     * GET /api/books/{id}/file
+     * Headers: Authorization: Bearer {token} (or ?token={token})
+     * Optional headers: Range, If-Range, If-None-Match, If-Modified-Since
+     */
+    @GetMapping("/{id}/file")
+    public ResponseEntity<Map<String, Object>> downloadFile(
+            @PathVariable int id,
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestParam(value = "token", required = false) String tokenParam,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        String token = authHeader != null ? extractToken(authHeader) : tokenParam;
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        Book book = libraryManager.getBookById(id);
+
+        if (!(book instanceof DigitalBook) && !(book instanceof EBook)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Digital book not found"));
+        }
+
+        if (!hasAccess(libraryFacade.getCurrentUser(token), id)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "An active loan of this book is required"));
+        }
+
+        // Uploaded files take precedence over files placed in the content store directly
+        Manifest manifest = blobStore.findManifest(id);
+        StoredFile file = manifest != null ? contentStore.describe(book, manifest)
+                : book instanceof DigitalBook ? contentStore.findBookFile((DigitalBook) book)
+                : null;
+
+        if (file == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "No file available for this book"));
+        }
+
+        long[] range = prepareResponse(file, ContentDisposition.attachment(), request, response);
+        if (range != null && manifest != null) {
+            blobStore.write(manifest, range[0], range[1], Channels.newChannel(response.getOutputStream()));
+        } else if (range != null) {
+            sendFile(file, range[0], range[1], request, response);
+        }
+        return null;
+    }
+
+    /**
+     * Upload the file of a digital book or e-book (Admin only)
+     * PUT /api/books/{id}/file?format=PDF
+     * Headers: Authorization: Bearer {token}
+     * Body: raw file content
+     *
+     * The body is streamed into the BlobStore: chunks already stored (from
+     * another edition or an earlier upload) are not written again.
+     */
+    @PutMapping("/{id}/file")
+    public ResponseEntity<Map<String, Object>> uploadFile(
+            @PathVariable int id,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestHeader("Authorization") String authHeader,
+            HttpServletRequest request) throws IOException {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        // Check if user is admin
+        if (!"ADMIN".equals(libraryFacade.getCurrentUser(token).getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "Admin access required"));
+        }
+
+        Book book = libraryManager.getBookById(id);
+
+        if (!(book instanceof DigitalBook) && !(book instanceof EBook)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Digital book not found"));
+        }
+
+        // Default to the book's own format, e.g. PDF for a DigitalBook
+        if (format == null || format.isBlank()) {
+            format = book instanceof DigitalBook && ((DigitalBook) book).getFileFormat() != null
+                    ? ((DigitalBook) book).getFileFormat() : "EPUB";
+        }
+
+        if (!format.matches("[A-Za-z0-9]{1,10}")) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "Invalid file format"));
+        }
+
+        UploadResult result = blobStore.store(id, format.toUpperCase(Locale.ROOT), contentStore.getContentType(format),
+                request.getInputStream());
+        Manifest manifest = result.getManifest();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "File uploaded successfully");
+        response.put("size", manifest.getSize());
+        response.put("sha256", manifest.getSha256());
+        response.put("chunks", manifest.getChunks().size());
+        response.put("newChunks", result.getNewChunks());
+        response.put("dedupedChunks", manifest.getChunks().size() - result.getNewChunks());
+        response.put("bytesWritten", result.getBytesWritten());
+        response.put("elapsedMs", result.getElapsedMs());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Stream the audio of an audiobook
+     * GET /api/books/{id}/audio
+     * Headers: Authorization: Bearer {token} (or ?token={token})
+     * Optional headers: Range, If-Range, If-None-Match, If-Modified-Since
+     *
+     * The playback position of the loan is saved with PUT /api/loans/{id}/position.
+     */
+    @GetMapping("/{id}/audio")
+    public ResponseEntity<Map<String, Object>> streamAudio(
+            @PathVariable int id,
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestParam(value = "token", required = false) String tokenParam,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        String token = authHeader != null ? extractToken(authHeader) : tokenParam;
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        Book book = libraryManager.getBookById(id);
+
+        if (!(book instanceof AudioBook)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Audiobook not found"));
+        }
+
+        if (!hasAccess(libraryFacade.getCurrentUser(token), id)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "An active loan of this book is required"));
+        }
+
+        StoredFile file = contentStore.findAudioFile((AudioBook) book);
+
+        if (file == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "No audio available for this book"));
+        }
+
+        long[] range = prepareResponse(file, ContentDisposition.inline(), request, response);
+        if (range != null) {
+            audioSegmentCache.write(file, range[0], range[1], Channels.newChannel(response.getOutputStream()));
+        }
+        return null;
+    }
+
+    /**
+     * Read a page of an EBook
+     * GET /api/books/{id}/pages/{n}
+     * Headers: Authorization: Bearer {token}
+     *
+     * Pages are numbered from 1; the following pages are prefetched into
+     * the page cache so the next page turn is served from memory.
+     */
+    @GetMapping("/{id}/pages/{n}")
+    public ResponseEntity<Map<String, Object>> readPage(
+            @PathVariable int id,
+            @PathVariable int n,
+            @RequestHeader("Authorization") String authHeader) throws IOException {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        Book book = libraryManager.getBookById(id);
+
+        if (!(book instanceof EBook)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "E-book not found"));
+        }
+
+        User user = libraryFacade.getCurrentUser(token);
+
+        if (!hasAccess(user, id)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "An active loan of this book is required"));
+        }
+
+        Page page = pageStore.readPage((EBook) book, n, user.getUsername());
+
+        if (page == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Page not found"));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("bookId", id);
+        response.put("page", page.getNumber());
+        response.put("pageCount", page.getPageCount());
+        response.put("content", page.getContent());
+        response.put("hasPrevious", page.getNumber() > 1);
+        response.put("hasNext", page.getNumber() < page.getPageCount());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Store the pages of an EBook (Admin only)
+     * PUT /api/books/{id}/pages
+     * Headers: Authorization: Bearer {token}
+     * Body: { "pages": ["Page 1 ...", "Page 2 ...", ...] }
+     */
+    @PutMapping("/{id}/pages")
+    public ResponseEntity<Map<String, Object>> storePages(
+            @PathVariable int id,
+            @RequestBody Map<String, List<String>> request,
+            @RequestHeader("Authorization") String authHeader) throws IOException {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        // Check if user is admin
+        if (!"ADMIN".equals(libraryFacade.getCurrentUser(token).getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "Admin access required"));
+        }
+
+        Book book = libraryManager.getBookById(id);
+
+        if (!(book instanceof EBook)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "E-book not found"));
+        }
+
+        List<String> pages = request.get("pages");
+
+        if (pages == null || pages.isEmpty() || pages.contains(null)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "At least one page is required"));
+        }
+
+        pageStore.writePages((EBook) book, pages);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Pages stored successfully");
+        response.put("pageCount", pages.size());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Admins can always access content; other users need an active loan
+     */
+    private boolean hasAccess(User user, int bookId) {
+        return user.isAdmin() || libraryManager.hasActiveLoan(user.getUsername(), bookId);
+    }
+
+    /**
+     * Set the headers for a file (or the requested byte range) and evaluate
+     * conditional and range requests
+     *
+     * @return {start, end} of the bytes to write, or null if the response is complete
+     */
+    private long[] prepareResponse(StoredFile file, ContentDisposition.Builder disposition,
+                                   HttpServletRequest request, HttpServletResponse response) {
+        String etag = file.getEtag();
+        long lastModified = file.getLastModified() / 1000 * 1000;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+
+        // Conditional GET
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return null;
+        }
+
+        long size = file.getSize();
+        long start = 0;
+        long end = size - 1;
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request, etag, lastModified)) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return null;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(file.getContentType());
+        response.setContentLengthLong(length);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition
+                .filename(file.getFileName(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return null;
+        }
+        return new long[]{start, end};
+    }
+
+    /**
+     * Write a byte range of a file with sendfile or FileChannel.transferTo
+     */
+    private void sendFile(StoredFile file, long start, long end,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = end - start + 1;
+
+        // Zero-copy: let Tomcat send the range with sendfile after the handler returns
+        if (length >= SENDFILE_THRESHOLD && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.getPath().toFile().getCanonicalPath());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    /**
+     * Evaluate If-None-Match / If-Modified-Since
+     */
+    private boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.trim().equals("*") || matchesEtag(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * Evaluate If-Range: the Range header only applies if the validator still matches
+     */
+    private boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.trim().startsWith("\"")) {
+            return ifRange.trim().equals(etag);
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date != -1 && date == lastModified;
+    }
+
+    /**
+     * Parse a Range header for a resource of the given size
+     *
+     * Per RFC 9110 an invalid range (e.g. bytes=500-100) is ignored, so the
+     * whole file is sent; only a valid range that starts at or past the end
+     * of the file is unsatisfiable.
+     *
+     * @return {start, end} for a single satisfiable range, an empty array to
+     *         ignore the header (multiple, malformed or invalid ranges), or null if unsatisfiable
+     */
+    private long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffix range: last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = size - 1;
+                if (!last.isEmpty()) {
+                    long lastPos = Long.parseLong(last);
+                    if (lastPos < start) {
+                        return new long[0];
+                    }
+                    end = Math.min(lastPos, end);
+                }
+            }
+            if (start >= size) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private boolean matchesEtag(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Extract token from Authorization header
+     */
+    private String extractToken(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return authHeader;
+    }
+}
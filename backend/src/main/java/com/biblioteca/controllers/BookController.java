@@ -1,18 +1,31 @@
 package com.biblioteca.controllers;
 
+import com.biblioteca.analytics.CoBorrowIndex;
+import com.biblioteca.analytics.TrendWindow;
+import com.biblioteca.analytics.TrendingTracker;
+import com.biblioteca.analytics.TrendingTracker.TrendingEntry;
+import com.biblioteca.circulation.HoldManager;
 import com.biblioteca.patterns.factory.Book;
 import com.biblioteca.patterns.factory.BookFactory;
 import com.biblioteca.patterns.facade.LibraryFacade;
 import com.biblioteca.patterns.singleton.LibraryManager;
+import com.biblioteca.search.BookQuery;
+import com.biblioteca.search.QueryPlanner.QueryResult;
+import com.biblioteca.search.SuggestionTrie;
+import com.biblioteca.search.SuggestionTrie.Suggestion;
+import com.biblioteca.search.TrigramIndex;
+import com.biblioteca.search.TrigramIndex.FuzzyMatch;
 import com.biblioteca.services.DataService;
-import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -23,9 +36,14 @@ import java.util.stream.Collectors;
  * Endpoints:
  * - GET /api/books - Get all books
  * - GET /api/books/{id} - Get book by ID
- * - GET /api/books/search - Search books by title
+ * - GET /api/books/search - Search books by title (with facet counts, optionally typo-tolerant)
+ * - GET /api/books/suggest - Title and author completions of a prefix, most borrowed first
+ * - GET /api/books/query - Composite query over title, author, category, type and availability
  * - POST /api/books - Create new book (Admin only)
+ * - PUT /api/books/{id}/copies - Change the number of copies or licenses (Admin only)
  * - GET /api/books/category/{category} - Get books by category
+ * - GET /api/books/trending - Most borrowed books over a sliding window
+ * - GET /api/books/{id}/related - Books also borrowed by readers of a book
  *
  * Uses Factory Method pattern for book creation
  * Uses Facade pattern for simplified operations
@@ -33,6 +51,7 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping("/api/books")
 @CrossOrigin(origins = "*")
+@Profile("!reactive")
 public class BookController {
 
     @Autowired
@@ -40,22 +59,12 @@ public class BookController {
 
     private final LibraryFacade libraryFacade;
     private final LibraryManager libraryManager;
+    private final HoldManager holdManager;
 
     public BookController() {
         this.libraryFacade = LibraryFacade.getInstance();
         this.libraryManager = LibraryManager.getInstance();
-    }
-
-    /**
-     * Initialize books from JSON on startup
-     * This method is called after all dependencies are injected
-     */
-    @PostConstruct
-    private void initializeBooks() {
-        List<Book> books = dataService.loadBooks();
-        for (Book book : books) {
-            libraryManager.addBook(book);
-        }
+        this.holdManager = HoldManager.getInstance();
     }
 
     /**
@@ -120,23 +129,140 @@ public class BookController {
     /**
      * Search books by title
      * GET /api/books/search?q=query
+     * GET /api/books/search?q=query&fuzzy=true - Typo-tolerant search over titles and authors
      * Headers: Authorization: Bearer {token}
+     * When an exact search finds nothing, "didYouMean" suggests close titles
      */
     @GetMapping("/search")
     public ResponseEntity<Map<String, Object>> searchBooks(
             @RequestParam("q") String query,
+            @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
             @RequestHeader("Authorization") String authHeader) {
 
         String token = extractToken(authHeader);
 
-        List<Book> books = libraryFacade.searchBooks(token, query);
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
 
-        if (books.isEmpty() && !libraryFacade.isAuthenticated(token)) {
+        List<Book> books = new ArrayList<>();
+        List<Map<String, Object>> bookList = new ArrayList<>();
+        if (fuzzy) {
+            for (FuzzyMatch match : libraryFacade.fuzzySearchBooks(token, query, Math.min(Math.max(limit, 1), 100))) {
+                Map<String, Object> item = bookToMap(match.getBook());
+                item.put("matchedField", match.getField());
+                item.put("distance", match.getDistance());
+                item.put("score", match.getScore());
+                books.add(match.getBook());
+                bookList.add(item);
+            }
+        } else {
+            books = libraryFacade.searchBooks(token, query);
+            bookList = books.stream()
+                    .map(this::bookToMap)
+                    .collect(Collectors.toList());
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("books", bookList);
+        response.put("count", bookList.size());
+        response.put("query", query);
+        response.put("fuzzy", fuzzy);
+        response.put("facets", libraryManager.getFacetCounts(books));
+
+        if (books.isEmpty() && !fuzzy) {
+            List<String> suggestions = libraryFacade.fuzzySearchBooks(token, query, 3).stream()
+                    .map(match -> TrigramIndex.AUTHOR.equals(match.getField())
+                            ? match.getBook().getAuthor() : match.getBook().getTitle())
+                    .distinct()
+                    .collect(Collectors.toList());
+            response.put("didYouMean", suggestions);
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Suggest titles and authors as the user types
+     * GET /api/books/suggest?prefix=prag&limit=8
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<Map<String, Object>> suggestBooks(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(value = "limit", defaultValue = "8") int limit,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("success", false, "message", "Unauthorized"));
         }
 
-        List<Map<String, Object>> bookList = books.stream()
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+        for (Suggestion suggestion : libraryFacade.suggest(token, prefix, Math.min(limit, SuggestionTrie.TOP_K))) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("text", suggestion.getText());
+            item.put("kind", suggestion.getKind());
+            item.put("borrows", suggestion.getBorrows());
+            suggestions.add(item);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("prefix", prefix);
+        response.put("suggestions", suggestions);
+        response.put("count", suggestions.size());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Query books by several criteria at once
+     * GET /api/books/query?title=&author=&category=&type=&available=true&sort=title&limit=20&explain=true
+     * Headers: Authorization: Bearer {token}
+     * The executed plan is returned with explain=true (Admin only)
+     */
+    @GetMapping("/query")
+    public ResponseEntity<Map<String, Object>> queryBooks(
+            @RequestParam(value = "title", required = false) String title,
+            @RequestParam(value = "author", required = false) String author,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "type", required = false) String bookType,
+            @RequestParam(value = "available", defaultValue = "false") boolean available,
+            @RequestParam(value = "sort", defaultValue = "title") String sort,
+            @RequestParam(value = "limit", defaultValue = "0") int limit,
+            @RequestParam(value = "explain", defaultValue = "false") boolean explain,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        if (!List.of("title", "author", "id").contains(sort.toLowerCase(Locale.ROOT))) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "Sort must be title, author or id"));
+        }
+
+        BookQuery query = new BookQuery();
+        query.setTitle(title);
+        query.setAuthor(author);
+        query.setCategory(category);
+        query.setBookType(bookType != null ? bookType.toUpperCase(Locale.ROOT) : null);
+        query.setAvailableOnly(available);
+        query.setSortBy(sort.toLowerCase(Locale.ROOT));
+        query.setLimit(limit);
+
+        QueryResult result = libraryFacade.queryBooks(token, query);
+
+        List<Map<String, Object>> bookList = result.getBooks().stream()
                 .map(this::bookToMap)
                 .collect(Collectors.toList());
 
@@ -144,7 +270,16 @@ public class BookController {
         response.put("success", true);
         response.put("books", bookList);
         response.put("count", bookList.size());
-        response.put("query", query);
+        response.put("total", result.getTotalMatches());
+        response.put("query", query.toString());
+        response.put("facets", result.getFacets());
+
+        if (explain && "ADMIN".equals(libraryFacade.getCurrentUser(token).getRole())) {
+            Map<String, Object> plan = new HashMap<>();
+            plan.put("steps", result.getPlan());
+            plan.put("elapsedMicros", result.getElapsedMicros());
+            response.put("plan", plan);
+        }
 
         return ResponseEntity.ok(response);
     }
@@ -192,6 +327,58 @@ public class BookController {
         }
     }
 
+    /**
+     * Change the number of copies (or concurrent licenses) of a book (Admin only)
+     * PUT /api/books/{id}/copies
+     * Headers: Authorization: Bearer {token}
+     * Body: { "totalCopies": 50 }
+     */
+    @PutMapping("/{id}/copies")
+    public ResponseEntity<Map<String, Object>> updateCopies(
+            @PathVariable int id,
+            @RequestBody Map<String, Integer> request,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        if (!"ADMIN".equals(libraryFacade.getCurrentUser(token).getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "Admin access required"));
+        }
+
+        Book book = libraryManager.getBookById(id);
+
+        if (book == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Book not found"));
+        }
+
+        Integer totalCopies = request.get("totalCopies");
+
+        if (totalCopies == null || !libraryManager.setTotalCopies(book, totalCopies)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false,
+                            "message", "totalCopies must be at least 1 and not below the copies on loan or held"));
+        }
+
+        // New copies go to waiting holders first
+        if (holdManager.promote(book) > 0) {
+            dataService.saveHolds(holdManager.getAllHolds());
+        }
+        dataService.saveBooks(libraryManager.getAllBooks());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("book", bookToMap(book));
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get books by category
      * GET /api/books/category/{category}
@@ -220,6 +407,95 @@ public class BookController {
         response.put("books", bookList);
         response.put("category", category);
         response.put("count", bookList.size());
+        response.put("facets", libraryManager.getFacetCounts(books));
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the most borrowed books over a sliding window
+     * GET /api/books/trending?window=week&limit=10
+     * Headers: Authorization: Bearer {token}
+     * Windows: hour, day, week
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<Map<String, Object>> getTrendingBooks(
+            @RequestParam(value = "window", defaultValue = "week") String windowName,
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        TrendWindow window = TrendWindow.parse(windowName);
+
+        if (window == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "Window must be hour, day or week"));
+        }
+
+        List<Map<String, Object>> trending = new ArrayList<>();
+        for (TrendingEntry entry : TrendingTracker.getInstance().getTrending(window, limit)) {
+            Book book = libraryManager.getBookById(entry.getBookId());
+            if (book != null) {
+                Map<String, Object> item = bookToMap(book);
+                item.put("borrows", entry.getBorrows());
+                trending.add(item);
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("window", window.name().toLowerCase(Locale.ROOT));
+        response.put("books", trending);
+        response.put("count", trending.size());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the books most often borrowed by readers of a book
+     * GET /api/books/{id}/related?limit=5
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping("/{id}/related")
+    public ResponseEntity<Map<String, Object>> getRelatedBooks(
+            @PathVariable int id,
+            @RequestParam(value = "limit", defaultValue = "5") int limit,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        if (libraryManager.getBookById(id) == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Book not found"));
+        }
+
+        CoBorrowIndex.Related related = CoBorrowIndex.getInstance().getRelated(id);
+
+        List<Map<String, Object>> books = new ArrayList<>();
+        for (int i = 0; i < related.size() && books.size() < limit; i++) {
+            Book book = libraryManager.getBookById(related.getBookId(i));
+            if (book != null) {
+                Map<String, Object> item = bookToMap(book);
+                item.put("coBorrows", related.getCount(i));
+                books.add(item);
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("books", books);
+        response.put("count", books.size());
 
         return ResponseEntity.ok(response);
     }
@@ -235,6 +511,8 @@ public class BookController {
         map.put("isbn", book.getIsbn());
         map.put("category", book.getCategory());
         map.put("available", book.isAvailable());
+        map.put("availableCopies", book.getAvailableCopies());
+        map.put("totalCopies", book.getTotalCopies());
         map.put("bookType", book.getBookType());
         map.put("accessMethod", book.getAccessMethod());
         return map;
@@ -0,0 +1,115 @@
+package com.biblioteca.controllers;
+
+import com.biblioteca.export.ExportFormat;
+import com.biblioteca.export.ExportTable;
+import com.biblioteca.patterns.facade.LibraryFacade;
+import com.biblioteca.services.ExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * ExportController
+ * REST Controller for bulk exports of the catalog, loan history and users
+ *
+ * Endpoints:
+ * - GET /api/export/books - Export the catalog (Admin only)
+ * - GET /api/export/loans - Export the loan history (Admin only)
+ * - GET /api/export/users - Export the users, without passwords (Admin only)
+ *
+ * Query parameters: format=csv|ndjson (default csv), gzip=true for a
+ * .gz file. The export is streamed as it is encoded (see ExportService),
+ * so it starts at once and uses constant memory.
+ */
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "*")
+@Profile("!reactive")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final LibraryFacade libraryFacade;
+
+    public ExportController() {
+        this.libraryFacade = LibraryFacade.getInstance();
+    }
+
+    /**
+     * Export a table (Admin only)
+     * GET /api/export/{table}?format=csv&gzip=false
+     * Headers: Authorization: Bearer {token} (or ?token={token})
+     */
+    @GetMapping("/{table}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String table,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestParam(value = "token", required = false) String tokenParam) {
+
+        String token = authHeader != null ? extractToken(authHeader) : tokenParam;
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return error(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        }
+
+        // Check if user is admin
+        if (!"ADMIN".equals(libraryFacade.getCurrentUser(token).getRole())) {
+            return error(HttpStatus.FORBIDDEN, "Admin access required");
+        }
+
+        ExportTable<?> exportTable = ExportTable.forName(table);
+        if (exportTable == null) {
+            return error(HttpStatus.NOT_FOUND, "Unknown export: " + table + ". Valid exports: books, loans, users");
+        }
+
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        if (exportFormat == null) {
+            return error(HttpStatus.BAD_REQUEST, "format must be csv or ndjson");
+        }
+
+        String filename = exportTable.getName() + "-" + LocalDate.now() + "." + exportFormat.getExtension()
+                + (gzip ? ".gz" : "");
+
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip")
+                        : MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(out -> exportService.export(exportTable, exportFormat, gzip, out));
+    }
+
+    /**
+     * Error response in the usual { success, message } shape
+     */
+    private ResponseEntity<StreamingResponseBody> error(HttpStatus status, String message) {
+        Map<String, Object> body = Map.of("success", false, "message", message);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, body));
+    }
+
+    /**
+     * Extract token from Authorization header
+     */
+    private String extractToken(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return authHeader;
+    }
+}
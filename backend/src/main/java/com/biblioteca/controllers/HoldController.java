@@ -0,0 +1,216 @@
+package com.biblioteca.controllers;
+
+import com.biblioteca.circulation.HoldManager;
+import com.biblioteca.models.Hold;
+import com.biblioteca.patterns.facade.LibraryFacade;
+import com.biblioteca.patterns.singleton.LibraryManager;
+import com.biblioteca.services.DataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * HoldController
+ * REST Controller for holds on books with no free copy
+ *
+ * Endpoints:
+ * - POST /api/holds - Place a hold on a book
+ * - GET /api/holds - Get user's holds, with queue position and claim deadline
+ * - DELETE /api/holds/{id} - Cancel a hold
+ * - GET /api/holds/book/{bookId} - Get the hold queue of a book (Admin only)
+ *
+ * A READY hold has a copy set aside until expiresAt; borrowing the book
+ * (POST /api/loans/borrow) claims it. Expired claims are swept periodically
+ * and their copies passed to the next holder (see LibraryInitializer).
+ */
+@RestController
+@RequestMapping("/api/holds")
+@CrossOrigin(origins = "*")
+@Profile("!reactive")
+public class HoldController {
+
+    @Autowired
+    private DataService dataService;
+
+    private final LibraryFacade libraryFacade;
+    private final LibraryManager libraryManager;
+    private final HoldManager holdManager;
+
+    public HoldController() {
+        this.libraryFacade = LibraryFacade.getInstance();
+        this.libraryManager = LibraryManager.getInstance();
+        this.holdManager = HoldManager.getInstance();
+    }
+
+    /**
+     * Place a hold on a book
+     * POST /api/holds
+     * Headers: Authorization: Bearer {token}
+     * Body: { "bookId": 1 }
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> placeHold(
+            @RequestBody Map<String, Integer> request,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        Integer bookId = request.get("bookId");
+
+        if (bookId == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "bookId is required"));
+        }
+
+        // Use Facade to place the hold
+        Hold hold = libraryFacade.placeHold(token, bookId);
+
+        if (hold == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "Unable to place hold. Book may not exist or is already on loan to you."));
+        }
+
+        // Save to JSON (a hold placed on a free copy takes it off the shelf)
+        dataService.saveHoldsAndBooks(holdManager.getAllHolds(), libraryManager.getAllBooks());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", hold.isReady()
+                ? "A copy is set aside for you; borrow it before it expires"
+                : "Hold placed; a copy will be set aside for you when it is returned");
+        response.put("hold", holdToMap(hold));
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Get user's holds
+     * GET /api/holds
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getUserHolds(
+            @RequestHeader("Authorization") String authHeader) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        List<Map<String, Object>> holdList = libraryFacade.getUserHolds(token).stream()
+                .map(this::holdToMap)
+                .collect(Collectors.toList());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("holds", holdList);
+        response.put("count", holdList.size());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Cancel a hold
+     * DELETE /api/holds/{id}
+     * Headers: Authorization: Bearer {token}
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> cancelHold(
+            @PathVariable int id,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        if (!libraryFacade.cancelHold(token, id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Hold not found"));
+        }
+
+        // Save to JSON (a cancelled READY hold passes its copy on)
+        dataService.saveHoldsAndBooks(holdManager.getAllHolds(), libraryManager.getAllBooks());
+
+        return ResponseEntity.ok(Map.of("success", true, "message", "Hold cancelled"));
+    }
+
+    /**
+     * Get the hold queue of a book (Admin only)
+     * GET /api/holds/book/{bookId}
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping("/book/{bookId}")
+    public ResponseEntity<Map<String, Object>> getBookHolds(
+            @PathVariable int bookId,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        // Check if user is admin
+        if (!"ADMIN".equals(libraryFacade.getCurrentUser(token).getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "Admin access required"));
+        }
+
+        List<Map<String, Object>> holdList = holdManager.getHoldsByBook(bookId).stream()
+                .map(this::holdToMap)
+                .collect(Collectors.toList());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("bookId", bookId);
+        response.put("holds", holdList);
+        response.put("count", holdList.size());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Convert Hold to Map for JSON response
+     */
+    private Map<String, Object> holdToMap(Hold hold) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", hold.getId());
+        map.put("username", hold.getUsername());
+        map.put("bookId", hold.getBookId());
+        map.put("bookTitle", hold.getBookTitle());
+        map.put("status", hold.getStatus().name());
+        map.put("position", holdManager.getPosition(hold));
+        map.put("placedAt", Instant.ofEpochMilli(hold.getPlacedAt()).toString());
+        map.put("expiresAt", hold.isReady() ? Instant.ofEpochMilli(hold.getExpiresAt()).toString() : null);
+        return map;
+    }
+
+    /**
+     * Extract token from Authorization header
+     */
+    private String extractToken(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return authHeader;
+    }
+}
@@ -0,0 +1,169 @@
+package com.biblioteca.controllers;
+
+import com.biblioteca.catalog.BookImporter;
+import com.biblioteca.catalog.ImportReport;
+import com.biblioteca.circulation.HoldManager;
+import com.biblioteca.export.ExportFormat;
+import com.biblioteca.patterns.facade.LibraryFacade;
+import com.biblioteca.patterns.factory.Book;
+import com.biblioteca.patterns.singleton.LibraryManager;
+import com.biblioteca.services.DataService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * ImportController
+ * REST Controller for bulk catalog imports
+ *
+ * Endpoints:
+ * - POST /api/books/import - Create or update books from a CSV or NDJSON body (Admin only)
+ *
+ * Query parameter: format=csv|ndjson (default csv). The body may be
+ * gzip-compressed. Rows are upserted by ISBN (see BookImporter) and the
+ * catalog is saved once, after the whole body was read.
+ */
+@RestController
+@RequestMapping("/api/books/import")
+@CrossOrigin(origins = "*")
+@Profile("!reactive")
+public class ImportController {
+
+    @Autowired
+    private DataService dataService;
+
+    @Value("${biblioteca.import.parallelism:0}")
+    private int parallelism;
+
+    private final LibraryFacade libraryFacade;
+    private final LibraryManager libraryManager;
+    private final HoldManager holdManager;
+    private final BookImporter bookImporter;
+
+    public ImportController() {
+        this.libraryFacade = LibraryFacade.getInstance();
+        this.libraryManager = LibraryManager.getInstance();
+        this.holdManager = HoldManager.getInstance();
+        this.bookImporter = new BookImporter();
+    }
+
+    @PostConstruct
+    private void init() {
+        bookImporter.setParallelism(parallelism);
+    }
+
+    /**
+     * Import books (Admin only)
+     * POST /api/books/import?format=csv
+     * Headers: Authorization: Bearer {token}, Content-Type: text/csv (any type but a form)
+     * Body: CSV with a header line (the columns of GET /api/export/books), or NDJSON
+     *
+     * Form-encoded bodies are refused (415): the servlet container would
+     * consume them as request parameters.
+     */
+    @PostMapping(consumes = "!application/x-www-form-urlencoded")
+    public ResponseEntity<Map<String, Object>> importBooks(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader("Authorization") String authHeader,
+            InputStream body) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        // Check if user is admin
+        if (!"ADMIN".equals(libraryFacade.getCurrentUser(token).getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "Admin access required"));
+        }
+
+        ExportFormat importFormat = ExportFormat.parse(format);
+        if (importFormat == null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("success", false, "message", "format must be csv or ndjson"));
+        }
+
+        ImportReport report;
+        try {
+            report = bookImporter.importBooks(body, importFormat);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("success", false, "message", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("success", false, "message", "Could not read the import: " + e.getMessage()));
+        }
+
+        // New copies go to waiting holders first
+        int promoted = 0;
+        for (Book book : report.getRestocked()) {
+            promoted += holdManager.promote(book);
+        }
+        if (promoted > 0) {
+            dataService.saveHolds(holdManager.getAllHolds());
+        }
+        if (report.getCreated() > 0 || report.getUpdated() > 0) {
+            dataService.saveBooks(libraryManager.getAllBooks());
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", String.format("Imported %d rows: %d created, %d updated, %d failed",
+                report.getRows(), report.getCreated(), report.getUpdated(), report.getFailed()));
+        response.put("report", reportToMap(report));
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Convert ImportReport to Map
+     */
+    private Map<String, Object> reportToMap(ImportReport report) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("format", report.getFormat());
+        map.put("rows", report.getRows());
+        map.put("created", report.getCreated());
+        map.put("updated", report.getUpdated());
+        map.put("failed", report.getFailed());
+        map.put("elapsedMs", report.getElapsedMillis());
+        map.put("rowsPerSecond", report.getRowsPerSecond());
+
+        List<Map<String, Object>> errors = report.getErrors().stream()
+                .map(error -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("line", error.getLine());
+                    row.put("isbn", error.getIsbn());
+                    row.put("message", error.getMessage());
+                    return row;
+                })
+                .collect(Collectors.toList());
+        map.put("errors", errors);
+        map.put("errorsTruncated", report.isErrorsTruncated());
+        return map;
+    }
+
+    /**
+     * Extract token from Authorization header
+     */
+    private String extractToken(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return authHeader;
+    }
+}
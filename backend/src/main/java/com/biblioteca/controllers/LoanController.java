@@ -1,15 +1,20 @@
 package com.biblioteca.controllers;
 
+import com.biblioteca.circulation.HoldManager;
+import com.biblioteca.circulation.LoanLimiter;
 import com.biblioteca.models.Loan;
+import com.biblioteca.models.User;
 import com.biblioteca.patterns.facade.LibraryFacade;
 import com.biblioteca.patterns.singleton.LibraryManager;
 import com.biblioteca.services.DataService;
-import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,15 +27,20 @@ import java.util.stream.Collectors;
  * Endpoints:
  * - POST /api/loans/borrow - Borrow a book
  * - POST /api/loans/return/{id} - Return a book
- * - GET /api/loans/history - Get user's loan history
- * - GET /api/loans - Get all loans (Admin only)
+ * - GET /api/loans/history - Get user's loan history (with active loans and limit)
+ * - GET /api/loans - Get all loans, or those of a date range (Admin only)
  * - GET /api/loans/{id} - Get loan by ID
+ * - PUT /api/loans/{id}/position - Save playback position of an audiobook loan
  *
  * Uses Facade pattern for simplified loan operations
+ *
+ * Loans, books and holds are saved on every borrow and return; loan
+ * rollups are saved periodically (see LibraryInitializer).
  */
 @RestController
 @RequestMapping("/api/loans")
 @CrossOrigin(origins = "*")
+@Profile("!reactive")
 public class LoanController {
 
     @Autowired
@@ -44,18 +54,6 @@ public class LoanController {
         this.libraryManager = LibraryManager.getInstance();
     }
 
-    /**
-     * Initialize loans from JSON on startup
-     * This method is called after all dependencies are injected
-     */
-    @PostConstruct
-    private void initializeLoans() {
-        List<Loan> loans = dataService.loadLoans();
-        for (Loan loan : loans) {
-            libraryManager.addLoan(loan);
-        }
-    }
-
     /**
      * Borrow a book
      * POST /api/loans/borrow
@@ -80,13 +78,17 @@ public class LoanController {
         Loan loan = libraryFacade.borrowBook(token, bookId);
 
         if (loan == null) {
+            if (libraryFacade.isAtLoanLimit(token)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("success", false, "message", "Loan limit reached. Return a book before borrowing another."));
+            }
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("success", false, "message", "Unable to borrow book. Book may not be available."));
+                    .body(Map.of("success", false, "message", "Unable to borrow book. Book may not be available; place a hold with POST /api/holds."));
         }
 
         // Save to JSON
-        dataService.saveLoans(libraryManager.getAllLoans());
-        dataService.saveBooks(libraryManager.getAllBooks());
+        dataService.saveCirculation(libraryManager.getAllLoans(), libraryManager.getAllBooks(),
+                HoldManager.getInstance().getAllHolds());
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -122,8 +124,8 @@ public class LoanController {
         }
 
         // Save to JSON
-        dataService.saveLoans(libraryManager.getAllLoans());
-        dataService.saveBooks(libraryManager.getAllBooks());
+        dataService.saveCirculation(libraryManager.getAllLoans(), libraryManager.getAllBooks(),
+                HoldManager.getInstance().getAllHolds());
 
         Loan loan = libraryManager.getLoanById(id);
 
@@ -157,21 +159,34 @@ public class LoanController {
                 .map(this::loanToMap)
                 .collect(Collectors.toList());
 
+        User user = libraryFacade.getCurrentUser(token);
+        LoanLimiter loanLimiter = LoanLimiter.getInstance();
+        int limit = loanLimiter.getLimit(user.getRole());
+
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("loans", loanList);
         response.put("count", loanList.size());
+        response.put("activeLoans", loanLimiter.getActiveLoans(user.getUsername()));
+        response.put("loanLimit", limit == LoanLimiter.UNLIMITED ? null : limit);
 
         return ResponseEntity.ok(response);
     }
 
     /**
      * Get all loans (Admin only)
-     * GET /api/loans
+     * GET /api/loans?from=2025-03-01&to=2025-03-31&by=loanDate
      * Headers: Authorization: Bearer {token}
+     *
+     * With from and/or to (inclusive ISO dates), only the loans made (by=loanDate,
+     * default) or returned (by=returnDate) in that range are listed, in date order,
+     * from the date indexes instead of a scan of the loan history.
      */
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllLoans(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "loanDate") String by,
             @RequestHeader("Authorization") String authHeader) {
 
         String token = extractToken(authHeader);
@@ -187,7 +202,35 @@ public class LoanController {
                     .body(Map.of("success", false, "message", "Admin access required"));
         }
 
-        List<Loan> loans = libraryManager.getAllLoans();
+        if (!"loanDate".equals(by) && !"returnDate".equals(by)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "by must be loanDate or returnDate"));
+        }
+
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = from != null && !from.isBlank() ? LocalDate.parse(from.trim()) : null;
+            toDate = to != null && !to.isBlank() ? LocalDate.parse(to.trim()) : null;
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "from and to must be dates like 2025-03-31"));
+        }
+
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "from must not be after to"));
+        }
+
+        boolean ranged = fromDate != null || toDate != null;
+        List<Loan> loans;
+        if (!ranged) {
+            loans = libraryManager.getAllLoans();
+        } else if ("returnDate".equals(by)) {
+            loans = libraryManager.getReturnsBetween(fromDate, toDate);
+        } else {
+            loans = libraryManager.getLoansBetween(fromDate, toDate);
+        }
 
         List<Map<String, Object>> loanList = loans.stream()
                 .map(this::loanToMap)
@@ -197,6 +240,11 @@ public class LoanController {
         response.put("success", true);
         response.put("loans", loanList);
         response.put("count", loanList.size());
+        if (ranged) {
+            response.put("from", fromDate != null ? fromDate.toString() : null);
+            response.put("to", toDate != null ? toDate.toString() : null);
+            response.put("by", by);
+        }
 
         return ResponseEntity.ok(response);
     }
@@ -232,6 +280,50 @@ public class LoanController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Save playback position of an audiobook loan
+     * PUT /api/loans/{id}/position
+     * Headers: Authorization: Bearer {token}
+     * Body: { "positionSeconds": 1830 }
+     *
+     * The position is kept in memory and saved with the next batch of
+     * position updates (see LibraryInitializer), not on every call.
+     */
+    @PutMapping("/{id}/position")
+    public ResponseEntity<Map<String, Object>> updatePlaybackPosition(
+            @PathVariable int id,
+            @RequestBody Map<String, Integer> request,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        Integer position = request.get("positionSeconds");
+
+        if (position == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "positionSeconds is required"));
+        }
+
+        // Use Facade to update the position
+        Loan loan = libraryFacade.updatePlaybackPosition(token, id, position);
+
+        if (loan == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "Unable to save position. Loan may not be an active audiobook loan of yours."));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("loan", loanToMap(loan));
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Convert Loan to Map for JSON response
      */
@@ -247,6 +339,7 @@ public class LoanController {
         map.put("returnDate", loan.getReturnDate() != null ? loan.getReturnDate().toString() : null);
         map.put("overdue", loan.isOverdue());
         map.put("daysUntilDue", loan.getDaysUntilDue());
+        map.put("playbackPositionSeconds", loan.getPlaybackPositionSeconds());
         return map;
     }
 
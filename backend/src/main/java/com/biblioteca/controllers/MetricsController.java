@@ -0,0 +1,213 @@
+package com.biblioteca.controllers;
+
+import com.biblioteca.analytics.LoanRollups;
+import com.biblioteca.analytics.LoanRollups.DayRow;
+import com.biblioteca.analytics.LoanRollups.GroupRow;
+import com.biblioteca.analytics.LoanSketches;
+import com.biblioteca.monitoring.OperationMetrics;
+import com.biblioteca.patterns.facade.LibraryFacade;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * MetricsController
+ * REST Controller for operation latency metrics and loan analytics
+ *
+ * Endpoints:
+ * - GET /api/metrics/latency - Latency summary per operation (Admin only)
+ * - GET /api/metrics/loans - Loans per day, category and book type (Admin only)
+ * - GET /api/metrics/statistics - Loan duration percentiles and distinct borrowers (Admin only)
+ *
+ * The full histograms are exported in Prometheus format at /actuator/prometheus
+ */
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "*")
+@Profile("!reactive")
+public class MetricsController {
+
+    private final LibraryFacade libraryFacade;
+
+    public MetricsController() {
+        this.libraryFacade = LibraryFacade.getInstance();
+    }
+
+    /**
+     * Get latency summary (Admin only)
+     * GET /api/metrics/latency
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping("/latency")
+    public ResponseEntity<Map<String, Object>> getLatency(@RequestHeader("Authorization") String authHeader) {
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        // Check if user is admin
+        if (!"ADMIN".equals(libraryFacade.getCurrentUser(token).getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "Admin access required"));
+        }
+
+        List<Map<String, Object>> operations = OperationMetrics.summary();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("operations", operations);
+        response.put("count", operations.size());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get loan analytics from the pre-aggregated rollups (Admin only)
+     * GET /api/metrics/loans?days=30
+     * Headers: Authorization: Bearer {token}
+     *
+     * Loans made and returned and distinct borrowers on each of the last days
+     * (1 to 366, ending today), and loans, returns and average loan duration per category and book type.
+     */
+    @GetMapping("/loans")
+    public ResponseEntity<Map<String, Object>> getLoanAnalytics(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestHeader("Authorization") String authHeader) {
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        // Check if user is admin
+        if (!"ADMIN".equals(libraryFacade.getCurrentUser(token).getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "Admin access required"));
+        }
+
+        if (days < 1 || days > 366) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "days must be between 1 and 366"));
+        }
+
+        LoanRollups loanRollups = LoanRollups.getInstance();
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(days - 1L);
+
+        List<DayRow> rows = loanRollups.getDaily(from, to);
+        long[] borrowers = loanRollups.getSketches().getDailyDistinctBorrowers(from, to);
+        List<Map<String, Object>> daily = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, Object> day = dayToMap(rows.get(i));
+            day.put("borrowers", borrowers[i]);
+            daily.add(day);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("from", from.toString());
+        response.put("to", to.toString());
+        response.put("daily", daily);
+        response.put("categories", loanRollups.getCategories().stream().map(this::groupToMap).collect(Collectors.toList()));
+        response.put("bookTypes", loanRollups.getBookTypes().stream().map(this::groupToMap).collect(Collectors.toList()));
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get loan behaviour statistics from the streaming sketches (Admin only)
+     * GET /api/metrics/statistics
+     * Headers: Authorization: Bearer {token}
+     *
+     * p50 / p90 / p99 duration of returned loans (days), and approximate
+     * distinct borrowers of all time, of the last 30 days and of today.
+     */
+    @GetMapping("/statistics")
+    public ResponseEntity<Map<String, Object>> getStatistics(@RequestHeader("Authorization") String authHeader) {
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        // Check if user is admin
+        if (!"ADMIN".equals(libraryFacade.getCurrentUser(token).getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "Admin access required"));
+        }
+
+        LoanSketches sketches = LoanRollups.getInstance().getSketches();
+        LocalDate today = LocalDate.now();
+
+        Map<String, Object> duration = new LinkedHashMap<>();
+        duration.put("returnedLoans", sketches.getDurationCount());
+        duration.put("p50", roundDays(sketches.getDurationQuantile(0.5)));
+        duration.put("p90", roundDays(sketches.getDurationQuantile(0.9)));
+        duration.put("p99", roundDays(sketches.getDurationQuantile(0.99)));
+
+        Map<String, Object> borrowers = new LinkedHashMap<>();
+        borrowers.put("allTime", sketches.getDistinctBorrowers());
+        borrowers.put("last30Days", sketches.getDistinctBorrowers(today.minusDays(29), today));
+        borrowers.put("today", sketches.getDistinctBorrowers(today, today));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("loanDurationDays", duration);
+        response.put("distinctBorrowers", borrowers);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Round a duration to one decimal (null when there is no value yet)
+     */
+    private Double roundDays(double days) {
+        return Double.isNaN(days) ? null : Math.round(days * 10) / 10.0;
+    }
+
+    /**
+     * Convert a daily rollup row to Map for JSON response
+     */
+    private Map<String, Object> dayToMap(DayRow row) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("date", row.getDate());
+        map.put("loans", row.getLoans());
+        map.put("returns", row.getReturns());
+        return map;
+    }
+
+    /**
+     * Convert a category / book type rollup row to Map for JSON response
+     */
+    private Map<String, Object> groupToMap(GroupRow row) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", row.getName());
+        map.put("loans", row.getLoans());
+        map.put("returns", row.getReturns());
+        map.put("averageDurationDays", Math.round(row.getAverageDurationDays() * 10) / 10.0);
+        return map;
+    }
+
+    /**
+     * Extract token from Authorization header
+     */
+    private String extractToken(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return authHeader;
+    }
+}
@@ -0,0 +1,333 @@
+package com.biblioteca.controllers;
+
+import com.biblioteca.patterns.facade.LibraryFacade;
+import com.biblioteca.reports.LoanReport;
+import com.biblioteca.reports.ReportEngine;
+import com.biblioteca.reports.ReportResult;
+import com.biblioteca.reports.ReportRun;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * ReportController
+ * REST Controller for ad hoc reports over the loan history (Admin only)
+ *
+ * Endpoints:
+ * - GET /api/reports - List available reports
+ * - GET /api/reports/{name} - Run a report and wait for its rows
+ * - POST /api/reports/{name} - Start a report run in the background
+ * - GET /api/reports/runs/{id} - Get the status (and rows) of a run
+ * - DELETE /api/reports/runs/{id} - Cancel a run
+ *
+ * Reports run in parallel on the report engine's own pool, within a time
+ * budget (budgetMs, default biblioteca.reports.budget-ms); results are
+ * cached until the next book or loan write.
+ */
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+@Profile("!reactive")
+public class ReportController {
+
+    // Upper bounds of the limit and budgetMs parameters
+    private static final int MAX_LIMIT = 1000;
+    private static final long MAX_BUDGET_MS = 600_000;
+
+    @Value("${biblioteca.reports.parallelism:0}")
+    private int parallelism;
+
+    @Value("${biblioteca.reports.budget-ms:10000}")
+    private long defaultBudgetMs;
+
+    private final LibraryFacade libraryFacade;
+    private final ReportEngine reportEngine;
+
+    public ReportController() {
+        this.libraryFacade = LibraryFacade.getInstance();
+        this.reportEngine = ReportEngine.getInstance();
+    }
+
+    /**
+     * Size the report pool on startup
+     */
+    @PostConstruct
+    private void init() {
+        reportEngine.setParallelism(parallelism);
+    }
+
+    /**
+     * List available reports (Admin only)
+     * GET /api/reports
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getReports(@RequestHeader("Authorization") String authHeader) {
+        ResponseEntity<Map<String, Object>> denied = checkAdmin(extractToken(authHeader));
+        if (denied != null) {
+            return denied;
+        }
+
+        List<Map<String, Object>> reports = reportEngine.getReports().stream()
+                .map(this::reportToMap)
+                .collect(Collectors.toList());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("reports", reports);
+        response.put("parallelism", reportEngine.getParallelism());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Run a report and wait for its rows (Admin only)
+     * GET /api/reports/{name}?limit=20&budgetMs=10000
+     * Headers: Authorization: Bearer {token}
+     *
+     * Answers 504 if the report does not finish within its budget. The run
+     * may be shared with other callers (see ReportEngine.start), so a
+     * caller that stops waiting leaves it running; it can still be polled
+     * with GET /api/reports/runs/{id}.
+     */
+    @GetMapping("/{name}")
+    public ResponseEntity<Map<String, Object>> runReport(
+            @PathVariable String name,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) Long budgetMs,
+            @RequestHeader("Authorization") String authHeader) {
+        ResponseEntity<Map<String, Object>> denied = checkAdmin(extractToken(authHeader));
+        if (denied != null) {
+            return denied;
+        }
+
+        ResponseEntity<Map<String, Object>> invalid = checkParameters(limit, budgetMs);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        long budget = budgetMs != null ? budgetMs : defaultBudgetMs;
+        ReportRun run = reportEngine.start(name, limit, budget);
+        if (run == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Unknown report: " + name));
+        }
+
+        // Workers stop at the budget; the grace period covers the final merge
+        boolean finished;
+        try {
+            finished = run.await(budget + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finished = false;
+        }
+
+        if (!finished) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Report did not finish within " + budget + " ms; poll the run for its rows");
+            response.put("run", runToMap(run));
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(response);
+        }
+
+        return runResponse(run);
+    }
+
+    /**
+     * Start a report run in the background (Admin only)
+     * POST /api/reports/{name}?limit=20&budgetMs=10000
+     * Headers: Authorization: Bearer {token}
+     *
+     * Answers 202 with the run ID; poll GET /api/reports/runs/{id}.
+     */
+    @PostMapping("/{name}")
+    public ResponseEntity<Map<String, Object>> startReport(
+            @PathVariable String name,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) Long budgetMs,
+            @RequestHeader("Authorization") String authHeader) {
+        ResponseEntity<Map<String, Object>> denied = checkAdmin(extractToken(authHeader));
+        if (denied != null) {
+            return denied;
+        }
+
+        ResponseEntity<Map<String, Object>> invalid = checkParameters(limit, budgetMs);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        ReportRun run = reportEngine.start(name, limit, budgetMs != null ? budgetMs : defaultBudgetMs);
+        if (run == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Unknown report: " + name));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("run", runToMap(run));
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Get the status of a run, with its rows once completed (Admin only)
+     * GET /api/reports/runs/{id}
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping("/runs/{id}")
+    public ResponseEntity<Map<String, Object>> getRun(
+            @PathVariable String id,
+            @RequestHeader("Authorization") String authHeader) {
+        ResponseEntity<Map<String, Object>> denied = checkAdmin(extractToken(authHeader));
+        if (denied != null) {
+            return denied;
+        }
+
+        ReportRun run = reportEngine.getRun(id);
+        if (run == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Report run not found"));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("run", runToMap(run));
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Cancel a run (Admin only)
+     * DELETE /api/reports/runs/{id}
+     * Headers: Authorization: Bearer {token}
+     */
+    @DeleteMapping("/runs/{id}")
+    public ResponseEntity<Map<String, Object>> cancelRun(
+            @PathVariable String id,
+            @RequestHeader("Authorization") String authHeader) {
+        ResponseEntity<Map<String, Object>> denied = checkAdmin(extractToken(authHeader));
+        if (denied != null) {
+            return denied;
+        }
+
+        ReportRun run = reportEngine.getRun(id);
+        if (run == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Report run not found"));
+        }
+
+        if (!run.cancel()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("success", false, "message", "Report run already finished (" + run.getStatus() + ")"));
+        }
+
+        return ResponseEntity.ok(Map.of("success", true, "message", "Report run cancelled"));
+    }
+
+    /**
+     * Response for a finished (or abandoned) run
+     */
+    private ResponseEntity<Map<String, Object>> runResponse(ReportRun run) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("run", runToMap(run));
+
+        switch (run.getStatus()) {
+            case COMPLETED:
+                response.put("success", true);
+                return ResponseEntity.ok(response);
+            case FAILED:
+                response.put("success", false);
+                response.put("message", "Report failed: " + run.getError());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            case CANCELLED:
+                response.put("success", false);
+                response.put("message", "Report was cancelled");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            default:
+                response.put("success", false);
+                response.put("message", "Report exceeded its time budget of " + run.getBudgetMillis() + " ms");
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(response);
+        }
+    }
+
+    /**
+     * 401 / 403 response unless the token belongs to an admin, otherwise null
+     */
+    private ResponseEntity<Map<String, Object>> checkAdmin(String token) {
+        if (!libraryFacade.isAuthenticated(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized"));
+        }
+
+        // Check if user is admin
+        if (!"ADMIN".equals(libraryFacade.getCurrentUser(token).getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "Admin access required"));
+        }
+        return null;
+    }
+
+    /**
+     * 400 response for an out-of-range limit or budget, otherwise null
+     */
+    private ResponseEntity<Map<String, Object>> checkParameters(int limit, Long budgetMs) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "limit must be between 1 and " + MAX_LIMIT));
+        }
+        if (budgetMs != null && (budgetMs < 1 || budgetMs > MAX_BUDGET_MS)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "budgetMs must be between 1 and " + MAX_BUDGET_MS));
+        }
+        return null;
+    }
+
+    /**
+     * Convert a report definition to Map for JSON response
+     */
+    private Map<String, Object> reportToMap(LoanReport<?> report) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", report.getName());
+        map.put("description", report.getDescription());
+        return map;
+    }
+
+    /**
+     * Convert a report run to Map for JSON response
+     */
+    private Map<String, Object> runToMap(ReportRun run) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", run.getId());
+        map.put("report", run.getReport());
+        map.put("status", run.getStatus().name());
+        map.put("budgetMs", run.getBudgetMillis());
+        ReportResult result = run.getResult();
+        if (result != null) {
+            map.put("cached", result.isCached());
+            map.put("asOf", result.getAsOf().toString());
+            map.put("loansScanned", result.getLoansScanned());
+            map.put("elapsedMs", result.getElapsedMillis());
+            map.put("rows", result.getRows());
+        }
+        return map;
+    }
+
+    /**
+     * Extract token from Authorization header
+     */
+    private String extractToken(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return authHeader;
+    }
+}
@@ -0,0 +1,266 @@
+package com.biblioteca.controllers.reactive;
+
+import com.biblioteca.models.User;
+import com.biblioteca.patterns.facade.LibraryFacade;
+import com.biblioteca.services.DataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ReactiveAuthController
+ * Reactive (WebFlux) variant of AuthController - profile "reactive"
+ *
+ * Endpoints:
+ * - POST /api/reactive/auth/login - User login
+ * - POST /api/reactive/auth/logout - User logout
+ * - GET /api/reactive/auth/validate - Validate token
+ * - GET /api/reactive/auth/me - Get current user info
+ * - POST /api/reactive/auth/register - Register new user
+ *
+ * users.json is read and written on the bounded persistence scheduler.
+ */
+@RestController
+@RequestMapping("/api/reactive/auth")
+@CrossOrigin(origins = "*")
+@Profile("reactive")
+public class ReactiveAuthController {
+
+    @Autowired
+    private DataService dataService;
+
+    @Autowired
+    @Qualifier("persistenceScheduler")
+    private Scheduler persistenceScheduler;
+
+    private final LibraryFacade libraryFacade;
+
+    public ReactiveAuthController() {
+        this.libraryFacade = LibraryFacade.getInstance();
+    }
+
+    /**
+     * Login endpoint
+     * POST /api/reactive/auth/login
+     * Body: { "username": "admin", "password": "admin123" }
+     */
+    @PostMapping("/login")
+    public Mono<ResponseEntity<Map<String, Object>>> login(@RequestBody Map<String, String> credentials) {
+        String username = credentials.get("username");
+        String password = credentials.get("password");
+
+        return loadUsers().map(users -> {
+            User user = users.stream()
+                    .filter(u -> u.getUsername().equals(username) && u.getPassword().equals(password))
+                    .findFirst()
+                    .orElse(null);
+
+            if (user == null) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("success", false);
+                error.put("message", "Invalid credentials");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+            }
+
+            // Use Facade to login
+            String token = libraryFacade.loginUser(user);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("token", token);
+            response.put("user", Map.of(
+                    "id", user.getId(),
+                    "username", user.getUsername(),
+                    "email", user.getEmail(),
+                    "role", user.getRole(),
+                    "fullName", user.getFullName()
+            ));
+
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    /**
+     * Logout endpoint
+     * POST /api/reactive/auth/logout
+     * Headers: Authorization: Bearer {token}
+     */
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<Map<String, Object>>> logout(@RequestHeader("Authorization") String authHeader) {
+        return Mono.fromSupplier(() -> {
+            String token = extractToken(authHeader);
+
+            boolean success = libraryFacade.logoutUser(token);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", success);
+            response.put("message", success ? "Logged out successfully" : "Invalid token");
+
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    /**
+     * Validate token endpoint
+     * GET /api/reactive/auth/validate
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping("/validate")
+    public Mono<ResponseEntity<Map<String, Object>>> validate(@RequestHeader("Authorization") String authHeader) {
+        return Mono.fromSupplier(() -> {
+            String token = extractToken(authHeader);
+            boolean isValid = libraryFacade.isAuthenticated(token);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("valid", isValid);
+
+            if (isValid) {
+                User user = libraryFacade.getCurrentUser(token);
+                response.put("user", Map.of(
+                        "id", user.getId(),
+                        "username", user.getUsername(),
+                        "role", user.getRole(),
+                        "fullName", user.getFullName()
+                ));
+            }
+
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    /**
+     * Get current user info
+     * GET /api/reactive/auth/me
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping("/me")
+    public Mono<ResponseEntity<Map<String, Object>>> getCurrentUser(@RequestHeader("Authorization") String authHeader) {
+        return Mono.fromSupplier(() -> {
+            String token = extractToken(authHeader);
+
+            if (!libraryFacade.isAuthenticated(token)) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("success", false);
+                error.put("message", "Unauthorized");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+            }
+
+            User user = libraryFacade.getCurrentUser(token);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("user", Map.of(
+                    "id", user.getId(),
+                    "username", user.getUsername(),
+                    "email", user.getEmail(),
+                    "role", user.getRole(),
+                    "fullName", user.getFullName()
+            ));
+
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    /**
+     * Register new user
+     * POST /api/reactive/auth/register
+     * Body: { "username": "...", "password": "...", "email": "...", "fullName": "..." }
+     */
+    @PostMapping("/register")
+    public Mono<ResponseEntity<Map<String, Object>>> register(@RequestBody Map<String, String> userData) {
+        String username = userData.get("username");
+        String password = userData.get("password");
+        String email = userData.get("email");
+        String fullName = userData.get("fullName");
+
+        // Validate required fields
+        if (username == null || username.trim().isEmpty() ||
+            password == null || password.trim().isEmpty() ||
+            email == null || email.trim().isEmpty() ||
+            fullName == null || fullName.trim().isEmpty()) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "All fields are required");
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error));
+        }
+
+        // Load, check and save on the persistence scheduler
+        return Mono.fromSupplier(() -> {
+            List<User> users = dataService.loadUsers();
+
+            // Check if username already exists
+            boolean usernameExists = users.stream()
+                    .anyMatch(u -> u.getUsername().equalsIgnoreCase(username));
+
+            if (usernameExists) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("success", false);
+                error.put("message", "Username already exists");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+            }
+
+            // Check if email already exists
+            boolean emailExists = users.stream()
+                    .anyMatch(u -> u.getEmail().equalsIgnoreCase(email));
+
+            if (emailExists) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("success", false);
+                error.put("message", "Email already registered");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+            }
+
+            // Create new user with USER role (not ADMIN)
+            int newId = users.stream()
+                    .mapToInt(User::getId)
+                    .max()
+                    .orElse(0) + 1;
+
+            User newUser = new User(newId, username, password, email, "USER", fullName);
+            users.add(newUser);
+
+            // Save to JSON
+            dataService.saveUsers(users);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Registration successful");
+            response.put("user", Map.of(
+                    "id", newUser.getId(),
+                    "username", newUser.getUsername(),
+                    "email", newUser.getEmail(),
+                    "role", newUser.getRole(),
+                    "fullName", newUser.getFullName()
+            ));
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        }).subscribeOn(persistenceScheduler);
+    }
+
+    /**
+     * Load users from JSON on the persistence scheduler
+     */
+    private Mono<List<User>> loadUsers() {
+        return Mono.fromSupplier(dataService::loadUsers).subscribeOn(persistenceScheduler);
+    }
+
+    /**
+     * Extract token from Authorization header
+     * Format: "Bearer {token}"
+     */
+    private String extractToken(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return authHeader;
+    }
+}
@@ -0,0 +1,223 @@
+package com.biblioteca.controllers.reactive;
+
+import com.biblioteca.patterns.factory.Book;
+import com.biblioteca.patterns.facade.LibraryFacade;
+import com.biblioteca.patterns.singleton.LibraryManager;
+import com.biblioteca.services.DataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ReactiveBookController
+ * Reactive (WebFlux) variant of BookController - profile "reactive"
+ *
+ * Endpoints:
+ * - GET /api/reactive/books - Stream all books
+ * - GET /api/reactive/books/{id} - Get book by ID
+ * - GET /api/reactive/books/search - Stream books matching a title
+ * - POST /api/reactive/books - Create new book (Admin only)
+ * - GET /api/reactive/books/category/{category} - Stream books by category
+ *
+ * List endpoints return a Flux of books; with "Accept: application/x-ndjson"
+ * each book is written as soon as it is emitted instead of as one array.
+ * DataService calls run on the bounded persistence scheduler.
+ */
+@RestController
+@RequestMapping("/api/reactive/books")
+@CrossOrigin(origins = "*")
+@Profile("reactive")
+public class ReactiveBookController {
+
+    @Autowired
+    private DataService dataService;
+
+    @Autowired
+    @Qualifier("persistenceScheduler")
+    private Scheduler persistenceScheduler;
+
+    private final LibraryFacade libraryFacade;
+    private final LibraryManager libraryManager;
+
+    public ReactiveBookController() {
+        this.libraryFacade = LibraryFacade.getInstance();
+        this.libraryManager = LibraryManager.getInstance();
+    }
+
+    /**
+     * Stream all books
+     * GET /api/reactive/books
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Map<String, Object>> getAllBooks(@RequestHeader("Authorization") String authHeader) {
+        return Flux.defer(() -> {
+            String token = extractToken(authHeader);
+
+            if (!libraryFacade.isAuthenticated(token)) {
+                return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
+            }
+
+            return Flux.fromIterable(libraryFacade.getCatalog(token)).map(this::bookToMap);
+        });
+    }
+
+    /**
+     * Get book by ID
+     * GET /api/reactive/books/{id}
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Map<String, Object>>> getBookById(
+            @PathVariable int id,
+            @RequestHeader("Authorization") String authHeader) {
+
+        return Mono.fromSupplier(() -> {
+            String token = extractToken(authHeader);
+
+            if (!libraryFacade.isAuthenticated(token)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.<String, Object>of("success", false, "message", "Unauthorized"));
+            }
+
+            Book book = libraryManager.getBookById(id);
+
+            if (book == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.<String, Object>of("success", false, "message", "Book not found"));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("book", bookToMap(book));
+
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    /**
+     * Stream books matching a title
+     * GET /api/reactive/books/search?q=query
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Map<String, Object>> searchBooks(
+            @RequestParam("q") String query,
+            @RequestHeader("Authorization") String authHeader) {
+
+        return Flux.defer(() -> {
+            String token = extractToken(authHeader);
+
+            if (!libraryFacade.isAuthenticated(token)) {
+                return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
+            }
+
+            return Flux.fromIterable(libraryFacade.searchBooks(token, query)).map(this::bookToMap);
+        });
+    }
+
+    /**
+     * Create new book (Admin only)
+     * POST /api/reactive/books
+     * Headers: Authorization: Bearer {token}
+     * Body: { "bookType": "DIGITAL", "title": "...", "author": "...", ... }
+     */
+    @PostMapping
+    public Mono<ResponseEntity<Map<String, Object>>> createBook(
+            @RequestBody Map<String, Object> bookData,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized")));
+        }
+
+        // Check if user is admin
+        if (!"ADMIN".equals(libraryFacade.getCurrentUser(token).getRole())) {
+            return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "Admin access required")));
+        }
+
+        return Mono.fromSupplier(() -> libraryFacade.createAndAddBook((String) bookData.get("bookType"), bookData))
+                .flatMap(book -> {
+                    List<Book> books = libraryManager.getAllBooks();
+
+                    // Save to JSON off the event loop
+                    return Mono.fromRunnable(() -> dataService.saveBooks(books))
+                            .subscribeOn(persistenceScheduler)
+                            .thenReturn(book);
+                })
+                .map(book -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", true);
+                    response.put("message", "Book created successfully");
+                    response.put("book", bookToMap(book));
+                    return ResponseEntity.status(HttpStatus.CREATED).body(response);
+                })
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("success", false, "message", "Error creating book: " + e.getMessage()))));
+    }
+
+    /**
+     * Stream books by category
+     * GET /api/reactive/books/category/{category}
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping(value = "/category/{category}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Map<String, Object>> getBooksByCategory(
+            @PathVariable String category,
+            @RequestHeader("Authorization") String authHeader) {
+
+        return Flux.defer(() -> {
+            String token = extractToken(authHeader);
+
+            if (!libraryFacade.isAuthenticated(token)) {
+                return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
+            }
+
+            return Flux.fromIterable(libraryManager.getBooksByCategory(category)).map(this::bookToMap);
+        });
+    }
+
+    /**
+     * Convert Book to Map for JSON response
+     */
+    private Map<String, Object> bookToMap(Book book) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", book.getId());
+        map.put("title", book.getTitle());
+        map.put("author", book.getAuthor());
+        map.put("isbn", book.getIsbn());
+        map.put("category", book.getCategory());
+        map.put("available", book.isAvailable());
+        map.put("availableCopies", book.getAvailableCopies());
+        map.put("totalCopies", book.getTotalCopies());
+        map.put("bookType", book.getBookType());
+        map.put("accessMethod", book.getAccessMethod());
+        return map;
+    }
+
+    /**
+     * Extract token from Authorization header
+     */
+    private String extractToken(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return authHeader;
+    }
+}
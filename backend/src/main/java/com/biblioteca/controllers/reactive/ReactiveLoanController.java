@@ -0,0 +1,246 @@
+package com.biblioteca.controllers.reactive;
+
+import com.biblioteca.circulation.HoldManager;
+import com.biblioteca.models.Loan;
+import com.biblioteca.patterns.facade.LibraryFacade;
+import com.biblioteca.patterns.singleton.LibraryManager;
+import com.biblioteca.services.DataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ReactiveLoanController
+ * Reactive (WebFlux) variant of LoanController - profile "reactive"
+ *
+ * Endpoints:
+ * - POST /api/reactive/loans/borrow - Borrow a book
+ * - POST /api/reactive/loans/return/{id} - Return a book
+ * - GET /api/reactive/loans/history - Stream user's loan history
+ * - GET /api/reactive/loans - Stream all loans (Admin only)
+ * - GET /api/reactive/loans/{id} - Get loan by ID
+ *
+ * Loans, books and holds are saved on the bounded persistence scheduler;
+ * the response is emitted once the files are written.
+ */
+@RestController
+@RequestMapping("/api/reactive/loans")
+@CrossOrigin(origins = "*")
+@Profile("reactive")
+public class ReactiveLoanController {
+
+    @Autowired
+    private DataService dataService;
+
+    @Autowired
+    @Qualifier("persistenceScheduler")
+    private Scheduler persistenceScheduler;
+
+    private final LibraryFacade libraryFacade;
+    private final LibraryManager libraryManager;
+
+    public ReactiveLoanController() {
+        this.libraryFacade = LibraryFacade.getInstance();
+        this.libraryManager = LibraryManager.getInstance();
+    }
+
+    /**
+     * Borrow a book
+     * POST /api/reactive/loans/borrow
+     * Headers: Authorization: Bearer {token}
+     * Body: { "bookId": 1 }
+     */
+    @PostMapping("/borrow")
+    public Mono<ResponseEntity<Map<String, Object>>> borrowBook(
+            @RequestBody Map<String, Integer> request,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized")));
+        }
+
+        int bookId = request.get("bookId");
+
+        // Use Facade to borrow book
+        Loan loan = libraryFacade.borrowBook(token, bookId);
+
+        if (loan == null) {
+            if (libraryFacade.isAtLoanLimit(token)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("success", false, "message", "Loan limit reached. Return a book before borrowing another.")));
+            }
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "Unable to borrow book. Book may not be available; place a hold with POST /api/holds.")));
+        }
+
+        return saveCirculation().then(Mono.fromSupplier(() -> {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Book borrowed successfully");
+            response.put("loan", loanToMap(loan));
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        }));
+    }
+
+    /**
+     * Return a book
+     * POST /api/reactive/loans/return/{id}
+     * Headers: Authorization: Bearer {token}
+     */
+    @PostMapping("/return/{id}")
+    public Mono<ResponseEntity<Map<String, Object>>> returnBook(
+            @PathVariable int id,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String token = extractToken(authHeader);
+
+        if (!libraryFacade.isAuthenticated(token)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Unauthorized")));
+        }
+
+        // Use Facade to return book
+        boolean success = libraryFacade.returnBook(token, id);
+
+        if (!success) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("success", false, "message", "Unable to return book. Loan may not exist or already returned.")));
+        }
+
+        return saveCirculation().then(Mono.fromSupplier(() -> {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Book returned successfully");
+            response.put("loan", loanToMap(libraryManager.getLoanById(id)));
+            return ResponseEntity.ok(response);
+        }));
+    }
+
+    /**
+     * Stream user's loan history
+     * GET /api/reactive/loans/history
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping(value = "/history", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Map<String, Object>> getUserLoanHistory(@RequestHeader("Authorization") String authHeader) {
+        return Flux.defer(() -> {
+            String token = extractToken(authHeader);
+
+            if (!libraryFacade.isAuthenticated(token)) {
+                return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
+            }
+
+            return Flux.fromIterable(libraryFacade.getUserLoanHistory(token)).map(this::loanToMap);
+        });
+    }
+
+    /**
+     * Stream all loans (Admin only)
+     * GET /api/reactive/loans
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Map<String, Object>> getAllLoans(@RequestHeader("Authorization") String authHeader) {
+        return Flux.defer(() -> {
+            String token = extractToken(authHeader);
+
+            if (!libraryFacade.isAuthenticated(token)) {
+                return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
+            }
+
+            // Check if user is admin
+            if (!"ADMIN".equals(libraryFacade.getCurrentUser(token).getRole())) {
+                return Flux.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Admin access required"));
+            }
+
+            return Flux.fromIterable(libraryManager.getAllLoans()).map(this::loanToMap);
+        });
+    }
+
+    /**
+     * Get loan by ID
+     * GET /api/reactive/loans/{id}
+     * Headers: Authorization: Bearer {token}
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Map<String, Object>>> getLoanById(
+            @PathVariable int id,
+            @RequestHeader("Authorization") String authHeader) {
+
+        return Mono.fromSupplier(() -> {
+            String token = extractToken(authHeader);
+
+            if (!libraryFacade.isAuthenticated(token)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.<String, Object>of("success", false, "message", "Unauthorized"));
+            }
+
+            Loan loan = libraryManager.getLoanById(id);
+
+            if (loan == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.<String, Object>of("success", false, "message", "Loan not found"));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("loan", loanToMap(loan));
+
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    /**
+     * Save loans, books and holds to JSON on the persistence scheduler
+     */
+    private Mono<Void> saveCirculation() {
+        return Mono.fromRunnable(() ->
+                        dataService.saveCirculation(libraryManager.getAllLoans(), libraryManager.getAllBooks(),
+                                HoldManager.getInstance().getAllHolds()))
+                .subscribeOn(persistenceScheduler)
+                .then();
+    }
+
+    /**
+     * Convert Loan to Map for JSON response
+     */
+    private Map<String, Object> loanToMap(Loan loan) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", loan.getId());
+        map.put("username", loan.getUsername());
+        map.put("bookId", loan.getBookId());
+        map.put("bookTitle", loan.getBookTitle());
+        map.put("loanDate", loan.getLoanDate().toString());
+        map.put("dueDate", loan.getDueDate().toString());
+        map.put("returned", loan.isReturned());
+        map.put("returnDate", loan.getReturnDate() != null ? loan.getReturnDate().toString() : null);
+        map.put("overdue", loan.isOverdue());
+        map.put("daysUntilDue", loan.getDaysUntilDue());
+        map.put("playbackPositionSeconds", loan.getPlaybackPositionSeconds());
+        return map;
+    }
+
+    /**
+     * Extract token from Authorization header
+     */
+    private String extractToken(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return authHeader;
+    }
+}
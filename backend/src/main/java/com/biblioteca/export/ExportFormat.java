@@ -0,0 +1,163 @@
+package com.biblioteca.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ExportFormat
+ * Line-oriented formats for bulk exports
+ *
+ * - CSV: RFC 4180, a header line then one line per record (CRLF); fields
+ *   with a comma, quote or line break are quoted, quotes doubled
+ * - NDJSON: one JSON object per line, no header
+ *
+ * Both write a record at a time, so an export never holds more than one
+ * record in memory.
+ */
+public enum ExportFormat {
+
+    CSV("text/csv", "csv") {
+        @Override
+        public void writeHeader(Writer out, List<String> columns) throws IOException {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeCsvField(out, columns.get(i));
+            }
+            out.write("\r\n");
+        }
+
+        @Override
+        public void writeRecord(Writer out, List<String> columns, Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                if (values[i] != null) {
+                    writeCsvField(out, values[i].toString());
+                }
+            }
+            out.write("\r\n");
+        }
+    },
+
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        public void writeHeader(Writer out, List<String> columns) {
+            // Every record carries its field names
+        }
+
+        @Override
+        public void writeRecord(Writer out, List<String> columns, Object[] values) throws IOException {
+            out.write('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeJsonString(out, columns.get(i));
+                out.write(':');
+                Object value = values[i];
+                if (value == null || value instanceof Number || value instanceof Boolean) {
+                    out.write(String.valueOf(value));
+                } else {
+                    writeJsonString(out, value.toString());
+                }
+            }
+            out.write("}\n");
+        }
+    };
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Write what comes before the first record
+     */
+    public abstract void writeHeader(Writer out, List<String> columns) throws IOException;
+
+    /**
+     * Write one record (values in column order, null for none)
+     */
+    public abstract void writeRecord(Writer out, List<String> columns, Object[] values) throws IOException;
+
+    /**
+     * Parse a format name (case-insensitive)
+     *
+     * @return The format, or null if the name is unknown
+     */
+    public static ExportFormat parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    private static void writeCsvField(Writer out, String field) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < field.length() && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            out.write(field);
+            return;
+        }
+        out.write('"');
+        out.write(field.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    /**
+     * Write a JSON string literal, copying runs of plain characters in one call
+     */
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        int run = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.write(value, run, i - run);
+            run = i + 1;
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    out.write(String.format("\\u%04x", (int) c));
+            }
+        }
+        out.write(value, run, value.length() - run);
+        out.write('"');
+    }
+}
@@ -0,0 +1,113 @@
+package com.biblioteca.export;
+
+import com.biblioteca.models.Loan;
+import com.biblioteca.models.User;
+import com.biblioteca.patterns.factory.AudioBook;
+import com.biblioteca.patterns.factory.Book;
+import com.biblioteca.patterns.factory.DigitalBook;
+import com.biblioteca.patterns.factory.EBook;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * ExportTable
+ * The columns exported for one kind of record
+ *
+ * Book columns use the BookFactory parameter names, so an exported
+ * catalog can be imported again; type-specific columns are empty for
+ * the other types. Users are exported without their password.
+ *
+ * @param <T> Record type
+ */
+public class ExportTable<T> {
+
+    public static final ExportTable<Book> BOOKS = new ExportTable<Book>("books")
+            .column("id", Book::getId)
+            .column("title", Book::getTitle)
+            .column("author", Book::getAuthor)
+            .column("isbn", Book::getIsbn)
+            .column("category", Book::getCategory)
+            .column("bookType", Book::getBookType)
+            .column("totalCopies", Book::getTotalCopies)
+            .column("availableCopies", Book::getAvailableCopies)
+            .column("fileFormat", book -> book instanceof DigitalBook ? ((DigitalBook) book).getFileFormat() : null)
+            .column("fileSizeMB", book -> book instanceof DigitalBook ? ((DigitalBook) book).getFileSizeMB() : null)
+            .column("narrator", book -> book instanceof AudioBook ? ((AudioBook) book).getNarrator() : null)
+            .column("durationMinutes", book -> book instanceof AudioBook ? ((AudioBook) book).getDurationMinutes() : null)
+            .column("audioFormat", book -> book instanceof AudioBook ? ((AudioBook) book).getAudioFormat() : null)
+            .column("hasInteractiveContent", book -> book instanceof EBook ? ((EBook) book).isHasInteractiveContent() : null)
+            .column("pageCount", book -> book instanceof EBook ? ((EBook) book).getPageCount() : null)
+            .column("publisher", book -> book instanceof EBook ? ((EBook) book).getPublisher() : null);
+
+    public static final ExportTable<Loan> LOANS = new ExportTable<Loan>("loans")
+            .column("id", Loan::getId)
+            .column("username", Loan::getUsername)
+            .column("bookId", Loan::getBookId)
+            .column("bookTitle", Loan::getBookTitle)
+            .column("loanDate", Loan::getLoanDate)
+            .column("dueDate", Loan::getDueDate)
+            .column("returned", Loan::isReturned)
+            .column("returnDate", Loan::getReturnDate)
+            .column("playbackPositionSeconds", Loan::getPlaybackPositionSeconds);
+
+    public static final ExportTable<User> USERS = new ExportTable<User>("users")
+            .column("id", User::getId)
+            .column("username", User::getUsername)
+            .column("email", User::getEmail)
+            .column("role", User::getRole)
+            .column("fullName", User::getFullName);
+
+    private static final Map<String, ExportTable<?>> TABLES = new LinkedHashMap<>();
+
+    static {
+        TABLES.put(BOOKS.name, BOOKS);
+        TABLES.put(LOANS.name, LOANS);
+        TABLES.put(USERS.name, USERS);
+    }
+
+    private final String name;
+    private final List<String> columns = new ArrayList<>();
+    private final List<Function<T, Object>> getters = new ArrayList<>();
+
+    private ExportTable(String name) {
+        this.name = name;
+    }
+
+    private ExportTable<T> column(String column, Function<T, Object> getter) {
+        columns.add(column);
+        getters.add(getter);
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Values of a record, in column order
+     */
+    public Object[] valuesOf(T record) {
+        Object[] values = new Object[getters.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getters.get(i).apply(record);
+        }
+        return values;
+    }
+
+    /**
+     * Get a table by name
+     *
+     * @return The table, or null if the name is unknown
+     */
+    public static ExportTable<?> forName(String name) {
+        return TABLES.get(name);
+    }
+}
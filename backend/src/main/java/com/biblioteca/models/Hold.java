@@ -0,0 +1,153 @@
+package com.biblioteca.models;
+
+/**
+ * Hold Model
+ * Represents a user's place in the queue for a book with no free copy
+ *
+ * Tracks:
+ * - Which user is waiting for which book, and since when
+ * - Status: WAITING in the queue, or READY once a returned copy was set
+ *   aside for the user
+ * - Claim deadline of a READY hold (the copy goes to the next holder after it)
+ *
+ * Times are epoch milliseconds.
+ */
+public class Hold {
+
+    public enum Status {
+        WAITING,
+        READY
+    }
+
+    private int id;
+    private String username;
+    private int bookId;
+    private String bookTitle;
+    private Status status;
+    private long placedAt;
+    private long readyAt;
+    private long expiresAt;
+
+    /**
+     * Default constructor
+     */
+    public Hold() {
+        this.status = Status.WAITING;
+    }
+
+    /**
+     * Constructor for a new hold, waiting in the queue
+     */
+    public Hold(int id, String username, int bookId, String bookTitle, long placedAt) {
+        this.id = id;
+        this.username = username;
+        this.bookId = bookId;
+        this.bookTitle = bookTitle;
+        this.status = Status.WAITING;
+        this.placedAt = placedAt;
+    }
+
+    // Getters and Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public int getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(int bookId) {
+        this.bookId = bookId;
+    }
+
+    public String getBookTitle() {
+        return bookTitle;
+    }
+
+    public void setBookTitle(String bookTitle) {
+        this.bookTitle = bookTitle;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getPlacedAt() {
+        return placedAt;
+    }
+
+    public void setPlacedAt(long placedAt) {
+        this.placedAt = placedAt;
+    }
+
+    public long getReadyAt() {
+        return readyAt;
+    }
+
+    public void setReadyAt(long readyAt) {
+        this.readyAt = readyAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Mark the hold READY: a copy is set aside until the claim deadline
+     */
+    public void markReady(long now, long claimWindowMillis) {
+        this.status = Status.READY;
+        this.readyAt = now;
+        this.expiresAt = now + claimWindowMillis;
+    }
+
+    public boolean isReady() {
+        return status == Status.READY;
+    }
+
+    /**
+     * Check if the claim window of a READY hold has passed
+     */
+    public boolean isExpired(long now) {
+        return status == Status.READY && now >= expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Hold{id=%d, username='%s', bookId=%d, status=%s}",
+                id, username, bookId, status);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Hold hold = (Hold) o;
+        return id == hold.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+}
@@ -10,6 +10,7 @@ import java.time.LocalDate;
  * - Which user borrowed which book
  * - Loan dates (borrow and due dates)
  * - Return status and date
+ * - Playback position (AudioBook loans), so listening can be resumed
  */
 public class Loan {
 
@@ -21,6 +22,7 @@ public class Loan {
     private LocalDate dueDate;
     private LocalDate returnDate;
     private boolean returned;
+    private volatile int playbackPositionSeconds;
 
     /**
      * Default constructor
@@ -117,6 +119,14 @@ public class Loan {
         this.returned = returned;
     }
 
+    public int getPlaybackPositionSeconds() {
+        return playbackPositionSeconds;
+    }
+
+    public void setPlaybackPositionSeconds(int playbackPositionSeconds) {
+        this.playbackPositionSeconds = playbackPositionSeconds;
+    }
+
     /**
      * Check if loan is overdue
      */
@@ -0,0 +1,176 @@
+package com.biblioteca.monitoring;
+
+import com.biblioteca.monitoring.events.LibraryOperationEvent;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * OperationMetrics
+ * Latency histograms for library operations
+ *
+ * Each (metric, operation, outcome) triple gets one Micrometer Timer with
+ * client-side percentiles (p50/p90/p99/p999) and a Prometheus histogram.
+ * Timers are registered once and cached, so recording is a map lookup plus
+ * a lock-free histogram update.
+ *
+ * Outcomes:
+ * - success: operation completed
+ * - failure: operation rejected (invalid token, book unavailable, ...)
+ * - error: operation threw an exception
+ *
+ * Meters are registered in the global registry, which Spring Boot links
+ * to the Prometheus registry exposed at /actuator/prometheus.
+ *
+ * Timed operations also emit a LibraryOperationEvent for Java Flight
+ * Recorder (disabled by default, see jfr/biblioteca.jfc).
+ */
+public final class OperationMetrics {
+
+    public static final String FACADE = "library.facade";
+    public static final String PERSISTENCE = "library.persistence";
+
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    public static final String ERROR = "error";
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    // Registered timers: "metric|operation|outcome" -> timer
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private OperationMetrics() {
+    }
+
+    /**
+     * Times an operation and records it with an outcome derived from the result
+     *
+     * @param metric Metric name (FACADE, PERSISTENCE)
+     * @param operation Operation name
+     * @param action Operation to run
+     * @param succeeded Decides whether the result counts as success or failure
+     * @return The operation result
+     */
+    public static <T> T time(String metric, String operation, Supplier<T> action, Predicate<T> succeeded) {
+        LibraryOperationEvent event = new LibraryOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            T result = action.get();
+            String outcome = succeeded.test(result) ? SUCCESS : FAILURE;
+            record(metric, operation, outcome, start);
+            commit(event, operation, recordCount(result), outcome);
+            return result;
+        } catch (RuntimeException e) {
+            record(metric, operation, ERROR, start);
+            commit(event, operation, 0, ERROR);
+            throw e;
+        }
+    }
+
+    /**
+     * Records an operation that started at startNanos (from System.nanoTime())
+     */
+    public static void record(String metric, String operation, String outcome, long startNanos) {
+        timer(metric, operation, outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Commits the JFR event if it is enabled and over its threshold
+     */
+    private static void commit(LibraryOperationEvent event, String operation, int recordCount, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.recordCount = recordCount;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    private static int recordCount(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        return result != null ? 1 : 0;
+    }
+
+    private static Timer timer(String metric, String operation, String outcome) {
+        String key = metric + '|' + operation + '|' + outcome;
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, k -> Timer.builder(metric)
+                    .description("Latency of library operations")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(Metrics.globalRegistry));
+        }
+        return timer;
+    }
+
+    /**
+     * Compact latency summary per metric and operation (for the admin panel)
+     * Percentiles are taken from successful calls; counts include all outcomes.
+     *
+     * @return One row per operation with count, errors, failures and percentiles in ms
+     */
+    public static List<Map<String, Object>> summary() {
+        Map<String, Map<String, Object>> rows = new TreeMap<>();
+
+        for (Map.Entry<String, Timer> entry : timers.entrySet()) {
+            String[] parts = entry.getKey().split("\\|");
+            String rowKey = parts[0] + '|' + parts[1];
+            String outcome = parts[2];
+            HistogramSnapshot snapshot = entry.getValue().takeSnapshot();
+
+            Map<String, Object> row = rows.computeIfAbsent(rowKey, k -> {
+                Map<String, Object> r = new LinkedHashMap<>();
+                r.put("metric", parts[0]);
+                r.put("operation", parts[1]);
+                r.put("count", 0L);
+                r.put("failures", 0L);
+                r.put("errors", 0L);
+                return r;
+            });
+
+            row.put("count", (Long) row.get("count") + snapshot.count());
+            if (FAILURE.equals(outcome)) {
+                row.put("failures", (Long) row.get("failures") + snapshot.count());
+            } else if (ERROR.equals(outcome)) {
+                row.put("errors", (Long) row.get("errors") + snapshot.count());
+            } else {
+                for (ValueAtPercentile value : snapshot.percentileValues()) {
+                    row.put(percentileName(value.percentile()), round(value.value(TimeUnit.MILLISECONDS)));
+                }
+                row.put("max", round(snapshot.max(TimeUnit.MILLISECONDS)));
+            }
+        }
+
+        return new ArrayList<>(rows.values());
+    }
+
+    private static String percentileName(double percentile) {
+        if (percentile == 0.999) {
+            return "p999";
+        }
+        return "p" + Math.round(percentile * 100);
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000) / 1000.0;
+    }
+}
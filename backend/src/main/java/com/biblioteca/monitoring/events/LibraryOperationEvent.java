@@ -0,0 +1,36 @@
+package com.biblioteca.monitoring.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event - LibraryFacade operation
+ *
+ * Emitted around every facade call (login, borrow, return, search, ...).
+ * Disabled by default; enable it with the bundled jfr/biblioteca.jfc profile.
+ */
+@Name("com.biblioteca.LibraryOperation")
+@Label("Library Operation")
+@Category({"Biblioteca", "Facade"})
+@Description("A LibraryFacade operation")
+@Enabled(false)
+@Threshold("10 ms")
+@StackTrace(false)
+public class LibraryOperationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Record Count")
+    @Description("Number of records returned by the operation")
+    public int recordCount;
+
+    @Label("Outcome")
+    public String outcome;
+}
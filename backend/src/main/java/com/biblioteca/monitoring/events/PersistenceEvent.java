@@ -0,0 +1,41 @@
+package com.biblioteca.monitoring.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event - DataService load/save
+ *
+ * Emitted around every JSON file load and save.
+ * Disabled by default; enable it with the bundled jfr/biblioteca.jfc profile.
+ */
+@Name("com.biblioteca.Persistence")
+@Label("Persistence Operation")
+@Category({"Biblioteca", "Persistence"})
+@Description("A DataService load or save of a JSON data file")
+@Enabled(false)
+@Threshold("20 ms")
+@StackTrace(false)
+public class PersistenceEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Record Count")
+    public int recordCount;
+
+    @Label("Bytes")
+    @Description("Bytes read from or written to the data file")
+    @DataAmount
+    public long bytes;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,41 @@
+package com.biblioteca.monitoring.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event - LibraryManager search
+ *
+ * Emitted around catalog searches (by title, by category).
+ * Disabled by default; enable it with the bundled jfr/biblioteca.jfc profile.
+ */
+@Name("com.biblioteca.Search")
+@Label("Catalog Search")
+@Category({"Biblioteca", "Search"})
+@Description("A LibraryManager catalog search")
+@Enabled(false)
+@Threshold("5 ms")
+@StackTrace(false)
+public class SearchEvent extends Event {
+
+    @Label("Criterion")
+    @Description("Searched field (title, category, ...)")
+    public String criterion;
+
+    @Label("Term")
+    public String term;
+
+    @Label("Scanned")
+    @Description("Number of books examined")
+    public int scanned;
+
+    @Label("Record Count")
+    @Description("Number of matching books")
+    public int recordCount;
+}
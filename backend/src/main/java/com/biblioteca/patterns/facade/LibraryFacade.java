@@ -1,15 +1,31 @@
 package com.biblioteca.patterns.facade;
 
+import com.biblioteca.analytics.LoanRollups;
+import com.biblioteca.analytics.LoanSketches;
+import com.biblioteca.analytics.TrendingTracker;
+import com.biblioteca.circulation.HoldManager;
+import com.biblioteca.circulation.LoanLimiter;
 import com.biblioteca.patterns.singleton.AuthenticationManager;
 import com.biblioteca.patterns.singleton.LibraryManager;
+import com.biblioteca.patterns.factory.AudioBook;
 import com.biblioteca.patterns.factory.Book;
 import com.biblioteca.patterns.factory.BookFactory;
+import com.biblioteca.models.Hold;
 import com.biblioteca.models.User;
 import com.biblioteca.models.Loan;
+import com.biblioteca.monitoring.OperationMetrics;
+import com.biblioteca.search.BookQuery;
+import com.biblioteca.search.QueryPlanner.QueryResult;
+import com.biblioteca.search.SuggestionTrie.Suggestion;
+import com.biblioteca.search.TrigramIndex.FuzzyMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * FACADE PATTERN - LibraryFacade
@@ -21,6 +37,10 @@ import java.util.Map;
  * - AuthenticationManager (Singleton) - Authentication
  * - LibraryManager (Singleton) - Book and loan management
  * - BookFactory (Factory Method) - Book creation
+ * - TrendingTracker (Singleton) - Borrow counts for trending titles
+ * - LoanRollups (Singleton) - Loans per day, category and book type
+ * - HoldManager (Singleton) - Hold queues and hand-off of returned copies
+ * - LoanLimiter (Singleton) - Active-loan counters and per-role limits
  *
  * Advantages:
  * - Simplifies system usage for clients
@@ -33,12 +53,15 @@ import java.util.Map;
  */
 public class LibraryFacade {
 
-    // Unique Facade instance
-    private static LibraryFacade instance;
+    private static final Logger log = LoggerFactory.getLogger(LibraryFacade.class);
 
     // References to subsystems (Singletons)
     private AuthenticationManager authManager;
     private LibraryManager libraryManager;
+    private TrendingTracker trendingTracker;
+    private LoanRollups loanRollups;
+    private HoldManager holdManager;
+    private LoanLimiter loanLimiter;
 
     /**
      * Private constructor
@@ -47,17 +70,27 @@ public class LibraryFacade {
     private LibraryFacade() {
         this.authManager = AuthenticationManager.getInstance();
         this.libraryManager = LibraryManager.getInstance();
-        System.out.println("🎭 LibraryFacade initialized - Facade pattern active");
+        this.trendingTracker = TrendingTracker.getInstance();
+        this.loanRollups = LoanRollups.getInstance();
+        this.holdManager = HoldManager.getInstance();
+        this.loanLimiter = LoanLimiter.getInstance();
+        log.info("🎭 LibraryFacade initialized - Facade pattern active");
     }
 
     /**
      * Gets the unique Facade instance
+     * Thread-safe lazy initialization (holder idiom) without locking
      */
-    public static synchronized LibraryFacade getInstance() {
-        if (instance == null) {
-            instance = new LibraryFacade();
-        }
-        return instance;
+    public static LibraryFacade getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Holder of the unique instance
+     * The JVM initializes it lazily and thread-safely on first access
+     */
+    private static class Holder {
+        private static final LibraryFacade INSTANCE = new LibraryFacade();
     }
 
     /**
@@ -68,7 +101,15 @@ public class LibraryFacade {
      * @return Session token
      */
     public String loginUser(User user) {
-        System.out.println("🎭 Facade: Processing login for " + user.getUsername());
+        return OperationMetrics.time(OperationMetrics.FACADE, "login",
+                () -> processLoginUser(user), Objects::nonNull);
+    }
+
+    /**
+     * Implementation of loginUser (timed by the public method)
+     */
+    private String processLoginUser(User user) {
+        log.debug("🎭 Facade: Processing login for {}", user.getUsername());
         return authManager.login(user);
     }
 
@@ -79,7 +120,15 @@ public class LibraryFacade {
      * @return true if closed successfully
      */
     public boolean logoutUser(String token) {
-        System.out.println("🎭 Facade: Processing logout");
+        return OperationMetrics.time(OperationMetrics.FACADE, "logout",
+                () -> processLogoutUser(token), Boolean::booleanValue);
+    }
+
+    /**
+     * Implementation of logoutUser (timed by the public method)
+     */
+    private boolean processLogoutUser(String token) {
+        log.debug("🎭 Facade: Processing logout");
         return authManager.logout(token);
     }
 
@@ -92,7 +141,15 @@ public class LibraryFacade {
      * @return Created book
      */
     public Book createAndAddBook(String bookType, Map<String, Object> params) {
-        System.out.println("🎭 Facade: Creating and adding book type " + bookType);
+        return OperationMetrics.time(OperationMetrics.FACADE, "createBook",
+                () -> processCreateAndAddBook(bookType, params), Objects::nonNull);
+    }
+
+    /**
+     * Implementation of createAndAddBook (timed by the public method)
+     */
+    private Book processCreateAndAddBook(String bookType, Map<String, Object> params) {
+        log.debug("🎭 Facade: Creating and adding book type {}", bookType);
 
         // Uses the Factory to create the book
         Book book = BookFactory.createBook(bookType, params);
@@ -112,11 +169,19 @@ public class LibraryFacade {
      * @return Loan object if successful, null if failed
      */
     public Loan borrowBook(String token, int bookId) {
-        System.out.println("🎭 Facade: Processing book loan ID " + bookId);
+        return OperationMetrics.time(OperationMetrics.FACADE, "borrow",
+                () -> processBorrowBook(token, bookId), Objects::nonNull);
+    }
+
+    /**
+     * Implementation of borrowBook (timed by the public method)
+     */
+    private Loan processBorrowBook(String token, int bookId) {
+        log.debug("🎭 Facade: Processing book loan ID {}", bookId);
 
         // 1. Validate token
         if (!authManager.isValidToken(token)) {
-            System.out.println("❌ Invalid token");
+            log.debug("❌ Invalid token");
             return null;
         }
 
@@ -126,17 +191,25 @@ public class LibraryFacade {
         // 3. Get book
         Book book = libraryManager.getBookById(bookId);
         if (book == null) {
-            System.out.println("❌ Book not found");
+            log.debug("❌ Book not found");
             return null;
         }
 
-        // 4. Check availability
-        if (!book.isAvailable()) {
-            System.out.println("❌ Book not available");
+        // 4. Reserve an active-loan slot (atomic; fails at the role's limit)
+        if (!loanLimiter.tryAcquire(user)) {
+            log.debug("❌ Loan limit reached for {}", user.getUsername());
             return null;
         }
 
-        // 5. Create loan
+        // 5. Take the copy set aside by the user's hold, or a free copy
+        //    (atomic; fails when all copies are lent out or held)
+        if (!holdManager.claim(user.getUsername(), bookId) && !libraryManager.acquireCopy(book)) {
+            loanLimiter.release(user.getUsername());
+            log.debug("❌ Book not available");
+            return null;
+        }
+
+        // 6. Create loan
         Loan loan = new Loan(
             0, // ID will be assigned by LibraryManager
             user.getUsername(),
@@ -146,11 +219,14 @@ public class LibraryFacade {
             LocalDate.now().plusDays(14) // 14 days loan period
         );
 
-        // 6. Register loan and update availability
+        // 7. Register loan
         libraryManager.addLoan(loan);
-        book.setAvailable(false);
 
-        System.out.println("✅ Successful loan: " + book.getTitle() + " for " + user.getUsername());
+        // 8. Count the borrow for trending titles and the loan rollups
+        trendingTracker.recordBorrow(bookId);
+        loanRollups.recordLoan(loan, book);
+
+        log.debug("✅ Successful loan: {} for {}", book.getTitle(), user.getUsername());
         return loan;
     }
 
@@ -162,41 +238,180 @@ public class LibraryFacade {
      * @return true if successful
      */
     public boolean returnBook(String token, int loanId) {
-        System.out.println("🎭 Facade: Processing book return ID " + loanId);
+        return OperationMetrics.time(OperationMetrics.FACADE, "return",
+                () -> processReturnBook(token, loanId), Boolean::booleanValue);
+    }
+
+    /**
+     * Implementation of returnBook (timed by the public method)
+     */
+    private boolean processReturnBook(String token, int loanId) {
+        log.debug("🎭 Facade: Processing book return ID {}", loanId);
 
         // 1. Validate token
         if (!authManager.isValidToken(token)) {
-            System.out.println("❌ Invalid token");
+            log.debug("❌ Invalid token");
             return false;
         }
 
         // 2. Get loan
         Loan loan = libraryManager.getLoanById(loanId);
         if (loan == null) {
-            System.out.println("❌ Loan not found");
+            log.debug("❌ Loan not found");
             return false;
         }
 
-        // 3. Check if already returned
-        if (loan.isReturned()) {
-            System.out.println("❌ Book already returned");
-            return false;
+        // 3. Mark as returned (once, even if returned concurrently)
+        synchronized (loan) {
+            if (loan.isReturned()) {
+                log.debug("❌ Book already returned");
+                return false;
+            }
+            loan.setReturned(true);
+            loan.setReturnDate(LocalDate.now());
         }
+        libraryManager.recordReturn(loan);
+
+        // 4. Free the borrower's active-loan slot
+        loanLimiter.release(loan.getUsername());
 
-        // 4. Get book and update availability
+        // 5. Hand the copy to the next holder, or give it back
         Book book = libraryManager.getBookById(loan.getBookId());
         if (book != null) {
-            book.setAvailable(true);
+            Hold next = holdManager.handOff(book);
+            if (next != null) {
+                log.debug("📌 Returned copy set aside for {}", next.getUsername());
+            }
         }
 
-        // 5. Mark as returned
-        loan.setReturned(true);
-        loan.setReturnDate(LocalDate.now());
+        // 6. Count the return and its duration in the loan rollups
+        loanRollups.recordReturn(loan, book);
 
-        System.out.println("✅ Successful return: " + loan.getBookTitle());
+        log.debug("✅ Successful return: {}", loan.getBookTitle());
         return true;
     }
 
+    /**
+     * FACADE OPERATION: Place a hold on a book
+     * The user queues once instead of retrying the borrow; a returned copy
+     * is then set aside for them (see HoldManager)
+     *
+     * @param token User's session token
+     * @param bookId ID of the book to hold
+     * @return The user's hold (READY at once if a copy was free), or null if failed
+     */
+    public Hold placeHold(String token, int bookId) {
+        return OperationMetrics.time(OperationMetrics.FACADE, "placeHold",
+                () -> processPlaceHold(token, bookId), Objects::nonNull);
+    }
+
+    /**
+     * Implementation of placeHold (timed by the public method)
+     */
+    private Hold processPlaceHold(String token, int bookId) {
+        log.debug("🎭 Facade: Processing hold on book ID {}", bookId);
+
+        User user = authManager.getUserByToken(token);
+        if (user == null) {
+            log.debug("❌ Invalid token");
+            return null;
+        }
+
+        Book book = libraryManager.getBookById(bookId);
+        if (book == null) {
+            log.debug("❌ Book not found");
+            return null;
+        }
+
+        // A user already holding a copy on loan does not queue for another
+        if (libraryManager.hasActiveLoan(user.getUsername(), bookId)) {
+            log.debug("❌ {} already has '{}' on loan", user.getUsername(), book.getTitle());
+            return null;
+        }
+
+        return holdManager.placeHold(user.getUsername(), book);
+    }
+
+    /**
+     * FACADE OPERATION: Cancel one of the user's holds
+     *
+     * @param token User's session token
+     * @param holdId ID of the hold
+     * @return true if cancelled
+     */
+    public boolean cancelHold(String token, int holdId) {
+        return OperationMetrics.time(OperationMetrics.FACADE, "cancelHold",
+                () -> processCancelHold(token, holdId), Boolean::booleanValue);
+    }
+
+    /**
+     * Implementation of cancelHold (timed by the public method)
+     */
+    private boolean processCancelHold(String token, int holdId) {
+        User user = authManager.getUserByToken(token);
+        if (user == null) {
+            log.debug("❌ Invalid token");
+            return false;
+        }
+
+        return holdManager.cancel(user.getUsername(), holdId);
+    }
+
+    /**
+     * FACADE OPERATION: Get the user's active holds
+     *
+     * @param token User's session token
+     * @return Holds, oldest first
+     */
+    public List<Hold> getUserHolds(String token) {
+        User user = authManager.getUserByToken(token);
+        if (user == null) {
+            return List.of();
+        }
+        return holdManager.getHoldsByUser(user.getUsername());
+    }
+
+    /**
+     * FACADE OPERATION: Save the playback position of an audiobook loan
+     * Only the user holding the (active) loan can move its position
+     *
+     * @param token User's session token
+     * @param loanId ID of the loan
+     * @param positionSeconds Position in seconds, clamped to the audiobook duration
+     * @return Updated loan, or null if failed
+     */
+    public Loan updatePlaybackPosition(String token, int loanId, int positionSeconds) {
+        return OperationMetrics.time(OperationMetrics.FACADE, "playbackPosition",
+                () -> processUpdatePlaybackPosition(token, loanId, positionSeconds), Objects::nonNull);
+    }
+
+    /**
+     * Implementation of updatePlaybackPosition (timed by the public method)
+     */
+    private Loan processUpdatePlaybackPosition(String token, int loanId, int positionSeconds) {
+        User user = authManager.getUserByToken(token);
+        if (user == null) {
+            log.debug("❌ Invalid token");
+            return null;
+        }
+
+        Loan loan = libraryManager.getLoanById(loanId);
+        if (loan == null || loan.isReturned() || !loan.getUsername().equals(user.getUsername())) {
+            log.debug("❌ No active loan {} for {}", loanId, user.getUsername());
+            return null;
+        }
+
+        Book book = libraryManager.getBookById(loan.getBookId());
+        if (!(book instanceof AudioBook)) {
+            log.debug("❌ Loan {} is not an audiobook loan", loanId);
+            return null;
+        }
+
+        int duration = ((AudioBook) book).getDurationMinutes() * 60;
+        libraryManager.setPlaybackPosition(loan, Math.max(0, Math.min(positionSeconds, duration)));
+        return loan;
+    }
+
     /**
      * FACADE OPERATION: Search books with authentication
      *
@@ -205,16 +420,102 @@ public class LibraryFacade {
      * @return List of found books
      */
     public List<Book> searchBooks(String token, String searchTerm) {
-        System.out.println("🎭 Facade: Searching books: " + searchTerm);
+        return OperationMetrics.time(OperationMetrics.FACADE, "search",
+                () -> processSearchBooks(token, searchTerm), books -> isAuthenticated(token));
+    }
+
+    /**
+     * Implementation of searchBooks (timed by the public method)
+     */
+    private List<Book> processSearchBooks(String token, String searchTerm) {
+        log.debug("🎭 Facade: Searching books: {}", searchTerm);
 
         if (!authManager.isValidToken(token)) {
-            System.out.println("❌ Invalid token");
+            log.debug("❌ Invalid token");
             return List.of();
         }
 
         return libraryManager.searchBooksByTitle(searchTerm);
     }
 
+    /**
+     * FACADE OPERATION: Typo-tolerant search over titles and authors
+     *
+     * @param token Session token
+     * @param searchTerm Search term (may contain typos)
+     * @param limit Maximum number of matches
+     * @return Matches, closest first
+     */
+    public List<FuzzyMatch> fuzzySearchBooks(String token, String searchTerm, int limit) {
+        return OperationMetrics.time(OperationMetrics.FACADE, "fuzzySearch",
+                () -> processFuzzySearchBooks(token, searchTerm, limit), matches -> isAuthenticated(token));
+    }
+
+    /**
+     * Implementation of fuzzySearchBooks (timed by the public method)
+     */
+    private List<FuzzyMatch> processFuzzySearchBooks(String token, String searchTerm, int limit) {
+        log.debug("🎭 Facade: Fuzzy searching books: {}", searchTerm);
+
+        if (!authManager.isValidToken(token)) {
+            log.debug("❌ Invalid token");
+            return List.of();
+        }
+
+        return libraryManager.fuzzySearchBooks(searchTerm, limit);
+    }
+
+    /**
+     * FACADE OPERATION: As-you-type suggestions of titles and authors
+     *
+     * @param token Session token
+     * @param prefix Typed text
+     * @param limit Maximum number of suggestions
+     * @return Suggestions, most borrowed first
+     */
+    public List<Suggestion> suggest(String token, String prefix, int limit) {
+        return OperationMetrics.time(OperationMetrics.FACADE, "suggest",
+                () -> processSuggest(token, prefix, limit), suggestions -> isAuthenticated(token));
+    }
+
+    /**
+     * Implementation of suggest (timed by the public method)
+     */
+    private List<Suggestion> processSuggest(String token, String prefix, int limit) {
+        if (!authManager.isValidToken(token)) {
+            log.debug("❌ Invalid token");
+            return List.of();
+        }
+
+        return libraryManager.suggest(prefix, limit);
+    }
+
+    /**
+     * FACADE OPERATION: Composite book query with authentication
+     *
+     * @param token Session token
+     * @param query Criteria, sort and limit
+     * @return Query result, or null if the token is invalid
+     */
+    public QueryResult queryBooks(String token, BookQuery query) {
+        return OperationMetrics.time(OperationMetrics.FACADE, "query",
+                () -> processQueryBooks(token, query), Objects::nonNull);
+    }
+
+    /**
+     * Implementation of queryBooks (timed by the public method)
+     */
+    private QueryResult processQueryBooks(String token, BookQuery query) {
+        log.debug("🎭 Facade: Querying books: {}", query);
+
+        if (!authManager.isValidToken(token)) {
+            log.debug("❌ Invalid token");
+            return null;
+        }
+
+        return libraryManager.queryBooks(query);
+    }
+
     /**
      * FACADE OPERATION: Get user's loan history
      *
@@ -222,10 +523,18 @@ public class LibraryFacade {
      * @return List of user's loans
      */
     public List<Loan> getUserLoanHistory(String token) {
-        System.out.println("🎭 Facade: Getting loan history");
+        return OperationMetrics.time(OperationMetrics.FACADE, "loanHistory",
+                () -> processGetUserLoanHistory(token), loans -> isAuthenticated(token));
+    }
+
+    /**
+     * Implementation of getUserLoanHistory (timed by the public method)
+     */
+    private List<Loan> processGetUserLoanHistory(String token) {
+        log.debug("🎭 Facade: Getting loan history");
 
         if (!authManager.isValidToken(token)) {
-            System.out.println("❌ Invalid token");
+            log.debug("❌ Invalid token");
             return List.of();
         }
 
@@ -240,10 +549,18 @@ public class LibraryFacade {
      * @return List of all books
      */
     public List<Book> getCatalog(String token) {
-        System.out.println("🎭 Facade: Getting complete catalog");
+        return OperationMetrics.time(OperationMetrics.FACADE, "catalog",
+                () -> processGetCatalog(token), books -> isAuthenticated(token));
+    }
+
+    /**
+     * Implementation of getCatalog (timed by the public method)
+     */
+    private List<Book> processGetCatalog(String token) {
+        log.debug("🎭 Facade: Getting complete catalog");
 
         if (!authManager.isValidToken(token)) {
-            System.out.println("❌ Invalid token");
+            log.debug("❌ Invalid token");
             return List.of();
         }
 
@@ -266,7 +583,22 @@ public class LibraryFacade {
             return "❌ Access denied. Administrators only.";
         }
 
-        return libraryManager.getStatistics();
+        LoanSketches sketches = loanRollups.getSketches();
+        return libraryManager.getStatistics() + String.format(Locale.ROOT,
+            "\n   - Loan duration p50 / p90 / p99: %.1f / %.1f / %.1f days\n" +
+            "   - Distinct borrowers: %d",
+            sketches.getDurationQuantile(0.5), sketches.getDurationQuantile(0.9),
+            sketches.getDurationQuantile(0.99), sketches.getDistinctBorrowers()
+        );
+    }
+
+    /**
+     * Checks if the user of a session has no active-loan slot left
+     * (used to explain a failed borrow)
+     */
+    public boolean isAtLoanLimit(String token) {
+        User user = authManager.getUserByToken(token);
+        return user != null && loanLimiter.isAtLimit(user);
     }
 
     /**
@@ -1,5 +1,7 @@
 package com.biblioteca.patterns.factory;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * FACTORY METHOD PATTERN - Abstract base class Book
  *
@@ -18,9 +20,12 @@ public abstract class Book {
     protected String author;
     protected String isbn;
     protected String category;
-    protected boolean available;
     protected String bookType; // Digital, Audio, EBook
 
+    // Copies (or concurrent licenses for digital titles) and how many are not lent out
+    protected volatile int totalCopies;
+    protected final AtomicInteger availableCopies;
+
     /**
      * Base constructor
      */
@@ -30,8 +35,9 @@ public abstract class Book {
         this.author = author;
         this.isbn = isbn;
         this.category = category;
-        this.available = true;
         this.bookType = bookType;
+        this.totalCopies = 1;
+        this.availableCopies = new AtomicInteger(1);
     }
 
     /**
@@ -86,12 +92,71 @@ public abstract class Book {
         this.category = category;
     }
 
+    /**
+     * Whether at least one copy can be borrowed
+     */
     public boolean isAvailable() {
-        return available;
+        return availableCopies.get() > 0;
     }
 
+    /**
+     * Marks all copies as available or lent out (single-copy data without counts)
+     */
     public void setAvailable(boolean available) {
-        this.available = available;
+        availableCopies.set(available ? totalCopies : 0);
+    }
+
+    public int getTotalCopies() {
+        return totalCopies;
+    }
+
+    /**
+     * Changes the number of copies, adding or removing the difference from the available ones
+     */
+    public void setTotalCopies(int totalCopies) {
+        if (totalCopies < 0) {
+            throw new IllegalArgumentException("Total copies cannot be negative");
+        }
+        int added = totalCopies - this.totalCopies;
+        this.totalCopies = totalCopies;
+        availableCopies.addAndGet(added);
+    }
+
+    /**
+     * Copies not lent out
+     */
+    public int getAvailableCopies() {
+        return Math.max(0, availableCopies.get());
+    }
+
+    /**
+     * Sets the copies not lent out (e.g. when loading), clamped to [0, totalCopies]
+     */
+    public void setAvailableCopies(int availableCopies) {
+        this.availableCopies.set(Math.max(0, Math.min(availableCopies, totalCopies)));
+    }
+
+    /**
+     * Takes one copy if any is available
+     *
+     * Lock-free compare-and-set: the count only moves when a copy is
+     * actually taken, so a borrower finding no copy never hides one that
+     * is being returned at the same time.
+     *
+     * @return Copies left after taking one, or -1 if none was available
+     */
+    public int acquireCopy() {
+        int before = availableCopies.getAndUpdate(copies -> copies > 0 ? copies - 1 : copies);
+        return before > 0 ? before - 1 : -1;
+    }
+
+    /**
+     * Gives back a copy taken with acquireCopy()
+     *
+     * @return Copies available afterwards
+     */
+    public int releaseCopy() {
+        return availableCopies.incrementAndGet();
     }
 
     public String getBookType() {
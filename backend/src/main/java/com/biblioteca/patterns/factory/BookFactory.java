@@ -1,5 +1,8 @@
 package com.biblioteca.patterns.factory;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,6 +22,17 @@ import java.util.Map;
  */
 public class BookFactory {
 
+    private static final Logger log = LoggerFactory.getLogger(BookFactory.class);
+
+    // Defaults for parameters that were not given
+    public static final String DEFAULT_FILE_FORMAT = "PDF";
+    public static final double DEFAULT_FILE_SIZE_MB = 10.0;
+    public static final String DEFAULT_NARRATOR = "Unknown";
+    public static final int DEFAULT_DURATION_MINUTES = 300;
+    public static final String DEFAULT_AUDIO_FORMAT = "MP3";
+    public static final int DEFAULT_PAGE_COUNT = 200;
+    public static final String DEFAULT_PUBLISHER = "Unknown";
+
     /**
      * Main Factory Method
      * Creates a book based on the specified type
@@ -33,15 +47,74 @@ public class BookFactory {
             throw new IllegalArgumentException("Book type cannot be null or empty");
         }
 
+        Book book;
+        switch (bookType.toUpperCase()) {
+            case "DIGITAL":
+                book = createDigitalBook(params);
+                break;
+
+            case "AUDIO":
+                book = createAudioBook(params);
+                break;
+
+            case "EBOOK":
+                book = createEBook(params);
+                break;
+
+            default:
+                throw new IllegalArgumentException(
+                    "Invalid book type: " + bookType +
+                    ". Valid types: DIGITAL, AUDIO, EBOOK"
+                );
+        }
+
+        // Common parameter: number of copies (or licenses), 1 by default
+        if (params.containsKey("totalCopies")) {
+            int totalCopies = ((Number) params.get("totalCopies")).intValue();
+            if (totalCopies < 1) {
+                throw new IllegalArgumentException("totalCopies must be at least 1");
+            }
+            book.setTotalCopies(totalCopies);
+        }
+        return book;
+    }
+
+    /**
+     * Typed Factory Method
+     * Creates a book from a BookSpec, without a parameter map or a log line
+     * per book: the path for loading and importing whole catalogs
+     *
+     * @param spec Book fields (null type-specific fields take the defaults)
+     * @return Book instance of the corresponding type
+     * @throws IllegalArgumentException if the type is not valid or totalCopies is below 1
+     */
+    public static Book createBook(BookSpec spec) {
+        String bookType = spec.getBookType();
+        if (bookType == null || bookType.isEmpty()) {
+            throw new IllegalArgumentException("Book type cannot be null or empty");
+        }
+
+        Book book;
         switch (bookType.toUpperCase()) {
             case "DIGITAL":
-                return createDigitalBook(params);
+                book = new DigitalBook(spec.getTitle(), spec.getAuthor(), spec.getIsbn(), spec.getCategory(),
+                    spec.getFileFormat() != null ? spec.getFileFormat() : DEFAULT_FILE_FORMAT,
+                    spec.getFileSizeMB() != null ? spec.getFileSizeMB() : DEFAULT_FILE_SIZE_MB);
+                break;
 
             case "AUDIO":
-                return createAudioBook(params);
+                book = new AudioBook(spec.getTitle(), spec.getAuthor(), spec.getIsbn(), spec.getCategory(),
+                    spec.getNarrator() != null ? spec.getNarrator() : DEFAULT_NARRATOR,
+                    spec.getDurationMinutes() != null ? spec.getDurationMinutes() : DEFAULT_DURATION_MINUTES,
+                    spec.getAudioFormat() != null ? spec.getAudioFormat() : DEFAULT_AUDIO_FORMAT);
+                break;
 
             case "EBOOK":
-                return createEBook(params);
+                book = new EBook(spec.getTitle(), spec.getAuthor(), spec.getIsbn(), spec.getCategory(),
+                    spec.getHasInteractiveContent() != null && spec.getHasInteractiveContent(),
+                    spec.getPageCount() != null ? spec.getPageCount() : DEFAULT_PAGE_COUNT,
+                    spec.getPublisher() != null ? spec.getPublisher() : DEFAULT_PUBLISHER);
+                break;
 
             default:
                 throw new IllegalArgumentException(
@@ -49,6 +122,14 @@ public class BookFactory {
                     ". Valid types: DIGITAL, AUDIO, EBOOK"
                 );
         }
+
+        if (spec.getTotalCopies() != null) {
+            if (spec.getTotalCopies() < 1) {
+                throw new IllegalArgumentException("totalCopies must be at least 1");
+            }
+            book.setTotalCopies(spec.getTotalCopies());
+        }
+        return book;
     }
 
     /**
@@ -59,12 +140,12 @@ public class BookFactory {
         String author = (String) params.get("author");
         String isbn = (String) params.get("isbn");
         String category = (String) params.get("category");
-        String fileFormat = (String) params.getOrDefault("fileFormat", "PDF");
+        String fileFormat = (String) params.getOrDefault("fileFormat", DEFAULT_FILE_FORMAT);
         double fileSizeMB = params.containsKey("fileSizeMB")
             ? ((Number) params.get("fileSizeMB")).doubleValue()
-            : 10.0;
+            : DEFAULT_FILE_SIZE_MB;
 
-        System.out.println("🏭 Factory: Creating DigitalBook - " + title);
+        log.debug("🏭 Factory: Creating DigitalBook - {}", title);
         return new DigitalBook(title, author, isbn, category, fileFormat, fileSizeMB);
     }
 
@@ -76,13 +157,13 @@ public class BookFactory {
         String author = (String) params.get("author");
         String isbn = (String) params.get("isbn");
         String category = (String) params.get("category");
-        String narrator = (String) params.getOrDefault("narrator", "Unknown");
+        String narrator = (String) params.getOrDefault("narrator", DEFAULT_NARRATOR);
         int durationMinutes = params.containsKey("durationMinutes")
             ? ((Number) params.get("durationMinutes")).intValue()
-            : 300;
-        String audioFormat = (String) params.getOrDefault("audioFormat", "MP3");
+            : DEFAULT_DURATION_MINUTES;
+        String audioFormat = (String) params.getOrDefault("audioFormat", DEFAULT_AUDIO_FORMAT);
 
-        System.out.println("🏭 Factory: Creating AudioBook - " + title);
+        log.debug("🏭 Factory: Creating AudioBook - {}", title);
         return new AudioBook(title, author, isbn, category, narrator, durationMinutes, audioFormat);
     }
 
@@ -99,10 +180,10 @@ public class BookFactory {
             : false;
         int pageCount = params.containsKey("pageCount")
             ? ((Number) params.get("pageCount")).intValue()
-            : 200;
-        String publisher = (String) params.getOrDefault("publisher", "Unknown");
+            : DEFAULT_PAGE_COUNT;
+        String publisher = (String) params.getOrDefault("publisher", DEFAULT_PUBLISHER);
 
-        System.out.println("🏭 Factory: Creating EBook - " + title);
+        log.debug("🏭 Factory: Creating EBook - {}", title);
         return new EBook(title, author, isbn, category, hasInteractiveContent, pageCount, publisher);
     }
 
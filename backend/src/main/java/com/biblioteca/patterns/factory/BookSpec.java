@@ -0,0 +1,146 @@
+package com.biblioteca.patterns.factory;
+
+/**
+ * FACTORY METHOD PATTERN - Typed parameters for BookFactory
+ *
+ * The fields a book is created from, under the same names as the
+ * Map<String, Object> parameters (and the export columns), so a JSON
+ * object or a CSV header maps onto it directly. Type-specific fields are
+ * boxed: null means "use the factory default"; fields of the other types
+ * are ignored.
+ */
+public class BookSpec {
+
+    private String title;
+    private String author;
+    private String isbn;
+    private String category;
+    private String bookType;
+    private Integer totalCopies;
+
+    // DIGITAL
+    private String fileFormat;
+    private Double fileSizeMB;
+
+    // AUDIO
+    private String narrator;
+    private Integer durationMinutes;
+    private String audioFormat;
+
+    // EBOOK
+    private Boolean hasInteractiveContent;
+    private Integer pageCount;
+    private String publisher;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getBookType() {
+        return bookType;
+    }
+
+    public void setBookType(String bookType) {
+        this.bookType = bookType;
+    }
+
+    public Integer getTotalCopies() {
+        return totalCopies;
+    }
+
+    public void setTotalCopies(Integer totalCopies) {
+        this.totalCopies = totalCopies;
+    }
+
+    public String getFileFormat() {
+        return fileFormat;
+    }
+
+    public void setFileFormat(String fileFormat) {
+        this.fileFormat = fileFormat;
+    }
+
+    public Double getFileSizeMB() {
+        return fileSizeMB;
+    }
+
+    public void setFileSizeMB(Double fileSizeMB) {
+        this.fileSizeMB = fileSizeMB;
+    }
+
+    public String getNarrator() {
+        return narrator;
+    }
+
+    public void setNarrator(String narrator) {
+        this.narrator = narrator;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public String getAudioFormat() {
+        return audioFormat;
+    }
+
+    public void setAudioFormat(String audioFormat) {
+        this.audioFormat = audioFormat;
+    }
+
+    public Boolean getHasInteractiveContent() {
+        return hasInteractiveContent;
+    }
+
+    public void setHasInteractiveContent(Boolean hasInteractiveContent) {
+        this.hasInteractiveContent = hasInteractiveContent;
+    }
+
+    public Integer getPageCount() {
+        return pageCount;
+    }
+
+    public void setPageCount(Integer pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    public String getPublisher() {
+        return publisher;
+    }
+
+    public void setPublisher(String publisher) {
+        this.publisher = publisher;
+    }
+}
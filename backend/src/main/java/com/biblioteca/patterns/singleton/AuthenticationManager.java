@@ -1,9 +1,12 @@
 package com.biblioteca.patterns.singleton;
 
 import com.biblioteca.models.User;
-import java.util.HashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * SINGLETON PATTERN - AuthenticationManager
@@ -15,7 +18,7 @@ import java.util.UUID;
  * - Private constructor
  * - Unique static instance
  * - Global access through getInstance()
- * - Thread-safe (synchronized)
+ * - Thread-safe (holder idiom, concurrent session map)
  *
  * Responsibilities:
  * - Manage user sessions
@@ -24,36 +27,40 @@ import java.util.UUID;
  */
 public class AuthenticationManager {
 
-    // Unique Singleton instance
-    private static AuthenticationManager instance;
+    private static final Logger log = LoggerFactory.getLogger(AuthenticationManager.class);
 
     // Active sessions storage: token -> user
     private Map<String, User> activeSessions;
 
     // Currently authenticated user
-    private User currentUser;
+    private volatile User currentUser;
 
     /**
      * Private constructor - Prevents external instantiation
      * Key characteristic of the Singleton pattern
      */
     private AuthenticationManager() {
-        this.activeSessions = new HashMap<>();
+        this.activeSessions = new ConcurrentHashMap<>();
         this.currentUser = null;
-        System.out.println("🔐 AuthenticationManager (Singleton) initialized");
+        log.info("🔐 AuthenticationManager (Singleton) initialized");
     }
 
     /**
      * Static method to get the unique instance
-     * Thread-safe implementation with synchronization
+     * Thread-safe lazy initialization (holder idiom) without locking
      *
      * @return The unique instance of AuthenticationManager
      */
-    public static synchronized AuthenticationManager getInstance() {
-        if (instance == null) {
-            instance = new AuthenticationManager();
-        }
-        return instance;
+    public static AuthenticationManager getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Holder of the unique instance
+     * The JVM initializes it lazily and thread-safely on first access
+     */
+    private static class Holder {
+        private static final AuthenticationManager INSTANCE = new AuthenticationManager();
     }
 
     /**
@@ -66,7 +73,7 @@ public class AuthenticationManager {
         String token = UUID.randomUUID().toString();
         activeSessions.put(token, user);
         currentUser = user;
-        System.out.println("✅ User authenticated: " + user.getUsername() + " (Role: " + user.getRole() + ")");
+        log.debug("✅ User authenticated: {} (Role: {})", user.getUsername(), user.getRole());
         return token;
     }
 
@@ -77,13 +84,12 @@ public class AuthenticationManager {
      * @return true if closed successfully
      */
     public boolean logout(String token) {
-        if (activeSessions.containsKey(token)) {
-            User user = activeSessions.get(token);
-            activeSessions.remove(token);
+        User user = token != null ? activeSessions.remove(token) : null;
+        if (user != null) {
             if (currentUser != null && currentUser.equals(user)) {
                 currentUser = null;
             }
-            System.out.println("👋 Session closed: " + user.getUsername());
+            log.debug("👋 Session closed: {}", user.getUsername());
             return true;
         }
         return false;
@@ -96,7 +102,7 @@ public class AuthenticationManager {
      * @return true if the token is valid
      */
     public boolean isValidToken(String token) {
-        return activeSessions.containsKey(token);
+        return token != null && activeSessions.containsKey(token);
     }
 
     /**
@@ -106,7 +112,7 @@ public class AuthenticationManager {
      * @return Associated user or null
      */
     public User getUserByToken(String token) {
-        return activeSessions.get(token);
+        return token != null ? activeSessions.get(token) : null;
     }
 
     /**
@@ -133,6 +139,6 @@ public class AuthenticationManager {
     public void clearAllSessions() {
         activeSessions.clear();
         currentUser = null;
-        System.out.println("🧹 All sessions have been closed");
+        log.info("🧹 All sessions have been closed");
     }
 }
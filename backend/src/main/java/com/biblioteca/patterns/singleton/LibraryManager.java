@@ -1,9 +1,34 @@
 package com.biblioteca.patterns.singleton;
 
+import com.biblioteca.analytics.CoBorrowIndex;
+import com.biblioteca.catalog.Isbn;
+import com.biblioteca.circulation.LoanDateIndex;
 import com.biblioteca.patterns.factory.Book;
 import com.biblioteca.models.Loan;
+import com.biblioteca.monitoring.events.SearchEvent;
+import com.biblioteca.search.BookQuery;
+import com.biblioteca.search.FacetIndex;
+import com.biblioteca.search.QueryPlanner;
+import com.biblioteca.search.QueryPlanner.QueryResult;
+import com.biblioteca.search.SearchKeys;
+import com.biblioteca.search.SuggestionTrie;
+import com.biblioteca.search.SuggestionTrie.Suggestion;
+import com.biblioteca.search.TrigramIndex;
+import com.biblioteca.search.TrigramIndex.FuzzyMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -15,7 +40,7 @@ import java.util.stream.Collectors;
  * Characteristics:
  * - Private constructor
  * - Unique static instance
- * - Thread-safe
+ * - Thread-safe (holder idiom, copy-on-write lists, atomic ID counters)
  *
  * Responsibilities:
  * - Manage book catalog
@@ -24,42 +49,90 @@ import java.util.stream.Collectors;
  */
 public class LibraryManager {
 
-    // Unique Singleton instance
-    private static LibraryManager instance;
+    private static final Logger log = LoggerFactory.getLogger(LibraryManager.class);
 
-    // Book catalog
+    // Book catalog (copy-on-write: reads never lock, iteration sees a snapshot)
     private List<Book> books;
 
     // Loan registry
     private List<Loan> loans;
 
+    // ID indexes for constant-time lookups
+    private Map<Integer, Book> booksById;
+    private Map<Integer, Loan> loansById;
+
+    // Active (not returned) loans: username -> book ID -> number of loans
+    private Map<String, Map<Integer, Integer>> activeLoans;
+
+    // Books by normalized ISBN (the first book added wins if an ISBN repeats)
+    private Map<String, Book> booksByIsbn;
+
+    // Folded (accent- and case-insensitive) title/author/category per book ID
+    private Map<Integer, SearchKeys> searchKeys;
+
+    // Facet bitmaps (category, type, availability) over book ordinals
+    private FacetIndex facetIndex;
+
+    // Trigrams of folded titles and authors for typo-tolerant search
+    private TrigramIndex trigramIndex;
+
+    // Prefix completions of titles and authors, ranked by loans
+    private SuggestionTrie suggestionTrie;
+
+    // Loans ordered by loan date and by return date, for time-range queries
+    private LoanDateIndex loansByDate;
+    private LoanDateIndex returnsByDate;
+
     // Counter for auto-incremental IDs
-    private int nextBookId;
-    private int nextLoanId;
+    private AtomicInteger nextBookId;
+    private AtomicInteger nextLoanId;
+
+    // Incremented on every book or loan write, to invalidate derived results
+    private AtomicLong writeVersion;
+
+    // Incremented on every playback position change (not a write: no derived result depends on it)
+    private AtomicLong positionVersion;
 
     /**
      * Private constructor - Prevents external instantiation
      * Key characteristic of the Singleton pattern
      */
     private LibraryManager() {
-        this.books = new ArrayList<>();
-        this.loans = new ArrayList<>();
-        this.nextBookId = 1;
-        this.nextLoanId = 1;
-        System.out.println("📚 LibraryManager (Singleton) initialized");
+        this.books = new CopyOnWriteArrayList<>();
+        this.loans = new CopyOnWriteArrayList<>();
+        this.booksById = new ConcurrentHashMap<>();
+        this.loansById = new ConcurrentHashMap<>();
+        this.activeLoans = new ConcurrentHashMap<>();
+        this.booksByIsbn = new ConcurrentHashMap<>();
+        this.searchKeys = new ConcurrentHashMap<>();
+        this.facetIndex = new FacetIndex();
+        this.trigramIndex = new TrigramIndex();
+        this.suggestionTrie = new SuggestionTrie();
+        this.loansByDate = new LoanDateIndex();
+        this.returnsByDate = new LoanDateIndex();
+        this.nextBookId = new AtomicInteger(1);
+        this.nextLoanId = new AtomicInteger(1);
+        this.writeVersion = new AtomicLong();
+        this.positionVersion = new AtomicLong();
+        log.info("📚 LibraryManager (Singleton) initialized");
     }
 
     /**
      * Static method to get the unique instance
-     * Thread-safe implementation with synchronization
+     * Thread-safe lazy initialization (holder idiom) without locking
      *
      * @return The unique instance of LibraryManager
      */
-    public static synchronized LibraryManager getInstance() {
-        if (instance == null) {
-            instance = new LibraryManager();
-        }
-        return instance;
+    public static LibraryManager getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Holder of the unique instance
+     * The JVM initializes it lazily and thread-safely on first access
+     */
+    private static class Holder {
+        private static final LibraryManager INSTANCE = new LibraryManager();
     }
 
     /**
@@ -68,16 +141,60 @@ public class LibraryManager {
      * @param book Book to add
      */
     public void addBook(Book book) {
+        assignId(book);
+        books.add(book);
+        index(book);
+        writeVersion.incrementAndGet();
+        log.debug("➕ Book added: {} (ID: {})", book.getTitle(), book.getId());
+    }
+
+    /**
+     * Adds many books to the catalog at once (loading, bulk imports)
+     * The copy-on-write list is copied once for the whole batch instead of
+     * once per book, and the write version moves once.
+     *
+     * @param batch Books to add, in catalog order
+     */
+    public void addBooks(Collection<Book> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (Book book : batch) {
+            assignId(book);
+        }
+        books.addAll(batch);
+        for (Book book : batch) {
+            index(book);
+        }
+        writeVersion.incrementAndGet();
+        log.debug("➕ {} books added", batch.size());
+    }
+
+    /**
+     * Gives a new book the next ID, or moves the counter past the ID it has
+     */
+    private void assignId(Book book) {
         if (book.getId() == 0) {
-            book.setId(nextBookId++);
+            book.setId(nextBookId.getAndIncrement());
         } else {
             // If book already has ID, update the counter
-            if (book.getId() >= nextBookId) {
-                nextBookId = book.getId() + 1;
-            }
+            nextBookId.accumulateAndGet(book.getId() + 1, Math::max);
         }
-        books.add(book);
-        System.out.println("➕ Book added: " + book.getTitle() + " (ID: " + book.getId() + ")");
+    }
+
+    /**
+     * Adds a book to the lookup and search indexes
+     */
+    private void index(Book book) {
+        booksById.put(book.getId(), book);
+        if (book.getIsbn() != null) {
+            booksByIsbn.putIfAbsent(Isbn.normalize(book.getIsbn()), book);
+        }
+        SearchKeys keys = new SearchKeys(book);
+        searchKeys.put(book.getId(), keys);
+        facetIndex.add(book, keys);
+        trigramIndex.add(book, keys);
+        suggestionTrie.add(book, keys);
     }
 
     /**
@@ -89,6 +206,146 @@ public class LibraryManager {
         return new ArrayList<>(books);
     }
 
+    /**
+     * Spliterator over a snapshot of the catalog, without copying it
+     * (see loanSnapshot())
+     *
+     * @return Spliterator over the books in the catalog when called
+     */
+    public Spliterator<Book> bookSnapshot() {
+        return books.spliterator();
+    }
+
+    /**
+     * Takes a copy of a book for a loan, keeping the facet index in sync
+     *
+     * The availability bitmap only changes when the last copy goes (a
+     * failed attempt leaves the count untouched), so busy multi-copy titles
+     * never take the index write lock.
+     *
+     * @param book Book to borrow
+     * @return true if a copy was available
+     */
+    public boolean acquireCopy(Book book) {
+        int left = book.acquireCopy();
+        if (left == 0) {
+            facetIndex.updateAvailability(book);
+        }
+        return left >= 0;
+    }
+
+    /**
+     * Gives back a copy of a returned book, keeping the facet index in sync
+     *
+     * @param book Returned book
+     */
+    public void releaseCopy(Book book) {
+        if (book.releaseCopy() <= 1) {
+            facetIndex.updateAvailability(book);
+        }
+    }
+
+    /**
+     * Changes the number of copies (or licenses) of a book
+     *
+     * Admin path only; borrow and return never take the book's monitor.
+     *
+     * @param book Book to update
+     * @param totalCopies New number of copies
+     * @return false if fewer copies than are currently lent out were requested
+     */
+    public boolean setTotalCopies(Book book, int totalCopies) {
+        synchronized (book) {
+            int lent = book.getTotalCopies() - book.getAvailableCopies();
+            if (totalCopies < Math.max(1, lent)) {
+                return false;
+            }
+            book.setTotalCopies(totalCopies);
+        }
+        facetIndex.updateAvailability(book);
+        return true;
+    }
+
+    /**
+     * Changes the title, author and category of a book, re-indexing it
+     *
+     * Admin path only (imports); the old search keys are removed from the
+     * facet, trigram and suggestion indexes and the new ones added.
+     *
+     * @param book Book to update
+     * @param title New title
+     * @param author New author
+     * @param category New category
+     */
+    public void updateMetadata(Book book, String title, String author, String category) {
+        SearchKeys old = getSearchKeys(book);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setCategory(category);
+        SearchKeys keys = new SearchKeys(book);
+        searchKeys.put(book.getId(), keys);
+        facetIndex.update(book, old, keys);
+        trigramIndex.update(book, old, keys);
+        suggestionTrie.update(book, keys);
+        writeVersion.incrementAndGet();
+        log.debug("✏️ Book updated: {} (ID: {})", book.getTitle(), book.getId());
+    }
+
+    /**
+     * Recomputes available copies from the active loans (after loading)
+     *
+     * @param setAside bookId -> copies set aside for READY holds (not on the shelf either)
+     * @return Number of books whose stored count was corrected
+     */
+    public int reconcileCopies(Map<Integer, Integer> setAside) {
+        Map<Integer, Integer> active = new HashMap<>(setAside);
+        for (Loan loan : loans) {
+            if (!loan.isReturned()) {
+                active.merge(loan.getBookId(), 1, Integer::sum);
+            }
+        }
+        int corrected = 0;
+        for (Book book : books) {
+            int available = Math.max(0, book.getTotalCopies() - active.getOrDefault(book.getId(), 0));
+            if (book.getAvailableCopies() != available) {
+                book.setAvailableCopies(available);
+                facetIndex.updateAvailability(book);
+                corrected++;
+            }
+        }
+        if (corrected > 0) {
+            log.info("📚 Corrected available copies of {} books from active loans and holds", corrected);
+        }
+        return corrected;
+    }
+
+    /**
+     * Counts a set of books per category, book type and availability
+     *
+     * @param selection Books to count (e.g. a search result)
+     * @return facet -> value -> number of books
+     */
+    public Map<String, Map<String, Integer>> getFacetCounts(Collection<Book> selection) {
+        return facetIndex.counts(facetIndex.bitmapOf(selection));
+    }
+
+    /**
+     * Runs a composite query, planned over the facet index
+     *
+     * @param query Criteria, sort and limit
+     * @return Matching books with the executed plan
+     */
+    public QueryResult queryBooks(BookQuery query) {
+        return new QueryPlanner(facetIndex, this::getSearchKeys).execute(query);
+    }
+
+    /**
+     * Gets the facet index (for query planning)
+     */
+    public FacetIndex getFacetIndex() {
+        return facetIndex;
+    }
+
     /**
      * Searches for a book by ID
      *
@@ -96,34 +353,100 @@ public class LibraryManager {
      * @return Found book or null
      */
     public Book getBookById(int id) {
-        return books.stream()
-                .filter(book -> book.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return booksById.get(id);
+    }
+
+    /**
+     * Searches for a book by ISBN (hyphens, spaces and case are ignored)
+     *
+     * @param isbn ISBN-10 or ISBN-13
+     * @return Found book or null
+     */
+    public Book getBookByIsbn(String isbn) {
+        return isbn != null ? booksByIsbn.get(Isbn.normalize(isbn)) : null;
+    }
+
+    /**
+     * Gets the folded search keys of a book, computed when it was added
+     */
+    public SearchKeys getSearchKeys(Book book) {
+        SearchKeys keys = searchKeys.get(book.getId());
+        return keys != null ? keys : new SearchKeys(book);
     }
 
     /**
-     * Searches books by title (partial search)
+     * Searches books by title (partial search, accent- and case-insensitive)
      *
      * @param title Title to search
      * @return List of matching books
      */
     public List<Book> searchBooksByTitle(String title) {
-        return books.stream()
-                .filter(book -> book.getTitle().toLowerCase().contains(title.toLowerCase()))
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        String term = SearchKeys.fold(title);
+        List<Book> result = books.stream()
+                .filter(book -> getSearchKeys(book).getTitle().contains(term))
                 .collect(Collectors.toList());
+        commitSearch(event, "title", title, books.size(), result.size());
+        return result;
     }
 
     /**
-     * Searches books by category
+     * Searches books whose title or author approximately contains a term
+     * (typo-tolerant, accent- and case-insensitive)
+     *
+     * @param term Term to search
+     * @param limit Maximum number of matches
+     * @return Matches, closest first
+     */
+    public List<FuzzyMatch> fuzzySearchBooks(String term, int limit) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        List<FuzzyMatch> result = trigramIndex.search(term, limit);
+        commitSearch(event, "fuzzy", term, books.size(), result.size());
+        return result;
+    }
+
+    /**
+     * Suggests titles and authors starting with a prefix, most borrowed first
+     *
+     * @param prefix Typed text (accent- and case-insensitive)
+     * @param limit Maximum number of suggestions
+     * @return Suggestions, most borrowed first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return suggestionTrie.suggest(prefix, limit);
+    }
+
+    /**
+     * Searches books by category (accent- and case-insensitive)
      *
      * @param category Category to search
      * @return List of books in that category
      */
     public List<Book> getBooksByCategory(String category) {
-        return books.stream()
-                .filter(book -> book.getCategory().equalsIgnoreCase(category))
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        String term = SearchKeys.fold(category);
+        List<Book> result = books.stream()
+                .filter(book -> getSearchKeys(book).getCategory().equals(term))
                 .collect(Collectors.toList());
+        commitSearch(event, "category", category, books.size(), result.size());
+        return result;
+    }
+
+    /**
+     * Commits the JFR search event if it is enabled and over its threshold
+     */
+    private void commitSearch(SearchEvent event, String criterion, String term, int scanned, int recordCount) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.criterion = criterion;
+            event.term = term;
+            event.scanned = scanned;
+            event.recordCount = recordCount;
+            event.commit();
+        }
     }
 
     /**
@@ -132,15 +455,122 @@ public class LibraryManager {
      * @param loan Loan to add
      */
     public void addLoan(Loan loan) {
+        assignId(loan);
+        loans.add(loan);
+        index(loan);
+        writeVersion.incrementAndGet();
+        log.debug("📖 Loan registered: ID {}", loan.getId());
+    }
+
+    /**
+     * Adds many loans to the registry at once (loading the loan history)
+     * The copy-on-write list is copied once for the whole batch instead of
+     * once per loan, and the write version moves once.
+     *
+     * @param batch Loans to add, in registry order
+     */
+    public void addLoans(Collection<Loan> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (Loan loan : batch) {
+            assignId(loan);
+        }
+        loans.addAll(batch);
+        for (Loan loan : batch) {
+            index(loan);
+        }
+        writeVersion.incrementAndGet();
+        log.debug("📖 {} loans registered", batch.size());
+    }
+
+    /**
+     * Gives a new loan the next ID, or moves the counter past the ID it has
+     */
+    private void assignId(Loan loan) {
         if (loan.getId() == 0) {
-            loan.setId(nextLoanId++);
+            loan.setId(nextLoanId.getAndIncrement());
         } else {
-            if (loan.getId() >= nextLoanId) {
-                nextLoanId = loan.getId() + 1;
-            }
+            nextLoanId.accumulateAndGet(loan.getId() + 1, Math::max);
         }
-        loans.add(loan);
-        System.out.println("📖 Loan registered: ID " + loan.getId());
+    }
+
+    /**
+     * Adds a loan to the lookup, date, active-loan and borrow indexes
+     */
+    private void index(Loan loan) {
+        loansById.put(loan.getId(), loan);
+        loansByDate.add(loan.getLoanDate(), loan);
+        if (loan.isReturned()) {
+            returnsByDate.add(loan.getReturnDate(), loan);
+        } else {
+            activeLoans.compute(loan.getUsername(), (username, books) -> {
+                Map<Integer, Integer> active = books != null ? books : new ConcurrentHashMap<>();
+                active.merge(loan.getBookId(), 1, Integer::sum);
+                return active;
+            });
+        }
+        CoBorrowIndex.getInstance().recordLoan(loan);
+        suggestionTrie.recordBorrow(loan.getBookId());
+    }
+
+    /**
+     * Indexes the return date of a loan that was just returned, and drops
+     * it from the active loans of its borrower
+     *
+     * @param loan Returned loan
+     */
+    public void recordReturn(Loan loan) {
+        returnsByDate.add(loan.getReturnDate(), loan);
+        activeLoans.computeIfPresent(loan.getUsername(), (username, books) -> {
+            books.computeIfPresent(loan.getBookId(), (bookId, count) -> count > 1 ? count - 1 : null);
+            return books.isEmpty() ? null : books;
+        });
+        writeVersion.incrementAndGet();
+    }
+
+    /**
+     * Moves the playback position of an audiobook loan
+     * Positions are kept in memory and saved in batches (see LibraryInitializer).
+     *
+     * @param loan Loan to update
+     * @param positionSeconds New position
+     */
+    public void setPlaybackPosition(Loan loan, int positionSeconds) {
+        loan.setPlaybackPositionSeconds(positionSeconds);
+        positionVersion.incrementAndGet();
+    }
+
+    /**
+     * Version of the playback positions, incremented on every change
+     *
+     * @return Current position version
+     */
+    public long getPositionVersion() {
+        return positionVersion.get();
+    }
+
+    /**
+     * Gets the loans made within a date range, in loan date order
+     * Only the days of the range are visited (see LoanDateIndex).
+     *
+     * @param from First day (inclusive), or null for no lower bound
+     * @param to Last day (inclusive), or null for no upper bound
+     * @return Loans of the range
+     */
+    public List<Loan> getLoansBetween(LocalDate from, LocalDate to) {
+        return loansByDate.range(from, to).collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the loans returned within a date range, in return date order
+     *
+     * @param from First day (inclusive), or null for no lower bound
+     * @param to Last day (inclusive), or null for no upper bound
+     * @return Returned loans of the range
+     */
+    public List<Loan> getReturnsBetween(LocalDate from, LocalDate to) {
+        return returnsByDate.range(from, to).collect(Collectors.toList());
     }
 
     /**
@@ -152,6 +582,28 @@ public class LibraryManager {
         return new ArrayList<>(loans);
     }
 
+    /**
+     * Spliterator over a snapshot of the loan registry, without copying it
+     * The copy-on-write array is immutable, so the spliterator is exactly
+     * sized and splits in balanced halves for parallel passes.
+     *
+     * @return Spliterator over the loans registered when called
+     */
+    public Spliterator<Loan> loanSnapshot() {
+        return loans.spliterator();
+    }
+
+    /**
+     * Version of the book and loan stores, incremented on every write
+     * (book or loan added, loan returned). Results derived from the stores
+     * are current while the version is unchanged.
+     *
+     * @return Current write version
+     */
+    public long getWriteVersion() {
+        return writeVersion.get();
+    }
+
     /**
      * Gets loans for a specific user
      *
@@ -164,6 +616,19 @@ public class LibraryManager {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Checks if a user holds an active (not returned) loan for a book
+     * Answered from the active-loan index, without scanning the registry.
+     *
+     * @param username Username
+     * @param bookId Book ID
+     * @return true if the user currently has the book on loan
+     */
+    public boolean hasActiveLoan(String username, int bookId) {
+        Map<Integer, Integer> books = activeLoans.get(username);
+        return books != null && books.containsKey(bookId);
+    }
+
     /**
      * Searches for a loan by ID
      *
@@ -171,10 +636,7 @@ public class LibraryManager {
      * @return Found loan or null
      */
     public Loan getLoanById(int id) {
-        return loans.stream()
-                .filter(loan -> loan.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return loansById.get(id);
     }
 
     /**
@@ -199,8 +661,19 @@ public class LibraryManager {
     public void reset() {
         books.clear();
         loans.clear();
-        nextBookId = 1;
-        nextLoanId = 1;
-        System.out.println("🔄 LibraryManager reset");
+        booksById.clear();
+        loansById.clear();
+        activeLoans.clear();
+        booksByIsbn.clear();
+        searchKeys.clear();
+        facetIndex.clear();
+        trigramIndex.clear();
+        suggestionTrie.clear();
+        loansByDate.clear();
+        returnsByDate.clear();
+        nextBookId.set(1);
+        nextLoanId.set(1);
+        writeVersion.incrementAndGet();
+        log.info("🔄 LibraryManager reset");
     }
 }
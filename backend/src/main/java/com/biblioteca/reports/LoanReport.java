@@ -0,0 +1,50 @@
+package com.biblioteca.reports;
+
+import com.biblioteca.models.Loan;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LoanReport
+ * An aggregation over the loan history that ReportEngine runs in parallel
+ *
+ * The history is split into slices; each slice is folded into its own
+ * partial result with accumulate(), partial results are combined pairwise,
+ * and finish() turns the total into report rows. A partial result is only
+ * touched by one task at a time, so it needs no synchronization.
+ *
+ * @param <P> Partial result type
+ */
+public interface LoanReport<P> {
+
+    /**
+     * Report name, as used in /api/reports/{name}
+     */
+    String getName();
+
+    /**
+     * One-line description of the report
+     */
+    String getDescription();
+
+    /**
+     * Empty partial result
+     */
+    P newPartial();
+
+    /**
+     * Fold a loan into a partial result
+     */
+    void accumulate(P partial, Loan loan, ReportContext context);
+
+    /**
+     * Combine two partial results (either may be reused as the result)
+     */
+    P combine(P left, P right, ReportContext context);
+
+    /**
+     * Report rows from the combined result
+     */
+    List<Map<String, Object>> finish(P total, ReportContext context);
+}
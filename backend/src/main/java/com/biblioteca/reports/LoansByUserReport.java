@@ -0,0 +1,75 @@
+package com.biblioteca.reports;
+
+import com.biblioteca.models.Loan;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LoansByUserReport
+ * Loan counts per user, most loans first
+ */
+public class LoansByUserReport implements LoanReport<Map<String, long[]>> {
+
+    // Counts per user: {loans, active, overdue}
+    private static final int LOANS = 0;
+    private static final int ACTIVE = 1;
+    private static final int OVERDUE = 2;
+
+    @Override
+    public String getName() {
+        return "loans-by-user";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Total, active and overdue loans per user";
+    }
+
+    @Override
+    public Map<String, long[]> newPartial() {
+        return new HashMap<>();
+    }
+
+    @Override
+    public void accumulate(Map<String, long[]> partial, Loan loan, ReportContext context) {
+        long[] counts = partial.computeIfAbsent(loan.getUsername(), u -> new long[3]);
+        counts[LOANS]++;
+        if (!loan.isReturned()) {
+            counts[ACTIVE]++;
+            if (loan.getDueDate() != null && context.getToday().isAfter(loan.getDueDate())) {
+                counts[OVERDUE]++;
+            }
+        }
+    }
+
+    @Override
+    public Map<String, long[]> combine(Map<String, long[]> left, Map<String, long[]> right, ReportContext context) {
+        right.forEach((username, counts) -> {
+            long[] target = left.computeIfAbsent(username, u -> new long[3]);
+            for (int i = 0; i < target.length; i++) {
+                target[i] += counts[i];
+            }
+        });
+        return left;
+    }
+
+    @Override
+    public List<Map<String, Object>> finish(Map<String, long[]> total, ReportContext context) {
+        List<Map.Entry<String, long[]>> users = new ArrayList<>(total.entrySet());
+        users.sort((a, b) -> Long.compare(b.getValue()[LOANS], a.getValue()[LOANS]));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<String, long[]> user : users.subList(0, Math.min(users.size(), context.getLimit()))) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("username", user.getKey());
+            row.put("loans", user.getValue()[LOANS]);
+            row.put("active", user.getValue()[ACTIVE]);
+            row.put("overdue", user.getValue()[OVERDUE]);
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,90 @@
+package com.biblioteca.reports;
+
+import com.biblioteca.models.Loan;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * LongestOutstandingReport
+ * Active loans that have been out the longest
+ *
+ * Each slice keeps only its `limit` oldest active loans in a heap whose
+ * head is the newest of them, so memory is O(limit) per slice whatever
+ * the history size.
+ */
+public class LongestOutstandingReport implements LoanReport<PriorityQueue<Loan>> {
+
+    // Oldest loan first (ties by ID)
+    private static final Comparator<Loan> OLDEST_FIRST =
+            Comparator.comparing(Loan::getLoanDate).thenComparingInt(Loan::getId);
+
+    @Override
+    public String getName() {
+        return "longest-outstanding";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Active loans out the longest, with days outstanding and overdue";
+    }
+
+    @Override
+    public PriorityQueue<Loan> newPartial() {
+        return new PriorityQueue<>(OLDEST_FIRST.reversed());
+    }
+
+    @Override
+    public void accumulate(PriorityQueue<Loan> partial, Loan loan, ReportContext context) {
+        if (loan.isReturned() || loan.getLoanDate() == null) {
+            return;
+        }
+        keep(partial, loan, context.getLimit());
+    }
+
+    @Override
+    public PriorityQueue<Loan> combine(PriorityQueue<Loan> left, PriorityQueue<Loan> right, ReportContext context) {
+        for (Loan loan : right) {
+            keep(left, loan, context.getLimit());
+        }
+        return left;
+    }
+
+    @Override
+    public List<Map<String, Object>> finish(PriorityQueue<Loan> total, ReportContext context) {
+        List<Loan> loans = new ArrayList<>(total);
+        loans.sort(OLDEST_FIRST);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Loan loan : loans) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("loanId", loan.getId());
+            row.put("username", loan.getUsername());
+            row.put("bookId", loan.getBookId());
+            row.put("bookTitle", loan.getBookTitle());
+            row.put("loanDate", loan.getLoanDate().toString());
+            row.put("dueDate", loan.getDueDate() != null ? loan.getDueDate().toString() : null);
+            row.put("daysOutstanding", ChronoUnit.DAYS.between(loan.getLoanDate(), context.getToday()));
+            row.put("daysOverdue", loan.getDueDate() != null
+                    ? Math.max(0, ChronoUnit.DAYS.between(loan.getDueDate(), context.getToday())) : 0);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Add a loan to a heap of at most `limit` loans, evicting the newest
+     */
+    private static void keep(PriorityQueue<Loan> heap, Loan loan, int limit) {
+        if (heap.size() < limit) {
+            heap.add(loan);
+        } else if (OLDEST_FIRST.compare(loan, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(loan);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.biblioteca.reports;
+
+import com.biblioteca.analytics.LoanRollups;
+import com.biblioteca.models.Loan;
+import com.biblioteca.patterns.factory.Book;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OverdueByCategoryReport
+ * Share of loans that went overdue, per book category
+ *
+ * A loan counts as overdue if it is still out past its due date, or was
+ * returned after it. Rows are sorted by overdue rate, highest first.
+ */
+public class OverdueByCategoryReport implements LoanReport<Map<String, long[]>> {
+
+    // Counts per category: {loans, overdue now, returned late}
+    private static final int LOANS = 0;
+    private static final int OVERDUE = 1;
+    private static final int RETURNED_LATE = 2;
+
+    @Override
+    public String getName() {
+        return "overdue-by-category";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Loans, overdue loans and overdue rate per category";
+    }
+
+    @Override
+    public Map<String, long[]> newPartial() {
+        return new HashMap<>();
+    }
+
+    @Override
+    public void accumulate(Map<String, long[]> partial, Loan loan, ReportContext context) {
+        Book book = context.getBook(loan.getBookId());
+        String category = book != null && book.getCategory() != null ? book.getCategory() : LoanRollups.UNKNOWN;
+        long[] counts = partial.computeIfAbsent(category, c -> new long[3]);
+        counts[LOANS]++;
+        if (loan.getDueDate() == null) {
+            return;
+        }
+        if (!loan.isReturned()) {
+            if (context.getToday().isAfter(loan.getDueDate())) {
+                counts[OVERDUE]++;
+            }
+        } else if (loan.getReturnDate() != null && loan.getReturnDate().isAfter(loan.getDueDate())) {
+            counts[RETURNED_LATE]++;
+        }
+    }
+
+    @Override
+    public Map<String, long[]> combine(Map<String, long[]> left, Map<String, long[]> right, ReportContext context) {
+        right.forEach((category, counts) -> {
+            long[] target = left.computeIfAbsent(category, c -> new long[3]);
+            for (int i = 0; i < target.length; i++) {
+                target[i] += counts[i];
+            }
+        });
+        return left;
+    }
+
+    @Override
+    public List<Map<String, Object>> finish(Map<String, long[]> total, ReportContext context) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        total.forEach((category, counts) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("category", category);
+            row.put("loans", counts[LOANS]);
+            row.put("overdue", counts[OVERDUE]);
+            row.put("returnedLate", counts[RETURNED_LATE]);
+            double rate = (double) (counts[OVERDUE] + counts[RETURNED_LATE]) / counts[LOANS];
+            row.put("overdueRate", Math.round(rate * 1000) / 1000.0);
+            rows.add(row);
+        });
+        rows.sort((a, b) -> Double.compare((double) b.get("overdueRate"), (double) a.get("overdueRate")));
+        return rows.size() > context.getLimit() ? rows.subList(0, context.getLimit()) : rows;
+    }
+}
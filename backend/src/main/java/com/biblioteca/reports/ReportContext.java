@@ -0,0 +1,43 @@
+package com.biblioteca.reports;
+
+import com.biblioteca.patterns.factory.Book;
+
+import java.time.LocalDate;
+import java.util.function.IntFunction;
+
+/**
+ * ReportContext
+ * Parameters shared by every slice of a report run
+ */
+public class ReportContext {
+
+    private final LocalDate today;
+    private final int limit;
+    private final IntFunction<Book> books;
+
+    /**
+     * @param today Reference date for overdue and outstanding computations
+     * @param limit Maximum number of rows
+     * @param books Book lookup by ID
+     */
+    public ReportContext(LocalDate today, int limit, IntFunction<Book> books) {
+        this.today = today;
+        this.limit = limit;
+        this.books = books;
+    }
+
+    public LocalDate getToday() {
+        return today;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Book of a loan (null if no longer in the catalog)
+     */
+    public Book getBook(int bookId) {
+        return books.apply(bookId);
+    }
+}
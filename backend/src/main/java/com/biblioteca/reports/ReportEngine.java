@@ -0,0 +1,286 @@
+package com.biblioteca.reports;
+
+import com.biblioteca.models.Loan;
+import com.biblioteca.patterns.singleton.LibraryManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ReportEngine (Singleton)
+ * Runs LoanReports over the loan history on a dedicated ForkJoinPool
+ *
+ * - Snapshot: a run scans the copy-on-write loan array as it was when the
+ *   run started (LibraryManager.loanSnapshot()), without copying it; the
+ *   spliterator is split in halves down to about LEAVES_PER_WORKER slices
+ *   per worker (at least THRESHOLD loans each): enough to balance the load,
+ *   few enough that combining partial results stays cheap
+ * - Own pool: reports never compete with request threads or with the
+ *   common pool used by parallel streams elsewhere
+ * - Cancellation and budgets: tasks poll their run every CHECK_INTERVAL
+ *   loans and stop when it is cancelled or past its time budget
+ * - Cache: completed results are kept per report and limit, and reused
+ *   while the library write version (and the date) is unchanged; a request
+ *   for a report already running at the same version joins that run
+ *
+ * Runs are kept for polling until MAX_RUNS newer runs have finished.
+ */
+public class ReportEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportEngine.class);
+
+    // Minimum loans per leaf task
+    private static final int THRESHOLD = 4096;
+
+    // Leaf tasks per pool worker
+    private static final int LEAVES_PER_WORKER = 8;
+
+    // Loans scanned between two cancellation / budget checks
+    private static final int CHECK_INTERVAL = 1024;
+
+    // Finished runs kept for polling
+    private static final int MAX_RUNS = 100;
+
+    private final LibraryManager libraryManager;
+
+    // name -> report, in registration order
+    private final Map<String, LoanReport<?>> reports = new LinkedHashMap<>();
+
+    // "name:limit" -> result of the current write version
+    private final Map<String, ReportResult> cache = new ConcurrentHashMap<>();
+
+    // run ID -> run
+    private final Map<String, ReportRun> runs = new ConcurrentHashMap<>();
+
+    // "name:limit:version" -> run in progress
+    private final Map<String, ReportRun> inFlight = new ConcurrentHashMap<>();
+
+    private volatile ForkJoinPool pool;
+
+    private ReportEngine() {
+        this.libraryManager = LibraryManager.getInstance();
+        register(new OverdueByCategoryReport());
+        register(new LoansByUserReport());
+        register(new LongestOutstandingReport());
+        this.pool = newPool(Runtime.getRuntime().availableProcessors());
+        log.info("📑 ReportEngine (Singleton) initialized");
+    }
+
+    /**
+     * Get the unique instance
+     */
+    public static ReportEngine getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final ReportEngine INSTANCE = new ReportEngine();
+    }
+
+    /**
+     * Adds a report to the engine (constructor only: the registry is not synchronized)
+     */
+    private void register(LoanReport<?> report) {
+        reports.put(report.getName(), report);
+    }
+
+    /**
+     * Replaces the worker pool (runs in progress finish on the old one)
+     *
+     * @param parallelism Worker threads; 0 or less for one per processor
+     */
+    public synchronized void setParallelism(int parallelism) {
+        ForkJoinPool previous = pool;
+        pool = newPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        previous.shutdown();
+        log.info("📑 Report pool parallelism: {}", pool.getParallelism());
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Available reports, in registration order
+     */
+    public Collection<LoanReport<?>> getReports() {
+        return reports.values();
+    }
+
+    /**
+     * Starts a report run, or completes it at once from the cache
+     * If the same report is already running at the current version, that
+     * run is returned instead. It keeps the budget it was started with, and
+     * callers sharing it must not cancel it on behalf of the others.
+     *
+     * @param name Report name
+     * @param limit Maximum number of rows
+     * @param budgetMillis Time budget; the run stops as TIMED_OUT past it
+     * @return The run, or null if there is no such report
+     */
+    public ReportRun start(String name, int limit, long budgetMillis) {
+        LoanReport<?> report = reports.get(name);
+        if (report == null) {
+            return null;
+        }
+
+        // Version first: a write racing with the snapshot only makes the cache entry stale sooner
+        long version = libraryManager.getWriteVersion();
+        LocalDate today = LocalDate.now();
+        String key = name + ":" + limit;
+
+        ReportResult cached = cache.get(key);
+        if (cached != null && cached.getVersion() == version && today.equals(cached.getAsOf())) {
+            ReportRun run = newRun(name, budgetMillis);
+            run.complete(cached.asCached());
+            return run;
+        }
+
+        String runKey = key + ":" + version;
+        ReportRun[] started = new ReportRun[1];
+        ReportRun run = inFlight.computeIfAbsent(runKey, k -> started[0] = newRun(name, budgetMillis));
+        if (run != started[0]) {
+            return run;
+        }
+
+        ReportContext context = new ReportContext(today, limit, libraryManager::getBookById);
+        Spliterator<Loan> loans = libraryManager.loanSnapshot();
+        ForkJoinPool workers = pool;
+        long leafSize = Math.max(THRESHOLD, loans.estimateSize() / ((long) workers.getParallelism() * LEAVES_PER_WORKER));
+        workers.execute(() -> {
+            try {
+                execute(report, loans, leafSize, context, run, key, version);
+            } finally {
+                inFlight.remove(runKey);
+            }
+        });
+        return run;
+    }
+
+    private ReportRun newRun(String name, long budgetMillis) {
+        ReportRun run = new ReportRun(UUID.randomUUID().toString(), name, budgetMillis);
+        runs.put(run.getId(), run);
+        evictRuns();
+        return run;
+    }
+
+    /**
+     * Get a run by ID (null if unknown or evicted)
+     */
+    public ReportRun getRun(String id) {
+        return runs.get(id);
+    }
+
+    /**
+     * Runs a report on a pool worker and records the outcome in the run
+     */
+    private <P> void execute(LoanReport<P> report, Spliterator<Loan> loans, long leafSize,
+                             ReportContext context, ReportRun run, String key, long version) {
+        long start = System.nanoTime();
+        long size = loans.getExactSizeIfKnown();
+        try {
+            P total = new ReportTask<>(report, loans, leafSize, context, run).invoke();
+            List<Map<String, Object>> rows = report.finish(total, context);
+            ReportResult result = new ReportResult(report.getName(), rows, size,
+                    (System.nanoTime() - start) / 1_000_000, version, context.getToday(), false);
+            cache.values().removeIf(cached -> cached.getVersion() != version);
+            cache.put(key, result);
+            run.complete(result);
+            log.info("📑 Report {} over {} loans in {} ms", report.getName(), size, result.getElapsedMillis());
+        } catch (CancellationException e) {
+            run.abort();
+            log.info("📑 Report {} stopped ({}) after {} ms", report.getName(), run.getStatus(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            run.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            log.warn("📑 Report {} failed", report.getName(), e);
+        }
+    }
+
+    /**
+     * Drops the oldest finished runs beyond MAX_RUNS
+     */
+    private void evictRuns() {
+        if (runs.size() <= MAX_RUNS) {
+            return;
+        }
+        List<ReportRun> finished = new ArrayList<>();
+        for (ReportRun run : runs.values()) {
+            if (run.getStatus() != ReportRun.Status.RUNNING) {
+                finished.add(run);
+            }
+        }
+        finished.sort(Comparator.comparingLong(ReportRun::getFinishedAt));
+        for (int i = 0; i < finished.size() && runs.size() > MAX_RUNS; i++) {
+            runs.remove(finished.get(i).getId());
+        }
+    }
+
+    private static ForkJoinPool newPool(int parallelism) {
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("report-worker-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Folds a slice of the loan snapshot, splitting it while above the leaf size
+     */
+    private static class ReportTask<P> extends RecursiveTask<P> {
+
+        private final LoanReport<P> report;
+        private final Spliterator<Loan> loans;
+        private final long leafSize;
+        private final ReportContext context;
+        private final ReportRun run;
+
+        ReportTask(LoanReport<P> report, Spliterator<Loan> loans, long leafSize, ReportContext context, ReportRun run) {
+            this.report = report;
+            this.loans = loans;
+            this.leafSize = leafSize;
+            this.context = context;
+            this.run = run;
+        }
+
+        @Override
+        protected P compute() {
+            if (run.isAborted()) {
+                throw new CancellationException();
+            }
+            Spliterator<Loan> prefix;
+            if (loans.estimateSize() > leafSize && (prefix = loans.trySplit()) != null) {
+                ReportTask<P> left = new ReportTask<>(report, prefix, leafSize, context, run);
+                left.fork();
+                P right = compute();
+                return report.combine(left.join(), right, context);
+            }
+
+            P partial = report.newPartial();
+            int sinceCheck = 0;
+            while (loans.tryAdvance(loan -> report.accumulate(partial, loan, context))) {
+                if (++sinceCheck == CHECK_INTERVAL) {
+                    if (run.isAborted()) {
+                        throw new CancellationException();
+                    }
+                    sinceCheck = 0;
+                }
+            }
+            return partial;
+        }
+    }
+}
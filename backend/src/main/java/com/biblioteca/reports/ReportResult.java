@@ -0,0 +1,74 @@
+package com.biblioteca.reports;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ReportResult
+ * Rows of a completed report and how they were computed
+ *
+ * Immutable; cached by ReportEngine until the next write to the library.
+ */
+public class ReportResult {
+
+    private final String report;
+    private final List<Map<String, Object>> rows;
+    private final long loansScanned;
+    private final long elapsedMillis;
+    private final long version;
+    private final LocalDate asOf;
+    private final boolean cached;
+
+    public ReportResult(String report, List<Map<String, Object>> rows, long loansScanned,
+                        long elapsedMillis, long version, LocalDate asOf, boolean cached) {
+        this.report = report;
+        this.rows = List.copyOf(rows);
+        this.loansScanned = loansScanned;
+        this.elapsedMillis = elapsedMillis;
+        this.version = version;
+        this.asOf = asOf;
+        this.cached = cached;
+    }
+
+    /**
+     * The same result, marked as served from the cache
+     */
+    public ReportResult asCached() {
+        return new ReportResult(report, rows, loansScanned, elapsedMillis, version, asOf, true);
+    }
+
+    public String getReport() {
+        return report;
+    }
+
+    public List<Map<String, Object>> getRows() {
+        return rows;
+    }
+
+    public long getLoansScanned() {
+        return loansScanned;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Library write version the report was computed at
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Reference date of the report (overdue status depends on it)
+     */
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+}
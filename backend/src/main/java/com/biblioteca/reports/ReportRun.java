@@ -0,0 +1,129 @@
+package com.biblioteca.reports;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReportRun
+ * One execution of a report: status, time budget and result
+ *
+ * Worker tasks poll isAborted() while scanning, so cancel() and an
+ * expired budget stop the whole run within a few thousand loans.
+ */
+public class ReportRun {
+
+    public enum Status {
+        RUNNING, COMPLETED, CANCELLED, TIMED_OUT, FAILED
+    }
+
+    private final String id;
+    private final String report;
+    private final long budgetMillis;
+    private final long startedAt;
+    private final long deadlineNanos;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private volatile Status status = Status.RUNNING;
+    private volatile boolean cancelled;
+    private volatile ReportResult result;
+    private volatile String error;
+    private volatile long finishedAt;
+
+    public ReportRun(String id, String report, long budgetMillis) {
+        this.id = id;
+        this.report = report;
+        this.budgetMillis = budgetMillis;
+        this.startedAt = System.currentTimeMillis();
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    /**
+     * Ask the run to stop (no effect once finished)
+     *
+     * @return false if the run had already finished
+     */
+    public boolean cancel() {
+        if (status != Status.RUNNING) {
+            return false;
+        }
+        cancelled = true;
+        return true;
+    }
+
+    /**
+     * Check if the run was cancelled or exceeded its time budget
+     */
+    public boolean isAborted() {
+        return cancelled || System.nanoTime() - deadlineNanos > 0;
+    }
+
+    /**
+     * Wait for the run to finish
+     *
+     * @return false if still running after the timeout
+     */
+    public boolean await(long timeoutMillis) throws InterruptedException {
+        return done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void complete(ReportResult result) {
+        this.result = result;
+        finish(Status.COMPLETED);
+    }
+
+    void abort() {
+        finish(cancelled ? Status.CANCELLED : Status.TIMED_OUT);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finish(Status.FAILED);
+    }
+
+    private void finish(Status status) {
+        this.finishedAt = System.currentTimeMillis();
+        this.status = status;
+        done.countDown();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getReport() {
+        return report;
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Finish time (epoch ms), or 0 while running
+     */
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Result of a COMPLETED run, otherwise null
+     */
+    public ReportResult getResult() {
+        return result;
+    }
+
+    /**
+     * Failure message of a FAILED run, otherwise null
+     */
+    public String getError() {
+        return error;
+    }
+}
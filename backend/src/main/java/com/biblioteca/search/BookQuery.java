@@ -0,0 +1,102 @@
+package com.biblioteca.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BookQuery
+ * Composite filter over the catalog
+ *
+ * Criteria (all optional, combined with AND):
+ * - title: substring of the title (case-insensitive)
+ * - author: author name (exact, case-insensitive)
+ * - category: category (exact, case-insensitive)
+ * - bookType: DIGITAL, EBOOK or AUDIO
+ * - availableOnly: only books that can be borrowed now
+ *
+ * Results are sorted by sortBy (title, author or id) and cut at limit (0 = no limit).
+ */
+public class BookQuery {
+
+    private String title;
+    private String author;
+    private String category;
+    private String bookType;
+    private boolean availableOnly;
+    private String sortBy = "title";
+    private int limit;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = blankToNull(title);
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = blankToNull(author);
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = blankToNull(category);
+    }
+
+    public String getBookType() {
+        return bookType;
+    }
+
+    public void setBookType(String bookType) {
+        this.bookType = blankToNull(bookType);
+    }
+
+    public boolean isAvailableOnly() {
+        return availableOnly;
+    }
+
+    public void setAvailableOnly(boolean availableOnly) {
+        this.availableOnly = availableOnly;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public void setSortBy(String sortBy) {
+        this.sortBy = blankToNull(sortBy) != null ? sortBy : "title";
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = Math.max(0, limit);
+    }
+
+    /**
+     * Human-readable criteria, e.g. for logs and explain output
+     */
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>();
+        if (title != null) parts.add("title~'" + title + "'");
+        if (author != null) parts.add("author='" + author + "'");
+        if (category != null) parts.add("category='" + category + "'");
+        if (bookType != null) parts.add("bookType='" + bookType + "'");
+        if (availableOnly) parts.add("available");
+        return parts.isEmpty() ? "(all)" : String.join(" AND ", parts);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+}
@@ -0,0 +1,369 @@
+package com.biblioteca.search;
+
+import com.biblioteca.patterns.factory.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * FacetIndex
+ * Per-facet-value bitmaps over book ordinals
+ *
+ * Every book gets an ordinal when it is added to the catalog. For each
+ * facet (category, bookType, available) and each of its values the index
+ * keeps an OrdinalBitmap of the books having that value.
+ *
+ * Counting a result set per facet value is then one AND + popcount per
+ * word and value, instead of a scan of the catalog per facet.
+ *
+ * Values are matched case-insensitively; categories and authors also ignore
+ * accents (folded SearchKeys). Authors are indexed for query planning, but
+ * are not reported as a facet; with about as many authors as books, they
+ * are kept as ordinal lists and only turned into a bitmap when queried
+ * (a bitmap per author would grow with the catalog times the authors).
+ *
+ * Owned by LibraryManager, which calls add(), update() and updateAvailability().
+ * A book keeps its ordinal for life; update() moves it between category
+ * and author entries, dropping entries left without books.
+ */
+public class FacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String BOOK_TYPE = "bookType";
+    public static final String AVAILABLE = "available";
+    public static final String AUTHOR = "author";
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ordinal -> book, and bookId -> ordinal
+    private final List<Book> books = new ArrayList<>();
+    private final Map<Integer, Integer> ordinals = new HashMap<>();
+
+    // facet -> value -> books having the value
+    private final Map<String, Map<String, OrdinalBitmap>> facets = new LinkedHashMap<>();
+
+    // folded category -> category as first seen (the facet value reported)
+    private final Map<String, String> categoryLabels = new HashMap<>();
+
+    // folded author -> books (indexed like a facet, not counted)
+    private final Map<String, Postings> authors = new HashMap<>();
+
+    public FacetIndex() {
+        facets.put(CATEGORY, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+        facets.put(BOOK_TYPE, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+        facets.put(AVAILABLE, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+    }
+
+    /**
+     * Index a new book
+     *
+     * @param book Book to index
+     * @param keys Folded search keys of the book
+     */
+    public void add(Book book, SearchKeys keys) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = books.size();
+            books.add(book);
+            ordinals.put(book.getId(), ordinal);
+            String category = categoryLabels.computeIfAbsent(keys.getCategory(),
+                    c -> book.getCategory() != null ? book.getCategory() : "");
+            bitmap(CATEGORY, category).set(ordinal);
+            bitmap(BOOK_TYPE, book.getBookType()).set(ordinal);
+            bitmap(AVAILABLE, String.valueOf(book.isAvailable())).set(ordinal);
+            authors.computeIfAbsent(keys.getAuthor(), a -> new Postings()).add(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-index the category and author of a book whose keys changed
+     * (the book type cannot change)
+     *
+     * @param book Indexed book
+     * @param old Keys the book was indexed with
+     * @param keys New keys of the book
+     */
+    public void update(Book book, SearchKeys old, SearchKeys keys) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(book.getId());
+            if (ordinal == null) {
+                return;
+            }
+            if (!old.getCategory().equals(keys.getCategory())) {
+                String previous = categoryLabels.get(old.getCategory());
+                Map<String, OrdinalBitmap> categories = facets.get(CATEGORY);
+                OrdinalBitmap bitmap = previous != null ? categories.get(previous) : null;
+                if (bitmap != null) {
+                    bitmap.clear(ordinal);
+                    if (bitmap.cardinality() == 0) {
+                        categories.remove(previous);
+                        categoryLabels.remove(old.getCategory());
+                    }
+                }
+                String category = categoryLabels.computeIfAbsent(keys.getCategory(),
+                        c -> book.getCategory() != null ? book.getCategory() : "");
+                bitmap(CATEGORY, category).set(ordinal);
+            }
+            if (!old.getAuthor().equals(keys.getAuthor())) {
+                Postings previous = authors.get(old.getAuthor());
+                if (previous != null && previous.remove(ordinal) && previous.size == 0) {
+                    authors.remove(old.getAuthor());
+                }
+                authors.computeIfAbsent(keys.getAuthor(), a -> new Postings()).add(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Move a book to the availability bitmap matching book.isAvailable()
+     */
+    public void updateAvailability(Book book) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(book.getId());
+            if (ordinal == null) {
+                return;
+            }
+            boolean available = book.isAvailable();
+            bitmap(AVAILABLE, String.valueOf(available)).set(ordinal);
+            bitmap(AVAILABLE, String.valueOf(!available)).clear(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Bitmap of a set of books
+     */
+    public OrdinalBitmap bitmapOf(Collection<Book> selection) {
+        lock.readLock().lock();
+        try {
+            OrdinalBitmap bitmap = new OrdinalBitmap(books.size());
+            for (Book book : selection) {
+                Integer ordinal = ordinals.get(book.getId());
+                if (ordinal != null) {
+                    bitmap.set(ordinal);
+                }
+            }
+            return bitmap;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copy of the bitmap of one facet value
+     *
+     * @return The books having the value (empty if none)
+     */
+    public OrdinalBitmap get(String facet, String value) {
+        lock.readLock().lock();
+        try {
+            if (AUTHOR.equals(facet)) {
+                Postings postings = value != null ? authors.get(SearchKeys.fold(value)) : null;
+                return postings != null ? postings.toBitmap(books.size()) : new OrdinalBitmap(books.size());
+            }
+            OrdinalBitmap bitmap = lookup(facet, value);
+            return bitmap != null ? bitmap.copy() : new OrdinalBitmap(books.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of books having a facet value, without copying its bitmap
+     */
+    public int count(String facet, String value) {
+        lock.readLock().lock();
+        try {
+            if (AUTHOR.equals(facet)) {
+                Postings postings = value != null ? authors.get(SearchKeys.fold(value)) : null;
+                return postings != null ? postings.size : 0;
+            }
+            OrdinalBitmap bitmap = lookup(facet, value);
+            return bitmap != null ? bitmap.cardinality() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bitmap of all indexed books
+     */
+    public OrdinalBitmap all() {
+        lock.readLock().lock();
+        try {
+            OrdinalBitmap bitmap = new OrdinalBitmap(books.size());
+            for (int ordinal = 0; ordinal < books.size(); ordinal++) {
+                bitmap.set(ordinal);
+            }
+            return bitmap;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Values of a facet (e.g. all categories)
+     */
+    public List<String> values(String facet) {
+        lock.readLock().lock();
+        try {
+            Map<String, OrdinalBitmap> values = facets.get(facet);
+            return values != null ? new ArrayList<>(values.keySet()) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of books of a selection per facet value
+     *
+     * @param selection Books to count
+     * @return facet -> value -> count (values with no books omitted)
+     */
+    public Map<String, Map<String, Integer>> counts(OrdinalBitmap selection) {
+        lock.readLock().lock();
+        try {
+            Map<String, Map<String, Integer>> result = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, OrdinalBitmap>> facet : facets.entrySet()) {
+                Map<String, Integer> counts = new LinkedHashMap<>();
+                for (Map.Entry<String, OrdinalBitmap> value : facet.getValue().entrySet()) {
+                    int count = value.getValue().andCardinality(selection);
+                    if (count > 0) {
+                        counts.put(value.getKey(), count);
+                    }
+                }
+                result.put(facet.getKey(), counts);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Books of a bitmap, in ordinal (catalog) order
+     */
+    public List<Book> books(OrdinalBitmap bitmap) {
+        lock.readLock().lock();
+        try {
+            List<Book> result = new ArrayList<>();
+            bitmap.forEach(ordinal -> {
+                if (ordinal < books.size()) {
+                    result.add(books.get(ordinal));
+                }
+            });
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed books
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return books.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove all books
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            books.clear();
+            ordinals.clear();
+            facets.values().forEach(Map::clear);
+            categoryLabels.clear();
+            authors.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Bitmap of a facet value (not authors), folding categories; caller holds the lock
+     */
+    private OrdinalBitmap lookup(String facet, String value) {
+        if (value == null) {
+            return null;
+        }
+        Map<String, OrdinalBitmap> values = facets.get(facet);
+        if (values == null) {
+            return null;
+        }
+        if (CATEGORY.equals(facet)) {
+            String label = categoryLabels.get(SearchKeys.fold(value));
+            return label != null ? values.get(label) : null;
+        }
+        return values.get(value);
+    }
+
+    private OrdinalBitmap bitmap(String facet, String value) {
+        return facets.get(facet).computeIfAbsent(value != null ? value : "", v -> new OrdinalBitmap(books.size()));
+    }
+
+    /**
+     * Ordinals of the books of one author, in ascending order
+     */
+    private static class Postings {
+
+        private int[] ordinals = new int[1];
+        private int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            // New books come last; a re-indexed book may land in the middle
+            int at = size;
+            while (at > 0 && ordinals[at - 1] > ordinal) {
+                at--;
+            }
+            System.arraycopy(ordinals, at, ordinals, at + 1, size - at);
+            ordinals[at] = ordinal;
+            size++;
+        }
+
+        /**
+         * @return false if the ordinal was not listed
+         */
+        boolean remove(int ordinal) {
+            int at = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ordinals, at + 1, ordinals, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        OrdinalBitmap toBitmap(int bits) {
+            OrdinalBitmap bitmap = new OrdinalBitmap(bits);
+            for (int i = 0; i < size; i++) {
+                bitmap.set(ordinals[i]);
+            }
+            return bitmap;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.biblioteca.search;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * OrdinalBitmap
+ * Set of book ordinals as a bitmap of 64-bit words
+ *
+ * Book ordinals are dense (0..n-1 in insertion order), so one bit per book
+ * is the compact representation; intersections and counts work a word at a
+ * time (AND + Long.bitCount). Not thread-safe: FacetIndex guards its bitmaps.
+ */
+public class OrdinalBitmap {
+
+    private long[] words;
+
+    public OrdinalBitmap() {
+        this(64);
+    }
+
+    public OrdinalBitmap(int expectedBits) {
+        this.words = new long[Math.max(1, (expectedBits + 63) >>> 6)];
+    }
+
+    private OrdinalBitmap(long[] words) {
+        this.words = words;
+    }
+
+    public void set(int ordinal) {
+        int word = ordinal >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        words[word] |= 1L << ordinal;
+    }
+
+    public void clear(int ordinal) {
+        int word = ordinal >>> 6;
+        if (word < words.length) {
+            words[word] &= ~(1L << ordinal);
+        }
+    }
+
+    public boolean get(int ordinal) {
+        int word = ordinal >>> 6;
+        return word < words.length && (words[word] & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Number of ordinals in the set
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Size of the intersection with another bitmap, without materializing it
+     */
+    public int andCardinality(OrdinalBitmap other) {
+        int n = Math.min(words.length, other.words.length);
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Intersect with another bitmap in place
+     */
+    public OrdinalBitmap and(OrdinalBitmap other) {
+        int n = Math.min(words.length, other.words.length);
+        for (int i = 0; i < n; i++) {
+            words[i] &= other.words[i];
+        }
+        Arrays.fill(words, n, words.length, 0L);
+        return this;
+    }
+
+    /**
+     * Union with another bitmap in place
+     */
+    public OrdinalBitmap or(OrdinalBitmap other) {
+        if (other.words.length > words.length) {
+            words = Arrays.copyOf(words, other.words.length);
+        }
+        for (int i = 0; i < other.words.length; i++) {
+            words[i] |= other.words[i];
+        }
+        return this;
+    }
+
+    /**
+     * Call an action for each ordinal in ascending order
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                action.accept((i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    public OrdinalBitmap copy() {
+        return new OrdinalBitmap(words.clone());
+    }
+}
@@ -0,0 +1,200 @@
+package com.biblioteca.search;
+
+import com.biblioteca.patterns.factory.Book;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * QueryPlanner
+ * Executes a BookQuery with the facet index
+ *
+ * Plan:
+ * 1. Collect the indexed criteria (author, category, bookType, availability)
+ *    with their cardinality from the index
+ * 2. Start from the most selective bitmap and intersect the others in
+ *    ascending cardinality order, stopping as soon as nothing is left
+ * 3. Apply the residual (non-indexed) criteria to the remaining books only,
+ *    matching the folded title keys
+ * 4. Sort and limit (facet counts cover all matches, not just the page)
+ *
+ * Without indexed criteria the plan starts from the whole catalog. Every
+ * step is recorded so admins can see the plan (explain).
+ */
+public class QueryPlanner {
+
+    private final FacetIndex index;
+    private final Function<Book, SearchKeys> searchKeys;
+
+    public QueryPlanner(FacetIndex index, Function<Book, SearchKeys> searchKeys) {
+        this.index = index;
+        this.searchKeys = searchKeys;
+    }
+
+    /**
+     * Plan and run a query
+     */
+    public QueryResult execute(BookQuery query) {
+        long start = System.nanoTime();
+        List<Map<String, Object>> steps = new ArrayList<>();
+
+        // 1. Indexed criteria, most selective first
+        List<IndexedCriterion> indexed = new ArrayList<>();
+        addIndexed(indexed, FacetIndex.AUTHOR, query.getAuthor());
+        addIndexed(indexed, FacetIndex.CATEGORY, query.getCategory());
+        addIndexed(indexed, FacetIndex.BOOK_TYPE, query.getBookType());
+        if (query.isAvailableOnly()) {
+            addIndexed(indexed, FacetIndex.AVAILABLE, "true");
+        }
+        indexed.sort(Comparator.comparingInt(c -> c.cardinality));
+
+        // 2. Candidate set: intersection of the indexed bitmaps
+        OrdinalBitmap candidates;
+        if (indexed.isEmpty()) {
+            candidates = index.all();
+            steps.add(step("scan", "all books", candidates.cardinality()));
+        } else {
+            IndexedCriterion first = indexed.get(0);
+            candidates = index.get(first.facet, first.value);
+            steps.add(step("index", first.describe(), candidates.cardinality()));
+            for (int i = 1; i < indexed.size(); i++) {
+                if (candidates.cardinality() == 0) {
+                    steps.add(step("skip", indexed.get(i).describe() + " (no candidates left)", 0));
+                    continue;
+                }
+                IndexedCriterion next = indexed.get(i);
+                candidates.and(index.get(next.facet, next.value));
+                steps.add(step("intersect", next.describe(), candidates.cardinality()));
+            }
+        }
+
+        // 3. Residual criteria on the candidates only
+        List<Book> books = index.books(candidates);
+        if (query.getTitle() != null) {
+            Predicate<Book> titleMatches = titlePredicate(query.getTitle());
+            int scanned = books.size();
+            books.removeIf(titleMatches.negate());
+            Map<String, Object> residual = step("residual", "title~'" + query.getTitle() + "'", books.size());
+            residual.put("scanned", scanned);
+            steps.add(residual);
+        }
+
+        // 4. Sort and limit
+        books.sort(comparator(query.getSortBy()));
+        int total = books.size();
+        Map<String, Map<String, Integer>> facets = index.counts(index.bitmapOf(books));
+        if (query.getLimit() > 0 && books.size() > query.getLimit()) {
+            books = new ArrayList<>(books.subList(0, query.getLimit()));
+        }
+        steps.add(step("sort", "by " + query.getSortBy() + (query.getLimit() > 0 ? ", limit " + query.getLimit() : ""), books.size()));
+
+        return new QueryResult(books, total, facets, steps, (System.nanoTime() - start) / 1_000);
+    }
+
+    private void addIndexed(List<IndexedCriterion> criteria, String facet, String value) {
+        if (value != null) {
+            criteria.add(new IndexedCriterion(facet, value, index.count(facet, value)));
+        }
+    }
+
+    private Predicate<Book> titlePredicate(String title) {
+        String term = SearchKeys.fold(title);
+        return book -> searchKeys.apply(book).getTitle().contains(term);
+    }
+
+    private Comparator<Book> comparator(String sortBy) {
+        // Books created through the API or loaded from old data may lack an author or title
+        Comparator<String> text = Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER);
+        switch (sortBy.toLowerCase(Locale.ROOT)) {
+            case "id":
+                return Comparator.comparingInt(Book::getId);
+            case "author":
+                return Comparator.comparing(Book::getAuthor, text)
+                        .thenComparing(Book::getTitle, text);
+            default:
+                return Comparator.comparing(Book::getTitle, text)
+                        .thenComparingInt(Book::getId);
+        }
+    }
+
+    private static Map<String, Object> step(String operation, String detail, int rows) {
+        Map<String, Object> step = new LinkedHashMap<>();
+        step.put("operation", operation);
+        step.put("detail", detail);
+        step.put("rows", rows);
+        return step;
+    }
+
+    /**
+     * An indexed criterion with its cardinality in the index
+     */
+    private static class IndexedCriterion {
+
+        private final String facet;
+        private final String value;
+        private final int cardinality;
+
+        IndexedCriterion(String facet, String value, int cardinality) {
+            this.facet = facet;
+            this.value = value;
+            this.cardinality = cardinality;
+        }
+
+        String describe() {
+            return facet + "='" + value + "' (" + cardinality + " in index)";
+        }
+    }
+
+    /**
+     * Result of a query: matching books plus the executed plan
+     */
+    public static class QueryResult {
+
+        private final List<Book> books;
+        private final int totalMatches;
+        private final Map<String, Map<String, Integer>> facets;
+        private final List<Map<String, Object>> plan;
+        private final long elapsedMicros;
+
+        public QueryResult(List<Book> books, int totalMatches, Map<String, Map<String, Integer>> facets,
+                           List<Map<String, Object>> plan, long elapsedMicros) {
+            this.books = books;
+            this.totalMatches = totalMatches;
+            this.facets = facets;
+            this.plan = plan;
+            this.elapsedMicros = elapsedMicros;
+        }
+
+        public List<Book> getBooks() {
+            return books;
+        }
+
+        /**
+         * Matches before the limit was applied
+         */
+        public int getTotalMatches() {
+            return totalMatches;
+        }
+
+        /**
+         * Facet counts over all matches
+         */
+        public Map<String, Map<String, Integer>> getFacets() {
+            return facets;
+        }
+
+        public List<Map<String, Object>> getPlan() {
+            return plan;
+        }
+
+        public long getElapsedMicros() {
+            return elapsedMicros;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.biblioteca.search;
+
+import com.biblioteca.patterns.factory.Book;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * SearchKeys
+ * Folded search keys of a book
+ *
+ * Folding decomposes the text (Unicode NFD), drops the combining marks,
+ * lowercases it and collapses whitespace runs to single spaces, so
+ * "Programación", "PROGRAMACION " and "programacion" all become "programacion".
+ *
+ * Keys are computed once when the book is added to the catalog (and again
+ * when its title, author or category change); a search
+ * folds its term once and then compares plain strings, without allocating
+ * per book.
+ */
+public final class SearchKeys {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final String title;
+    private final String author;
+    private final String category;
+
+    public SearchKeys(Book book) {
+        this.title = fold(book.getTitle());
+        this.author = fold(book.getAuthor());
+        this.category = fold(book.getCategory());
+    }
+
+    /**
+     * Fold a text for accent- and case-insensitive matching
+     *
+     * @param text Text to fold (null is treated as empty)
+     * @return Folded text
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String folded = isAscii(text) ? text.toLowerCase(Locale.ROOT)
+                : MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        return hasExtraSpace(folded) ? SPACES.matcher(folded.trim()).replaceAll(" ") : folded;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Whether a text has leading/trailing whitespace, whitespace other than
+     * single spaces, or consecutive spaces
+     */
+    private static boolean hasExtraSpace(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)
+                    && (c != ' ' || i == 0 || i == text.length() - 1 || text.charAt(i - 1) == ' ')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
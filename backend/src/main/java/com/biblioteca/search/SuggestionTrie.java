@@ -0,0 +1,707 @@
+package com.biblioteca.search;
+
+import com.biblioteca.patterns.factory.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SuggestionTrie
+ * As-you-type completions of titles and authors
+ *
+ * A radix trie (edges labelled with whole substrings, single-child chains
+ * collapsed) over the folded titles and author names, entered from the
+ * start of each of their first MAX_WORD_STARTS words ("prag" finds "The
+ * Pragmatic Programmer"; later words are left to search). Every node stores the
+ * TOP_K most popular completions below it, so a lookup walks the prefix and
+ * returns that node's list: O(prefix length), independent of the catalog size.
+ *
+ * Popularity is the number of loans: of the book for a title, of all the
+ * author's books for an author. Weights only grow, so a borrow just offers
+ * its completions again to the nodes on their paths.
+ *
+ * A book whose title or author changes (update()) takes its loans off its
+ * old completions, and the top lists on their paths are rebuilt bottom-up
+ * from the children's lists. A completion no book uses any more stays in
+ * the trie (and is reused if the key comes back), but is left out of the
+ * top lists. For that rebuild, a completion ending where a longer one goes
+ * on is marked by an empty-label child of the node.
+ *
+ * To stay small with millions of entries the trie has no node objects:
+ * nodes are indexes into parallel int arrays (edge label as an offset range
+ * into a completion key, first child, next sibling), and the top lists are
+ * slices of one shared int pool; completion IDs are found through an
+ * open-addressing int table rather than boxed map entries.
+ *
+ * Memory is the limit of this design: every indexed word start adds a
+ * path of its own, so the trie grows with the catalog times the words per
+ * key. Measured with 1M books (titles of 3 to 9 words, authors of 3):
+ * about 8.8M nodes and 430 MB of heap (330 MB when indexing 3 words).
+ * Size the heap for it, or lower MAX_WORD_STARTS, before loading
+ * catalogs of that order.
+ */
+public class SuggestionTrie {
+
+    public static final String TITLE = "title";
+    public static final String AUTHOR = "author";
+
+    // Completions kept per node (and maximum returned per lookup)
+    public static final int TOP_K = 10;
+
+    // Words of a completion it can be found by (see the class comment)
+    private static final int MAX_WORD_STARTS = 4;
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Nodes: label = keys[labelKey].substring(labelStart, labelEnd); children as a sibling list
+    private int nodeCount;
+    private int[] labelKey;
+    private int[] labelStart;
+    private int[] labelEnd;
+    private int[] firstChild;
+    private int[] nextSibling;
+
+    // Top completions of each node: topPool[topStart .. topStart + topSize), capacity topCapacity;
+    // with capacity 1 (most leaves) the single entry is kept in topStart itself
+    private int[] topStart;
+    private byte[] topSize;
+    private byte[] topCapacity;
+    private int[] topPool;
+    private int topPoolSize;
+
+    // Completions: folded key, display text, kind and weight by completion ID
+    private int completionCount;
+    private String[] keys;
+    private String[] texts;
+    private String[] kinds;
+    private long[] weights;
+
+    // Books using each completion, and completions no book uses
+    private int[] refs;
+    private int unused;
+
+    // (kind, folded key) -> completion ID + 1, open addressing (0 = free slot);
+    // a boxed map would take about 50 bytes more per completion
+    private int[] ids;
+
+    // By book ID: loans, and title and author completions (NONE until the book is added)
+    private int[] bookBorrows = new int[0];
+    private int[] bookTitle = new int[0];
+    private int[] bookAuthor = new int[0];
+
+    public SuggestionTrie() {
+        init();
+    }
+
+    /**
+     * Add the title and author of a new book as completions
+     *
+     * @param book Book to add
+     * @param keys Folded search keys of the book
+     */
+    public void add(Book book, SearchKeys keys) {
+        lock.writeLock().lock();
+        try {
+            int bookId = book.getId();
+            ensureBook(bookId);
+            int title = completion(TITLE, keys.getTitle(), book.getTitle());
+            int author = completion(AUTHOR, keys.getAuthor(), book.getAuthor());
+            bookTitle[bookId] = title;
+            bookAuthor[bookId] = author;
+            use(title, bookId);
+            use(author, bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Move a book whose title or author changed to its new completions
+     *
+     * @param book Added book, with its new title and author
+     * @param keys New folded search keys of the book
+     */
+    public void update(Book book, SearchKeys keys) {
+        lock.writeLock().lock();
+        try {
+            int bookId = book.getId();
+            if (bookId <= 0 || bookId >= bookTitle.length) {
+                return;
+            }
+            bookTitle[bookId] = replace(bookTitle[bookId], bookId, TITLE, keys.getTitle(), book.getTitle());
+            bookAuthor[bookId] = replace(bookAuthor[bookId], bookId, AUTHOR, keys.getAuthor(), book.getAuthor());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Count a loan of a book towards its title and author completions
+     *
+     * Loans of books not added yet are remembered and counted when they are.
+     */
+    public void recordBorrow(int bookId) {
+        lock.writeLock().lock();
+        try {
+            if (bookId <= 0) {
+                return;
+            }
+            ensureBook(bookId);
+            bookBorrows[bookId]++;
+            for (int id : new int[] {bookTitle[bookId], bookAuthor[bookId]}) {
+                if (id != NONE) {
+                    weights[id]++;
+                    offer(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Most popular completions having a word starting with a prefix
+     *
+     * @param prefix Typed text (folded here)
+     * @param limit Maximum number of suggestions (at most TOP_K)
+     * @return Suggestions, most popular first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String folded = SearchKeys.fold(prefix);
+        if (folded.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int node = ROOT;
+            int matched = 0;
+            while (matched < folded.length()) {
+                int child = child(node, folded.charAt(matched));
+                if (child == NONE) {
+                    return List.of();
+                }
+                int common = commonPrefix(child, folded, matched);
+                if (matched + common < folded.length() && common < labelLength(child)) {
+                    return List.of();
+                }
+                matched += common;
+                node = child; // the prefix may end inside this edge
+            }
+
+            List<Suggestion> suggestions = new ArrayList<>();
+            for (int i = 0; i < topSize[node] && i < limit; i++) {
+                int id = top(node, i);
+                suggestions.add(new Suggestion(texts[id], kinds[id], weights[id]));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of distinct completions
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return completionCount - unused;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of trie nodes
+     */
+    public int nodes() {
+        lock.readLock().lock();
+        try {
+            return nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove all completions and loan counts
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            init();
+            bookBorrows = new int[0];
+            bookTitle = new int[0];
+            bookAuthor = new int[0];
+            unused = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void init() {
+        nodeCount = 0;
+        labelKey = new int[64];
+        labelStart = new int[64];
+        labelEnd = new int[64];
+        firstChild = new int[64];
+        nextSibling = new int[64];
+        topStart = new int[64];
+        topSize = new byte[64];
+        topCapacity = new byte[64];
+        topPool = new int[256];
+        topPoolSize = 0;
+        completionCount = 0;
+        keys = new String[16];
+        texts = new String[16];
+        kinds = new String[16];
+        weights = new long[16];
+        refs = new int[16];
+        ids = new int[32];
+        newNode(NONE, 0, 0);
+    }
+
+    /**
+     * Get or create the completion of a key, inserting it from each word start
+     *
+     * @return Completion ID, or NONE for an empty key
+     */
+    private int completion(String kind, String key, String text) {
+        if (key.isEmpty()) {
+            return NONE;
+        }
+        int mask = ids.length - 1;
+        int slot = slot(kind, key) & mask;
+        for (; ids[slot] != 0; slot = (slot + 1) & mask) {
+            int existing = ids[slot] - 1;
+            if (kinds[existing].equals(kind) && keys[existing].equals(key)) {
+                return existing;
+            }
+        }
+        int id = completionCount++;
+        if (id == keys.length) {
+            int capacity = grow(id);
+            keys = Arrays.copyOf(keys, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            refs = Arrays.copyOf(refs, capacity);
+        }
+        keys[id] = key;
+        texts[id] = text.trim();
+        kinds[id] = kind;
+        ids[slot] = id + 1;
+        if (completionCount * 2 > ids.length) {
+            rehash();
+        }
+        unused++;
+        for (int start : wordStarts(key)) {
+            insert(id, start);
+        }
+        return id;
+    }
+
+    /**
+     * Double the completion ID table (kept at most half full)
+     */
+    private void rehash() {
+        ids = new int[ids.length * 2];
+        int mask = ids.length - 1;
+        for (int id = 0; id < completionCount; id++) {
+            int slot = slot(kinds[id], keys[id]) & mask;
+            while (ids[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            ids[slot] = id + 1;
+        }
+    }
+
+    private static int slot(String kind, String key) {
+        int hash = key.hashCode() * 31 + kind.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Count a book (and its loans) towards a completion
+     */
+    private void use(int id, int bookId) {
+        if (id == NONE) {
+            return;
+        }
+        if (refs[id]++ == 0) {
+            unused--;
+        }
+        weights[id] += bookBorrows[bookId];
+        offer(id);
+    }
+
+    /**
+     * Move a book from its completion of a kind to the completion of a new key
+     *
+     * @return The new completion ID
+     */
+    private int replace(int old, int bookId, String kind, String key, String text) {
+        if (old != NONE && keys[old].equals(key)) {
+            return old;
+        }
+        if (old != NONE) {
+            weights[old] -= bookBorrows[bookId];
+            if (--refs[old] == 0) {
+                unused++;
+            }
+            withdraw(old);
+        }
+        int id = completion(kind, key, text);
+        use(id, bookId);
+        return id;
+    }
+
+    /**
+     * Rebuild the top lists on the paths of a completion whose weight dropped
+     *
+     * Deeper nodes first, so every node is rebuilt from up-to-date children.
+     */
+    private void withdraw(int id) {
+        String key = keys[id];
+        // depth << 32 | node, sorted so the deepest come last
+        long[] path = new long[16];
+        int size = 0;
+        for (int start : wordStarts(key)) {
+            int node = ROOT;
+            int matched = start;
+            while (matched < key.length()) {
+                node = child(node, key.charAt(matched));
+                matched += labelLength(node);
+                if (size == path.length) {
+                    path = Arrays.copyOf(path, size * 2);
+                }
+                path[size++] = ((long) (matched - start) << 32) | node;
+            }
+        }
+        Arrays.sort(path, 0, size);
+        for (int i = size - 1; i >= 0; i--) {
+            if (i == size - 1 || path[i] != path[i + 1]) {
+                rebuildTop((int) path[i]);
+            }
+        }
+        rebuildTop(ROOT);
+    }
+
+    /**
+     * Recompute a node's top list from its children's lists and the
+     * completions ending at the node, leaving out unused completions
+     */
+    private void rebuildTop(int node) {
+        int[] best = new int[TOP_K];
+        int size = 0;
+        // The current list first, so ties keep their order
+        for (int i = 0; i < topSize[node]; i++) {
+            size = rank(best, size, top(node, i));
+        }
+        if (node != ROOT && labelEnd[node] == keys[labelKey[node]].length()) {
+            size = rank(best, size, labelKey[node]);
+        }
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            if (labelLength(child) == 0) {
+                size = rank(best, size, labelKey[child]);
+            }
+            for (int i = 0; i < topSize[child]; i++) {
+                size = rank(best, size, top(child, i));
+            }
+        }
+        if (size > topCapacity[node]) {
+            growTop(node, size == 1 ? 1 : size <= 2 ? 2 : size <= 4 ? 4 : TOP_K);
+        }
+        topSize[node] = (byte) size;
+        for (int i = 0; i < size; i++) {
+            setTop(node, i, best[i]);
+        }
+    }
+
+    /**
+     * Add a used completion to a list sorted by weight, keeping at most TOP_K
+     *
+     * @return New size of the list
+     */
+    private int rank(int[] best, int size, int id) {
+        if (refs[id] == 0) {
+            return size;
+        }
+        for (int i = 0; i < size; i++) {
+            if (best[i] == id) {
+                return size;
+            }
+        }
+        int position = size;
+        while (position > 0 && weights[id] > weights[best[position - 1]]) {
+            position--;
+        }
+        if (position == TOP_K) {
+            return size;
+        }
+        int moved = Math.min(size, TOP_K - 1) - position;
+        System.arraycopy(best, position, best, position + 1, moved);
+        best[position] = id;
+        return Math.min(size + 1, TOP_K);
+    }
+
+    /**
+     * Insert keys[id] from a word start, splitting an edge where it diverges
+     */
+    private void insert(int id, int start) {
+        String key = keys[id];
+        int node = ROOT;
+        int matched = start;
+        while (matched < key.length()) {
+            int child = child(node, key.charAt(matched));
+            if (child == NONE) {
+                int leaf = newNode(id, matched, key.length());
+                nextSibling[leaf] = firstChild[node];
+                firstChild[node] = leaf;
+                return;
+            }
+            int common = commonPrefix(child, key, matched);
+            if (common < labelLength(child)) {
+                // Split: node -> middle (common part) -> child (rest); middle covers the same completions
+                int middle = newNode(labelKey[child], labelStart[child], labelStart[child] + common);
+                replaceChild(node, child, middle);
+                firstChild[middle] = child;
+                labelStart[child] += common;
+                copyTop(child, middle);
+                child = middle;
+            }
+            matched += common;
+            node = child;
+        }
+        // The key ends at an existing node: mark it with an empty-label child
+        int terminal = newNode(id, key.length(), key.length());
+        nextSibling[terminal] = firstChild[node];
+        firstChild[node] = terminal;
+    }
+
+    /**
+     * Offer a completion whose weight grew to every node on its paths
+     */
+    private void offer(int id) {
+        String key = keys[id];
+        offer(ROOT, id);
+        for (int start : wordStarts(key)) {
+            int node = ROOT;
+            int matched = start;
+            while (matched < key.length()) {
+                node = child(node, key.charAt(matched));
+                matched += labelLength(node);
+                offer(node, id);
+            }
+        }
+    }
+
+    /**
+     * Keep a completion in a node's top list if it belongs there, re-sorting by weight
+     */
+    private void offer(int node, int id) {
+        int size = topSize[node];
+        int position = NONE;
+        for (int i = 0; i < size; i++) {
+            if (top(node, i) == id) {
+                position = i;
+                break;
+            }
+        }
+        if (position == NONE) {
+            if (size < TOP_K) {
+                if (size == topCapacity[node]) {
+                    growTop(node, size == 0 ? 1 : size < 4 ? size * 2 : TOP_K);
+                }
+                position = size;
+                topSize[node]++;
+            } else if (weights[id] > weights[top(node, size - 1)]) {
+                position = size - 1;
+            } else {
+                return;
+            }
+            setTop(node, position, id);
+        }
+        // Bubble up: weights only grow (ties keep insertion order)
+        while (position > 0 && weights[top(node, position)] > weights[top(node, position - 1)]) {
+            int swap = top(node, position - 1);
+            setTop(node, position - 1, top(node, position));
+            setTop(node, position, swap);
+            position--;
+        }
+    }
+
+    private int top(int node, int i) {
+        return topCapacity[node] == 1 ? topStart[node] : topPool[topStart[node] + i];
+    }
+
+    private void setTop(int node, int i, int id) {
+        if (topCapacity[node] == 1) {
+            topStart[node] = id;
+        } else {
+            topPool[topStart[node] + i] = id;
+        }
+    }
+
+    private int newNode(int key, int start, int end) {
+        int node = nodeCount++;
+        if (node == labelKey.length) {
+            int capacity = grow(node);
+            labelKey = Arrays.copyOf(labelKey, capacity);
+            labelStart = Arrays.copyOf(labelStart, capacity);
+            labelEnd = Arrays.copyOf(labelEnd, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            topStart = Arrays.copyOf(topStart, capacity);
+            topSize = Arrays.copyOf(topSize, capacity);
+            topCapacity = Arrays.copyOf(topCapacity, capacity);
+        }
+        labelKey[node] = key;
+        labelStart[node] = start;
+        labelEnd[node] = end;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        topStart[node] = 0;
+        topSize[node] = 0;
+        topCapacity[node] = 0;
+        return node;
+    }
+
+    /**
+     * Give a node's top list a larger capacity: inline for 1, otherwise a new
+     * slice of the pool (an outgrown slice is not reused)
+     */
+    private void growTop(int node, int capacity) {
+        if (capacity > 1) {
+            if (topPoolSize + capacity > topPool.length) {
+                topPool = Arrays.copyOf(topPool, Math.max(grow(topPool.length), topPoolSize + capacity));
+            }
+            for (int i = 0; i < topSize[node]; i++) {
+                topPool[topPoolSize + i] = top(node, i);
+            }
+            topStart[node] = topPoolSize;
+            topPoolSize += capacity;
+        }
+        topCapacity[node] = (byte) capacity;
+    }
+
+    private void copyTop(int from, int to) {
+        growTop(to, topCapacity[from]);
+        topSize[to] = topSize[from];
+        for (int i = 0; i < topSize[from]; i++) {
+            setTop(to, i, top(from, i));
+        }
+    }
+
+    private void ensureBook(int bookId) {
+        if (bookId >= bookBorrows.length) {
+            int capacity = Math.max(bookId + 1, grow(bookBorrows.length));
+            int from = bookBorrows.length;
+            bookBorrows = Arrays.copyOf(bookBorrows, capacity);
+            bookTitle = Arrays.copyOf(bookTitle, capacity);
+            bookAuthor = Arrays.copyOf(bookAuthor, capacity);
+            Arrays.fill(bookTitle, from, capacity, NONE);
+            Arrays.fill(bookAuthor, from, capacity, NONE);
+        }
+    }
+
+    /**
+     * Next array capacity (x1.5, so large tries waste less)
+     */
+    private static int grow(int capacity) {
+        return Math.max(16, capacity + (capacity >> 1));
+    }
+
+    /**
+     * Offsets of the first MAX_WORD_STARTS words of a key
+     */
+    private static int[] wordStarts(String key) {
+        int[] starts = new int[MAX_WORD_STARTS];
+        int size = 0;
+        for (int start = 0; start < key.length() && size < MAX_WORD_STARTS; start++) {
+            if (start == 0 || key.charAt(start - 1) == ' ') {
+                starts[size++] = start;
+            }
+        }
+        return size == starts.length ? starts : Arrays.copyOf(starts, size);
+    }
+
+    private int child(int node, char first) {
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            if (labelLength(child) > 0 && keys[labelKey[child]].charAt(labelStart[child]) == first) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    private void replaceChild(int node, int child, int replacement) {
+        nextSibling[replacement] = nextSibling[child];
+        nextSibling[child] = NONE;
+        if (firstChild[node] == child) {
+            firstChild[node] = replacement;
+            return;
+        }
+        int previous = firstChild[node];
+        while (nextSibling[previous] != child) {
+            previous = nextSibling[previous];
+        }
+        nextSibling[previous] = replacement;
+    }
+
+    private int labelLength(int node) {
+        return labelEnd[node] - labelStart[node];
+    }
+
+    /**
+     * Length of the common prefix of a node's label and text[offset..]
+     */
+    private int commonPrefix(int node, String text, int offset) {
+        String key = keys[labelKey[node]];
+        int start = labelStart[node];
+        int max = Math.min(labelLength(node), text.length() - offset);
+        int i = 0;
+        while (i < max && key.charAt(start + i) == text.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * A completion: title or author name with its number of loans
+     */
+    public static class Suggestion {
+
+        private final String text;
+        private final String kind;
+        private final long borrows;
+
+        public Suggestion(String text, String kind, long borrows) {
+            this.text = text;
+            this.kind = kind;
+            this.borrows = borrows;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * title or author
+         */
+        public String getKind() {
+            return kind;
+        }
+
+        public long getBorrows() {
+            return borrows;
+        }
+    }
+}
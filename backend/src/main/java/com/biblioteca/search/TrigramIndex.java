@@ -0,0 +1,495 @@
+package com.biblioteca.search;
+
+import com.biblioteca.patterns.factory.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * TrigramIndex
+ * Typo-tolerant search over titles and authors
+ *
+ * Each folded title and author (SearchKeys) is padded with spaces and split
+ * into overlapping 3-character grams; the index keeps, per trigram, the
+ * sorted list of fields (documents) containing it.
+ *
+ * A search:
+ * 1. Splits the folded term into trigrams; a field is a candidate if it
+ *    shares at least MIN_OVERLAP of them
+ * 2. Counts the shared trigrams of every field in one pass over the term's
+ *    posting lists, into a pooled byte counter (no boxing, no sorting),
+ *    and picks the MAX_VERIFIED fields sharing the most by counting sort
+ * 3. Verifies the best candidates with an edit distance bounded by the term
+ *    length (the term may match anywhere inside the field)
+ *
+ * Matches are ranked by edit distance, then by trigram overlap, and
+ * reported once per book (its best field).
+ *
+ * A counter holds a byte per indexed field, so counters are borrowed from
+ * a small bounded pool rather than kept per thread: requests run on
+ * virtual threads, and one counter per thread would grow with the number
+ * of requests served. A search finding the pool empty uses a throwaway
+ * counter.
+ *
+ * A re-indexed field (update()) is dropped from its posting lists and
+ * indexed again as a new document; its old document number stays unused.
+ */
+public class TrigramIndex {
+
+    public static final String TITLE = "title";
+    public static final String AUTHOR = "author";
+
+    // Minimum share of the term's trigrams a field must contain
+    private static final double MIN_OVERLAP = 0.3;
+
+    // Candidates verified with the edit distance, best trigram overlap first
+    private static final int MAX_VERIFIED = 200;
+
+    // Longer terms are cut (the edit distance is quadratic in the length; counts fit a byte)
+    private static final int MAX_TERM_LENGTH = 64;
+
+    // Shared-trigram counters kept for reuse across searches
+    private static final int POOLED_COUNTERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final BlockingQueue<Counter> counters = new ArrayBlockingQueue<>(POOLED_COUNTERS);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // document -> indexed field; documents are numbered in insertion order
+    private final List<Field> documents = new ArrayList<>();
+
+    // trigram (3 chars packed in a long) -> documents containing it
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    // Documents dropped by update() (null entries of documents)
+    private int removed;
+
+    /**
+     * Index the title and author of a new book
+     *
+     * @param book Book to index
+     * @param keys Folded search keys of the book
+     */
+    public void add(Book book, SearchKeys keys) {
+        lock.writeLock().lock();
+        try {
+            addField(book, TITLE, keys.getTitle());
+            addField(book, AUTHOR, keys.getAuthor());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-index the title and author of a book whose keys changed
+     *
+     * @param book Indexed book
+     * @param old Keys the book was indexed with
+     * @param keys New keys of the book
+     */
+    public void update(Book book, SearchKeys old, SearchKeys keys) {
+        lock.writeLock().lock();
+        try {
+            if (!old.getTitle().equals(keys.getTitle())) {
+                removeField(book, TITLE, old.getTitle());
+                addField(book, TITLE, keys.getTitle());
+            }
+            if (!old.getAuthor().equals(keys.getAuthor())) {
+                removeField(book, AUTHOR, old.getAuthor());
+                addField(book, AUTHOR, keys.getAuthor());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the books whose title or author approximately contains a term
+     *
+     * @param term Search term (folded here)
+     * @param limit Maximum number of matches
+     * @return Matches, best first
+     */
+    public List<FuzzyMatch> search(String term, int limit) {
+        String folded = SearchKeys.fold(term);
+        if (folded.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (folded.length() > MAX_TERM_LENGTH) {
+            folded = folded.substring(0, MAX_TERM_LENGTH);
+        }
+        long[] grams = trigrams(folded);
+        int minShared = Math.max(1, (int) Math.ceil(grams.length * MIN_OVERLAP));
+        int maxDistance = maxDistance(folded.length());
+
+        Counter counter = borrowCounter();
+        lock.readLock().lock();
+        try {
+            // 1. Shared trigrams per field: one pass over each posting list into a dense counter
+            counter.reset(documents.size());
+            for (long gram : grams) {
+                Postings p = postings.get(gram);
+                if (p != null) {
+                    for (int i = 0; i < p.size; i++) {
+                        counter.increment(p.docs[i]);
+                    }
+                }
+            }
+
+            // 2. Candidates: fields sharing at least minShared trigrams, best first, at most MAX_VERIFIED
+            List<Candidate> candidates = counter.top(minShared, grams.length, MAX_VERIFIED);
+
+            // 3. Verify with the bounded edit distance, keeping the best field per book
+            Map<Integer, FuzzyMatch> best = new LinkedHashMap<>();
+            for (Candidate candidate : candidates) {
+                Field field = documents.get(candidate.doc);
+                int distance = substringDistance(folded, field.text, maxDistance);
+                if (distance > maxDistance) {
+                    continue;
+                }
+                double score = 1.0 - (double) distance / folded.length();
+                FuzzyMatch match = new FuzzyMatch(field.book, field.name, distance,
+                        Math.round(score * 1000) / 1000.0, (double) candidate.shared / grams.length);
+                best.merge(field.book.getId(), match, (a, b) -> RANKING.compare(a, b) <= 0 ? a : b);
+            }
+
+            List<FuzzyMatch> matches = new ArrayList<>(best.values());
+            matches.sort(RANKING);
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        } finally {
+            lock.readLock().unlock();
+            counters.offer(counter);
+        }
+    }
+
+    /**
+     * Number of indexed fields
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size() - removed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove all books
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            removed = 0;
+            counters.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A counter from the pool, or a new one if all are in use
+     */
+    private Counter borrowCounter() {
+        Counter counter = counters.poll();
+        return counter != null ? counter : new Counter();
+    }
+
+    private void addField(Book book, String name, String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        int doc = documents.size();
+        documents.add(new Field(book, name, text));
+        for (long gram : trigrams(text)) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(doc);
+        }
+    }
+
+    /**
+     * Drop the document of a field from the posting lists of its text
+     */
+    private void removeField(Book book, String name, String text) {
+        long[] grams = trigrams(text);
+        // The document is listed under every trigram of its text; look for it in the shortest list
+        Postings shortest = null;
+        for (long gram : grams) {
+            Postings p = postings.get(gram);
+            if (p == null) {
+                return;
+            }
+            if (shortest == null || p.size < shortest.size) {
+                shortest = p;
+            }
+        }
+        if (shortest == null) {
+            return;
+        }
+        int doc = -1;
+        for (int i = 0; i < shortest.size && doc < 0; i++) {
+            Field field = documents.get(shortest.docs[i]);
+            if (field.book == book && field.name.equals(name)) {
+                doc = shortest.docs[i];
+            }
+        }
+        if (doc < 0) {
+            return;
+        }
+        for (long gram : grams) {
+            Postings p = postings.get(gram);
+            if (p.remove(doc) && p.size == 0) {
+                postings.remove(gram);
+            }
+        }
+        documents.set(doc, null);
+        removed++;
+    }
+
+    /**
+     * Distinct trigrams of a text padded with one space on each side
+     */
+    private static long[] trigrams(String text) {
+        String padded = " " + text + " ";
+        long[] grams = new long[Math.max(0, padded.length() - 2)];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        // Sort and drop repeats in place (no boxing, unlike a stream's distinct())
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return distinct == grams.length ? grams : Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Edits allowed for a term: 1 up to 4 characters, then one per 4 characters (at most 4)
+     */
+    private static int maxDistance(int length) {
+        return Math.max(1, Math.min(4, length / 4));
+    }
+
+    /**
+     * Edit distance between a term and its best-matching substring of a text
+     *
+     * Standard Levenshtein rows, except that the term may start at any
+     * position of the text (first row all zeros) and end at any position
+     * (minimum of the last row).
+     *
+     * @return The distance, or bound + 1 if it is larger than bound
+     */
+    private static int substringDistance(String term, String text, int bound) {
+        int m = term.length();
+        int n = text.length();
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i;
+        }
+        int best = previous[m];
+        for (int j = 1; j <= n; j++) {
+            current[0] = 0;
+            char c = text.charAt(j - 1);
+            for (int i = 1; i <= m; i++) {
+                int cost = term.charAt(i - 1) == c ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+            }
+            best = Math.min(best, current[m]);
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(best, bound + 1);
+    }
+
+    // Fewer edits first, then more trigram overlap, then title before author
+    private static final Comparator<FuzzyMatch> RANKING = Comparator
+            .comparingInt(FuzzyMatch::getDistance)
+            .thenComparing(Comparator.comparingDouble(FuzzyMatch::getOverlap).reversed())
+            .thenComparing(match -> AUTHOR.equals(match.getField()));
+
+    /**
+     * Growable sorted int array of documents
+     */
+    private static class Postings {
+
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        /**
+         * @return false if the document was not listed
+         */
+        boolean remove(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * An indexed title or author
+     */
+    private static class Field {
+
+        private final Book book;
+        private final String name;
+        private final String text;
+
+        Field(Book book, String name, String text) {
+            this.book = book;
+            this.name = name;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Dense per-document counter of shared trigrams
+     *
+     * Only the documents touched by a search are reset afterwards, so a
+     * search costs the length of its posting lists, not the catalog size.
+     */
+    private static class Counter {
+
+        private byte[] counts = new byte[0];
+        private int[] touched = new int[64];
+        private int touchedSize;
+
+        Counter reset(int documents) {
+            for (int i = 0; i < touchedSize; i++) {
+                counts[touched[i]] = 0;
+            }
+            touchedSize = 0;
+            if (counts.length < documents) {
+                counts = new byte[Math.max(documents, counts.length * 2)];
+            }
+            return this;
+        }
+
+        void increment(int doc) {
+            if (counts[doc]++ == 0) {
+                if (touchedSize == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedSize * 2);
+                }
+                touched[touchedSize++] = doc;
+            }
+        }
+
+        /**
+         * Documents with at least min shared trigrams, most shared first, at most limit
+         */
+        List<Candidate> top(int min, int max, int limit) {
+            int[] histogram = new int[max + 1];
+            for (int i = 0; i < touchedSize; i++) {
+                histogram[counts[touched[i]]]++;
+            }
+            int cutoff = max;
+            int selected = histogram[max];
+            while (cutoff > min && selected < limit) {
+                selected += histogram[--cutoff];
+            }
+
+            // Everything above the cutoff fits the limit; fill the rest from the cutoff bucket
+            List<Candidate> result = new ArrayList<>(Math.min(selected, limit));
+            int atCutoff = limit - (selected - histogram[cutoff]);
+            for (int i = 0; i < touchedSize; i++) {
+                int shared = counts[touched[i]];
+                if (shared > cutoff || (shared == cutoff && atCutoff-- > 0)) {
+                    result.add(new Candidate(touched[i], shared));
+                }
+            }
+            result.sort(Comparator.comparingInt((Candidate c) -> c.shared).reversed());
+            return result;
+        }
+    }
+
+    /**
+     * A field sharing enough trigrams with the term
+     */
+    private static class Candidate {
+
+        private final int doc;
+        private final int shared;
+
+        Candidate(int doc, int shared) {
+            this.doc = doc;
+            this.shared = shared;
+        }
+    }
+
+    /**
+     * A book approximately matching a term
+     */
+    public static class FuzzyMatch {
+
+        private final Book book;
+        private final String field;
+        private final int distance;
+        private final double score;
+        private final double overlap;
+
+        public FuzzyMatch(Book book, String field, int distance, double score, double overlap) {
+            this.book = book;
+            this.field = field;
+            this.distance = distance;
+            this.score = score;
+            this.overlap = overlap;
+        }
+
+        public Book getBook() {
+            return book;
+        }
+
+        /**
+         * Field that matched: title or author
+         */
+        public String getField() {
+            return field;
+        }
+
+        /**
+         * Edits between the term and the closest part of the field
+         */
+        public int getDistance() {
+            return distance;
+        }
+
+        /**
+         * Similarity in [0, 1]: 1 - distance / term length
+         */
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * Share of the term's trigrams found in the field
+         */
+        public double getOverlap() {
+            return overlap;
+        }
+    }
+}
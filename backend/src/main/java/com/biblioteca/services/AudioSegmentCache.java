@@ -0,0 +1,231 @@
+package com.biblioteca.services;
+
+import com.biblioteca.services.ContentStore.StoredFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AudioSegmentCache
+ * Shared cache of memory-mapped audiobook segments
+ *
+ * Audio files are split into fixed-size segments (biblioteca.audio.segment-size,
+ * 1 MiB by default). A segment is mapped read-only the first time any listener
+ * needs it and kept in an LRU shared by all listeners
+ * (biblioteca.audio.cache-segments entries), so the hot parts of popular
+ * titles are served from the page cache without a read or copy on the heap.
+ *
+ * Each file is opened once and its FileChannel kept open; a channel (and the
+ * segments mapped from it) is replaced when the file's size or modification
+ * time changes.
+ *
+ * Hits and misses are counted in library.audio.segments{result=hit|miss}.
+ */
+@Service
+public class AudioSegmentCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AudioSegmentCache.class);
+
+    @Value("${biblioteca.audio.segment-size:1048576}")
+    private int segmentSize;
+
+    @Value("${biblioteca.audio.cache-segments:256}")
+    private int maxSegments;
+
+    // Open audio files: path -> channel for the current version of the file
+    private final Map<Path, OpenFile> files = new ConcurrentHashMap<>();
+
+    // Mapped segments in access order; guarded by its own monitor
+    private final LinkedHashMap<SegmentKey, MappedByteBuffer> segments = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SegmentKey, MappedByteBuffer> eldest) {
+            return size() > maxSegments;
+        }
+    };
+
+    private final Counter hits = Metrics.counter("library.audio.segments", "result", "hit");
+    private final Counter misses = Metrics.counter("library.audio.segments", "result", "miss");
+
+    /**
+     * Write a byte range of an audio file
+     *
+     * @param file Audio file
+     * @param start First byte (inclusive)
+     * @param end Last byte (inclusive)
+     * @param out Destination
+     */
+    public void write(StoredFile file, long start, long end, WritableByteChannel out) throws IOException {
+        OpenFile openFile = open(file);
+        long position = start;
+        while (position <= end) {
+            int index = (int) (position / segmentSize);
+            long segmentStart = (long) index * segmentSize;
+
+            ByteBuffer segment = segment(openFile, index).duplicate();
+            segment.limit((int) Math.min(segment.capacity(), end - segmentStart + 1));
+            segment.position((int) (position - segmentStart));
+
+            position += segment.remaining();
+            while (segment.hasRemaining()) {
+                out.write(segment);
+            }
+        }
+    }
+
+    /**
+     * Number of mapped segments currently cached
+     */
+    public int size() {
+        synchronized (segments) {
+            return segments.size();
+        }
+    }
+
+    /**
+     * Get the open channel for the current version of a file
+     */
+    private OpenFile open(StoredFile file) throws IOException {
+        OpenFile current = files.get(file.getPath());
+        if (current != null && current.matches(file)) {
+            return current;
+        }
+        try {
+            return files.compute(file.getPath(), (path, existing) -> {
+                if (existing != null && existing.matches(file)) {
+                    return existing;
+                }
+                if (existing != null) {
+                    evict(existing);
+                }
+                try {
+                    log.debug("🎧 Opening audio file {}", path);
+                    return new OpenFile(FileChannel.open(path, StandardOpenOption.READ), file);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Get a mapped segment, mapping it on a miss
+     */
+    private MappedByteBuffer segment(OpenFile file, int index) throws IOException {
+        SegmentKey key = new SegmentKey(file, index);
+        synchronized (segments) {
+            MappedByteBuffer cached = segments.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+
+        // Map outside the lock; a concurrent miss on the same segment just maps it twice
+        misses.increment();
+        long offset = (long) index * segmentSize;
+        long length = Math.min(segmentSize, file.size - offset);
+        MappedByteBuffer mapped = file.channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+
+        synchronized (segments) {
+            MappedByteBuffer existing = segments.putIfAbsent(key, mapped);
+            return existing != null ? existing : mapped;
+        }
+    }
+
+    /**
+     * Drop the segments of a replaced file and close its channel
+     */
+    private void evict(OpenFile file) {
+        synchronized (segments) {
+            segments.keySet().removeIf(key -> key.file == file);
+        }
+        close(file);
+    }
+
+    /**
+     * Close all open channels on shutdown
+     */
+    @PreDestroy
+    private void closeAll() {
+        synchronized (segments) {
+            segments.clear();
+        }
+        files.values().forEach(this::close);
+        files.clear();
+    }
+
+    private void close(OpenFile file) {
+        try {
+            file.channel.close();
+        } catch (IOException e) {
+            log.warn("⚠️ Error closing audio file: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * An open audio file and the version (size, modification time) it was opened at
+     */
+    private static class OpenFile {
+
+        private final FileChannel channel;
+        private final long size;
+        private final long lastModified;
+
+        OpenFile(FileChannel channel, StoredFile file) {
+            this.channel = channel;
+            this.size = file.getSize();
+            this.lastModified = file.getLastModified();
+        }
+
+        boolean matches(StoredFile file) {
+            return size == file.getSize() && lastModified == file.getLastModified();
+        }
+    }
+
+    /**
+     * Cache key: segment index within one version of a file
+     */
+    private static class SegmentKey {
+
+        private final OpenFile file;
+        private final int index;
+
+        SegmentKey(OpenFile file, int index) {
+            this.file = file;
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SegmentKey)) return false;
+            SegmentKey other = (SegmentKey) o;
+            return file == other.file && index == other.index;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(file) + index;
+        }
+    }
+}
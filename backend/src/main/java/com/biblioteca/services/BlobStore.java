@@ -0,0 +1,385 @@
+package com.biblioteca.services;
+
+import com.google.gson.Gson;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * BlobStore
+ * Content-addressed, deduplicated storage for book files
+ *
+ * Uploaded files are split into fixed-size chunks (biblioteca.blobs.chunk-size,
+ * 1 MiB by default). Each chunk is stored once under its SHA-256:
+ * - blobs/chunks/{ab}/{sha256} - chunk content
+ * - blobs/manifests/{bookId}.json - chunk list, size, format and file SHA-256
+ *
+ * Alternate editions that share a file, and repeated uploads, reference the
+ * same chunks: a chunk that already exists is hashed but not written again.
+ *
+ * Every manifest holds one reference to each of its chunks. Reference counts
+ * are kept in memory, rebuilt from the manifests on startup (which also
+ * removes unreferenced chunks), and a chunk is deleted when its count drops
+ * to zero. Chunks are pinned while an upload is in progress, so a concurrent
+ * replacement cannot delete a chunk the upload has already counted on.
+ */
+@Service
+public class BlobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobStore.class);
+
+    @Value("${biblioteca.content.dir:data/content}")
+    private String contentDir;
+
+    @Value("${biblioteca.blobs.chunk-size:1048576}")
+    private int chunkSize;
+
+    private final Gson gson = new Gson();
+
+    private Path chunksDir;
+    private Path manifestsDir;
+
+    // chunk sha256 -> number of references (manifests plus in-progress uploads); guarded by itself
+    private final Map<String, Integer> refCounts = new HashMap<>();
+
+    /**
+     * Create the blob directories and rebuild reference counts on startup
+     */
+    @PostConstruct
+    private void init() {
+        Path root = Paths.get(contentDir, "blobs").toAbsolutePath().normalize();
+        this.chunksDir = root.resolve("chunks");
+        this.manifestsDir = root.resolve("manifests");
+        try {
+            Files.createDirectories(chunksDir);
+            Files.createDirectories(manifestsDir);
+            rebuildRefCounts();
+        } catch (IOException e) {
+            log.warn("⚠️ Could not initialize blob store under {}: {}", root, e.getMessage());
+        }
+    }
+
+    /**
+     * Store the file of a book from a stream, replacing its previous file
+     *
+     * Only one chunk is held in memory at a time.
+     *
+     * @param bookId Book ID
+     * @param format File format (PDF, EPUB, ...)
+     * @param contentType MIME type served on download
+     * @param in File content
+     * @return Result of the upload
+     */
+    public UploadResult store(int bookId, String format, String contentType, InputStream in) throws IOException {
+        long start = System.nanoTime();
+        MessageDigest fileDigest = sha256();
+        MessageDigest chunkDigest = sha256();
+        byte[] buffer = new byte[chunkSize];
+
+        List<String> chunks = new ArrayList<>();
+        long size = 0;
+        long bytesWritten = 0;
+        int newChunks = 0;
+        try {
+            int read;
+            while ((read = in.readNBytes(buffer, 0, chunkSize)) > 0) {
+                fileDigest.update(buffer, 0, read);
+                chunkDigest.update(buffer, 0, read);
+                String hash = HexFormat.of().formatHex(chunkDigest.digest());
+
+                chunks.add(hash);
+                if (pin(hash)) {
+                    writeChunk(hash, buffer, read);
+                    bytesWritten += read;
+                    newChunks++;
+                }
+                size += read;
+            }
+        } catch (IOException | RuntimeException e) {
+            release(chunks);
+            throw e;
+        }
+
+        Manifest manifest = new Manifest(bookId, format, contentType, size, chunkSize,
+                HexFormat.of().formatHex(fileDigest.digest()), chunks, System.currentTimeMillis());
+
+        // Swap manifests atomically; the new one keeps the pins, the replaced one gives up its references
+        synchronized (refCounts) {
+            Manifest previous = findManifest(bookId);
+            try {
+                writeManifest(manifest);
+            } catch (IOException e) {
+                release(chunks);
+                throw e;
+            }
+            if (previous != null) {
+                release(previous.getChunks());
+            }
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("📦 Stored {} bytes for book {}: {} chunks, {} new, {} ms",
+                size, bookId, chunks.size(), newChunks, elapsedMs);
+        return new UploadResult(manifest, newChunks, bytesWritten, elapsedMs);
+    }
+
+    /**
+     * Find the manifest of a book's file
+     *
+     * @return The manifest, or null if no file has been uploaded for the book
+     */
+    public Manifest findManifest(int bookId) {
+        Path path = manifestPath(bookId);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            return gson.fromJson(Files.readString(path, StandardCharsets.UTF_8), Manifest.class);
+        } catch (IOException | RuntimeException e) {
+            log.warn("⚠️ Error reading manifest of book {}: {}", bookId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write a byte range of a stored file, chunk by chunk with FileChannel.transferTo
+     *
+     * @param manifest File manifest
+     * @param start First byte (inclusive)
+     * @param end Last byte (inclusive)
+     * @param out Destination
+     */
+    public void write(Manifest manifest, long start, long end, WritableByteChannel out) throws IOException {
+        long position = start;
+        while (position <= end) {
+            int index = (int) (position / manifest.getChunkSize());
+            long chunkStart = (long) index * manifest.getChunkSize();
+            long offset = position - chunkStart;
+            long chunkEnd = Math.min(chunkStart + manifest.getChunkSize() - 1, end);
+
+            try (FileChannel channel = FileChannel.open(chunkPath(manifest.getChunks().get(index)), StandardOpenOption.READ)) {
+                long remaining = chunkEnd - position + 1;
+                while (remaining > 0) {
+                    long transferred = channel.transferTo(offset, remaining, out);
+                    if (transferred <= 0) {
+                        throw new IOException("Chunk " + manifest.getChunks().get(index) + " is truncated");
+                    }
+                    offset += transferred;
+                    remaining -= transferred;
+                }
+            }
+            position = chunkEnd + 1;
+        }
+    }
+
+    /**
+     * Take a reference to a chunk
+     *
+     * @return true if the chunk is not stored yet and has to be written
+     */
+    private boolean pin(String hash) {
+        synchronized (refCounts) {
+            refCounts.merge(hash, 1, Integer::sum);
+            return !Files.exists(chunkPath(hash));
+        }
+    }
+
+    /**
+     * Drop one reference to each chunk, deleting chunks nobody references
+     */
+    private void release(List<String> hashes) {
+        synchronized (refCounts) {
+            for (String hash : hashes) {
+                Integer count = refCounts.computeIfPresent(hash, (key, value) -> value > 1 ? value - 1 : null);
+                if (count == null) {
+                    try {
+                        Files.deleteIfExists(chunkPath(hash));
+                    } catch (IOException e) {
+                        log.warn("⚠️ Could not delete chunk {}: {}", hash, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeChunk(String hash, byte[] buffer, int length) throws IOException {
+        Path target = chunkPath(hash);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer data = ByteBuffer.wrap(buffer, 0, length);
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeManifest(Manifest manifest) throws IOException {
+        Path target = manifestPath(manifest.getBookId());
+        Path temp = Files.createTempFile(manifestsDir, manifest.getBookId() + "-", ".tmp");
+        Files.writeString(temp, gson.toJson(manifest), StandardCharsets.UTF_8);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Count the references of all manifests and delete chunks none of them use
+     */
+    private void rebuildRefCounts() throws IOException {
+        int manifests = 0;
+        synchronized (refCounts) {
+            refCounts.clear();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(manifestsDir, "*.json")) {
+                for (Path path : stream) {
+                    Manifest manifest = gson.fromJson(Files.readString(path, StandardCharsets.UTF_8), Manifest.class);
+                    manifest.getChunks().forEach(hash -> refCounts.merge(hash, 1, Integer::sum));
+                    manifests++;
+                }
+            }
+
+            int orphans = 0;
+            try (Stream<Path> files = Files.walk(chunksDir)) {
+                for (Path path : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    if (!refCounts.containsKey(path.getFileName().toString())) {
+                        Files.deleteIfExists(path);
+                        orphans++;
+                    }
+                }
+            }
+            log.info("📦 Blob store: {} manifests, {} chunks, {} orphans removed",
+                    manifests, refCounts.size(), orphans);
+        }
+    }
+
+    private Path chunkPath(String hash) {
+        return chunksDir.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path manifestPath(int bookId) {
+        return manifestsDir.resolve(bookId + ".json");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Manifest of a stored file: its chunks in order plus file metadata
+     */
+    public static class Manifest {
+
+        private int bookId;
+        private String format;
+        private String contentType;
+        private long size;
+        private int chunkSize;
+        private String sha256;
+        private List<String> chunks;
+        private long uploadedAt;
+
+        public Manifest(int bookId, String format, String contentType, long size, int chunkSize,
+                        String sha256, List<String> chunks, long uploadedAt) {
+            this.bookId = bookId;
+            this.format = format;
+            this.contentType = contentType;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.sha256 = sha256;
+            this.chunks = chunks;
+            this.uploadedAt = uploadedAt;
+        }
+
+        public int getBookId() {
+            return bookId;
+        }
+
+        public String getFormat() {
+            return format;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public List<String> getChunks() {
+            return chunks;
+        }
+
+        public long getUploadedAt() {
+            return uploadedAt;
+        }
+    }
+
+    /**
+     * Outcome of an upload: the manifest plus how much was actually written
+     */
+    public static class UploadResult {
+
+        private final Manifest manifest;
+        private final int newChunks;
+        private final long bytesWritten;
+        private final long elapsedMs;
+
+        public UploadResult(Manifest manifest, int newChunks, long bytesWritten, long elapsedMs) {
+            this.manifest = manifest;
+            this.newChunks = newChunks;
+            this.bytesWritten = bytesWritten;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public Manifest getManifest() {
+            return manifest;
+        }
+
+        public int getNewChunks() {
+            return newChunks;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.biblioteca.services;
+
+import com.biblioteca.patterns.factory.AudioBook;
+import com.biblioteca.patterns.factory.Book;
+import com.biblioteca.patterns.factory.DigitalBook;
+import com.biblioteca.services.BlobStore.Manifest;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+
+/**
+ * ContentStore
+ * Service for locating the content files of digital books and audiobooks
+ *
+ * Layout (under biblioteca.content.dir):
+ * - books/{id}.pdf | books/{id}.epub | books/{id}.mobi - DigitalBook files
+ * - audio/{id}.mp3 | audio/{id}.aac | ... - AudioBook files
+ * - blobs/ - Uploaded files, deduplicated by content (see BlobStore)
+ *
+ * Files are served straight from disk (see BookContentController), so the
+ * store only resolves paths and file metadata; it never reads content.
+ */
+@Service
+public class ContentStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentStore.class);
+
+    @Value("${biblioteca.content.dir:data/content}")
+    private String contentDir;
+
+    private Path booksDir;
+    private Path audioDir;
+
+    /**
+     * Create the content directories on startup
+     */
+    @PostConstruct
+    private void init() {
+        Path root = Paths.get(contentDir).toAbsolutePath().normalize();
+        this.booksDir = root.resolve("books");
+        this.audioDir = root.resolve("audio");
+        try {
+            Files.createDirectories(booksDir);
+            Files.createDirectories(audioDir);
+            log.info("📦 Content store at {}", root);
+        } catch (IOException e) {
+            log.warn("⚠️ Could not create content directories under {}: {}", root, e.getMessage());
+        }
+    }
+
+    /**
+     * Find the file of a digital book
+     *
+     * @param book Digital book
+     * @return File metadata, or null if no file has been stored for the book
+     */
+    public StoredFile findBookFile(DigitalBook book) {
+        String extension = book.getFileFormat() != null ? book.getFileFormat().toLowerCase(Locale.ROOT) : "pdf";
+        return find(booksDir.resolve(book.getId() + "." + extension),
+                contentType(book.getFileFormat()), fileName(book, extension));
+    }
+
+    /**
+     * Find the audio file of an audiobook
+     *
+     * @param book Audiobook
+     * @return File metadata, or null if no file has been stored for the book
+     */
+    public StoredFile findAudioFile(AudioBook book) {
+        String extension = book.getAudioFormat() != null ? book.getAudioFormat().toLowerCase(Locale.ROOT) : "mp3";
+        return find(audioDir.resolve(book.getId() + "." + extension),
+                contentType(book.getAudioFormat()), fileName(book, extension));
+    }
+
+    /**
+     * Describe an uploaded file of a book
+     *
+     * @param book Book
+     * @param manifest Manifest of the uploaded file
+     * @return File metadata; the ETag is the SHA-256 of the content
+     */
+    public StoredFile describe(Book book, Manifest manifest) {
+        String extension = manifest.getFormat() != null ? manifest.getFormat().toLowerCase(Locale.ROOT) : "bin";
+        return new StoredFile(null, manifest.getSize(), manifest.getUploadedAt(), manifest.getContentType(),
+                fileName(book, extension), "\"" + manifest.getSha256() + "\"");
+    }
+
+    /**
+     * MIME type for a file format
+     */
+    public String getContentType(String fileFormat) {
+        return contentType(fileFormat);
+    }
+
+    /**
+     * Read the metadata of a content file
+     */
+    private StoredFile find(Path path, String contentType, String fileName) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            return new StoredFile(path, attributes.size(), attributes.lastModifiedTime().toMillis(),
+                    contentType, fileName);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the directory holding digital book files
+     */
+    public Path getBooksDir() {
+        return booksDir;
+    }
+
+    /**
+     * Get the directory holding audiobook files
+     */
+    public Path getAudioDir() {
+        return audioDir;
+    }
+
+    /**
+     * MIME type for a file format
+     */
+    private String contentType(String fileFormat) {
+        if (fileFormat == null) {
+            return "application/octet-stream";
+        }
+        switch (fileFormat.toUpperCase(Locale.ROOT)) {
+            case "PDF":
+                return "application/pdf";
+            case "EPUB":
+                return "application/epub+zip";
+            case "MOBI":
+                return "application/x-mobipocket-ebook";
+            case "MP3":
+                return "audio/mpeg";
+            case "AAC":
+                return "audio/aac";
+            case "M4A":
+            case "M4B":
+                return "audio/mp4";
+            case "OGG":
+                return "audio/ogg";
+            default:
+                return "application/octet-stream";
+        }
+    }
+
+    /**
+     * Download file name: book title plus extension
+     */
+    private String fileName(Book book, String extension) {
+        String base = book.getTitle() != null ? book.getTitle().replaceAll("[\\\\/:*?\"<>|]", "_") : "book-" + book.getId();
+        return base + "." + extension;
+    }
+
+    /**
+     * A stored content file with the metadata needed to serve it
+     */
+    public static class StoredFile {
+
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+        private final String contentType;
+        private final String fileName;
+        private final String etag;
+
+        public StoredFile(Path path, long size, long lastModified, String contentType, String fileName) {
+            this(path, size, lastModified, contentType, fileName,
+                    "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"");
+        }
+
+        public StoredFile(Path path, long size, long lastModified, String contentType, String fileName, String etag) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+            this.fileName = fileName;
+            this.etag = etag;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * Strong validator: size and modification time, or the content hash for uploaded files
+         */
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
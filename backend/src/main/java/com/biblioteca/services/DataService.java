@@ -1,21 +1,40 @@
 package com.biblioteca.services;
 
+import com.biblioteca.analytics.LoanRollups;
+import com.biblioteca.models.Hold;
 import com.biblioteca.models.User;
 import com.biblioteca.models.Loan;
+import com.biblioteca.monitoring.OperationMetrics;
+import com.biblioteca.monitoring.events.PersistenceEvent;
 import com.biblioteca.patterns.factory.*;
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * DataService
@@ -30,9 +49,19 @@ import java.util.Map;
 @Service
 public class DataService {
 
+    private static final Logger log = LoggerFactory.getLogger(DataService.class);
+
     private final Gson gson;
     private final String dataPath = "data/";
 
+    // One write lock per data file (ReentrantLock does not pin virtual threads)
+    private final Map<String, ReentrantLock> fileLocks = new ConcurrentHashMap<>();
+
+    // Executor for file writes; only present in virtual-thread mode
+    @Autowired(required = false)
+    @Qualifier("persistenceExecutor")
+    private ExecutorService persistenceExecutor;
+
     /**
      * Constructor
      * Initializes Gson with custom adapters for LocalDate and Book polymorphism
@@ -49,15 +78,21 @@ public class DataService {
      * Load users from JSON file
      */
     public List<User> loadUsers() {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
             String filePath = getResourcePath("users.json");
-            String json = new String(Files.readAllBytes(Paths.get(filePath)));
+            byte[] data = Files.readAllBytes(Paths.get(filePath));
+            String json = new String(data, StandardCharsets.UTF_8);
             Type listType = new TypeToken<List<User>>() {}.getType();
             List<User> users = gson.fromJson(json, listType);
-            System.out.println("✅ Loaded " + users.size() + " users from JSON");
+            finish(event, "loadUsers", OperationMetrics.SUCCESS, start, users.size(), data.length);
+            log.debug("✅ Loaded {} users from JSON", users.size());
             return users;
         } catch (Exception e) {
-            System.out.println("⚠️ Error loading users: " + e.getMessage());
+            finish(event, "loadUsers", OperationMetrics.ERROR, start, 0, 0);
+            log.warn("⚠️ Error loading users: {}", e.getMessage());
             return getDefaultUsers();
         }
     }
@@ -66,82 +101,210 @@ public class DataService {
      * Load books from JSON file
      */
     public List<Book> loadBooks() {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
-            String filePath = getResourcePath("books.json");
-            String json = new String(Files.readAllBytes(Paths.get(filePath)));
-            JsonArray jsonArray = JsonParser.parseString(json).getAsJsonArray();
+            Path file = Paths.get(getResourcePath("books.json"));
             List<Book> books = new ArrayList<>();
 
-            for (JsonElement element : jsonArray) {
-                JsonObject bookObj = element.getAsJsonObject();
-                String bookType = bookObj.get("bookType").getAsString();
-
-                Map<String, Object> params = BookFactory.createParams();
-                params.put("title", bookObj.get("title").getAsString());
-                params.put("author", bookObj.get("author").getAsString());
-                params.put("isbn", bookObj.get("isbn").getAsString());
-                params.put("category", bookObj.get("category").getAsString());
-
-                // Type-specific parameters
-                if ("DIGITAL".equals(bookType)) {
-                    params.put("fileFormat", bookObj.has("fileFormat") ? bookObj.get("fileFormat").getAsString() : "PDF");
-                    params.put("fileSizeMB", bookObj.has("fileSizeMB") ? bookObj.get("fileSizeMB").getAsDouble() : 10.0);
-                } else if ("AUDIO".equals(bookType)) {
-                    params.put("narrator", bookObj.has("narrator") ? bookObj.get("narrator").getAsString() : "Unknown");
-                    params.put("durationMinutes", bookObj.has("durationMinutes") ? bookObj.get("durationMinutes").getAsInt() : 300);
-                    params.put("audioFormat", bookObj.has("audioFormat") ? bookObj.get("audioFormat").getAsString() : "MP3");
-                } else if ("EBOOK".equals(bookType)) {
-                    params.put("hasInteractiveContent", bookObj.has("hasInteractiveContent") ? bookObj.get("hasInteractiveContent").getAsBoolean() : false);
-                    params.put("pageCount", bookObj.has("pageCount") ? bookObj.get("pageCount").getAsInt() : 200);
-                    params.put("publisher", bookObj.has("publisher") ? bookObj.get("publisher").getAsString() : "Unknown");
+            // Streamed: a large catalog is never held as a string or JSON tree
+            try (JsonReader in = new JsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    books.add(readBook(in));
                 }
-
-                Book book = BookFactory.createBook(bookType, params);
-                if (bookObj.has("id")) {
-                    book.setId(bookObj.get("id").getAsInt());
-                }
-                if (bookObj.has("available")) {
-                    book.setAvailable(bookObj.get("available").getAsBoolean());
-                }
-                books.add(book);
+                in.endArray();
             }
 
-            System.out.println("✅ Loaded " + books.size() + " books from JSON");
+            finish(event, "loadBooks", OperationMetrics.SUCCESS, start, books.size(), Files.size(file));
+            log.debug("✅ Loaded {} books from JSON", books.size());
             return books;
         } catch (Exception e) {
-            System.out.println("⚠️ Error loading books: " + e.getMessage());
+            finish(event, "loadBooks", OperationMetrics.ERROR, start, 0, 0);
+            log.warn("⚠️ Error loading books: {}", e.getMessage());
             return getDefaultBooks();
         }
     }
 
+    /**
+     * Read one book of books.json
+     * Type-specific fields of the other types are ignored, absent ones take
+     * the factory defaults.
+     */
+    private Book readBook(JsonReader in) throws IOException {
+        BookSpec spec = new BookSpec();
+        Integer id = null;
+        Integer availableCopies = null;
+        Boolean available = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    id = in.nextInt();
+                    break;
+                case "title":
+                    spec.setTitle(in.nextString());
+                    break;
+                case "author":
+                    spec.setAuthor(in.nextString());
+                    break;
+                case "isbn":
+                    spec.setIsbn(in.nextString());
+                    break;
+                case "category":
+                    spec.setCategory(in.nextString());
+                    break;
+                case "bookType":
+                    spec.setBookType(in.nextString());
+                    break;
+                case "totalCopies":
+                    spec.setTotalCopies(in.nextInt());
+                    break;
+                case "availableCopies":
+                    availableCopies = in.nextInt();
+                    break;
+                case "available":
+                    available = in.nextBoolean();
+                    break;
+                case "fileFormat":
+                    spec.setFileFormat(in.nextString());
+                    break;
+                case "fileSizeMB":
+                    spec.setFileSizeMB(in.nextDouble());
+                    break;
+                case "narrator":
+                    spec.setNarrator(in.nextString());
+                    break;
+                case "durationMinutes":
+                    spec.setDurationMinutes(in.nextInt());
+                    break;
+                case "audioFormat":
+                    spec.setAudioFormat(in.nextString());
+                    break;
+                case "hasInteractiveContent":
+                    spec.setHasInteractiveContent(in.nextBoolean());
+                    break;
+                case "pageCount":
+                    spec.setPageCount(in.nextInt());
+                    break;
+                case "publisher":
+                    spec.setPublisher(in.nextString());
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        Book book = BookFactory.createBook(spec);
+        if (id != null) {
+            book.setId(id);
+        }
+        if (availableCopies != null) {
+            book.setAvailableCopies(availableCopies);
+        } else if (available != null) {
+            book.setAvailable(available);
+        }
+        return book;
+    }
+
     /**
      * Load loans from JSON file
      */
     public List<Loan> loadLoans() {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
             String filePath = getResourcePath("loans.json");
-            String json = new String(Files.readAllBytes(Paths.get(filePath)));
+            byte[] data = Files.readAllBytes(Paths.get(filePath));
+            String json = new String(data, StandardCharsets.UTF_8);
             Type listType = new TypeToken<List<Loan>>() {}.getType();
             List<Loan> loans = gson.fromJson(json, listType);
-            System.out.println("✅ Loaded " + loans.size() + " loans from JSON");
-            return loans != null ? loans : new ArrayList<>();
+            // An empty file parses to null
+            if (loans == null) {
+                loans = new ArrayList<>();
+            }
+            finish(event, "loadLoans", OperationMetrics.SUCCESS, start, loans.size(), data.length);
+            log.debug("✅ Loaded {} loans from JSON", loans.size());
+            return loans;
         } catch (Exception e) {
-            System.out.println("⚠️ Error loading loans: " + e.getMessage());
+            finish(event, "loadLoans", OperationMetrics.ERROR, start, 0, 0);
+            log.warn("⚠️ Error loading loans: {}", e.getMessage());
             return new ArrayList<>();
         }
     }
 
+    /**
+     * Load active holds from JSON file
+     */
+    public List<Hold> loadHolds() {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            String filePath = getResourcePath("holds.json");
+            byte[] data = Files.readAllBytes(Paths.get(filePath));
+            String json = new String(data, StandardCharsets.UTF_8);
+            Type listType = new TypeToken<List<Hold>>() {}.getType();
+            List<Hold> holds = gson.fromJson(json, listType);
+            finish(event, "loadHolds", OperationMetrics.SUCCESS, start, holds != null ? holds.size() : 0, data.length);
+            log.debug("✅ Loaded {} holds from JSON", holds != null ? holds.size() : 0);
+            return holds != null ? holds : new ArrayList<>();
+        } catch (Exception e) {
+            finish(event, "loadHolds", OperationMetrics.ERROR, start, 0, 0);
+            log.warn("⚠️ Error loading holds: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Load saved loan rollups from JSON file
+     *
+     * @return The saved tables, or null if there are none
+     */
+    public LoanRollups.Snapshot loadRollups() {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            String filePath = getResourcePath("rollups.json");
+            byte[] data = Files.readAllBytes(Paths.get(filePath));
+            String json = new String(data, StandardCharsets.UTF_8);
+            LoanRollups.Snapshot rollups = gson.fromJson(json, LoanRollups.Snapshot.class);
+            finish(event, "loadRollups", OperationMetrics.SUCCESS, start, rollups != null ? 1 : 0, data.length);
+            log.debug("✅ Loaded loan rollups from JSON");
+            return rollups;
+        } catch (Exception e) {
+            finish(event, "loadRollups", OperationMetrics.ERROR, start, 0, 0);
+            log.warn("⚠️ Error loading loan rollups: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Save users to JSON file
      */
     public void saveUsers(List<User> users) {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
             String json = gson.toJson(users);
-            String filePath = getResourcePath("users.json");
-            Files.write(Paths.get(filePath), json.getBytes());
-            System.out.println("💾 Saved " + users.size() + " users to JSON");
+            byte[] data = json.getBytes(StandardCharsets.UTF_8);
+            writeFile("users.json", data);
+            finish(event, "saveUsers", OperationMetrics.SUCCESS, start, users.size(), data.length);
+            log.debug("💾 Saved {} users to JSON", users.size());
         } catch (Exception e) {
-            System.err.println("❌ Error saving users: " + e.getMessage());
+            finish(event, "saveUsers", OperationMetrics.ERROR, start, 0, 0);
+            log.error("❌ Error saving users: {}", e.getMessage());
         }
     }
 
@@ -149,44 +312,51 @@ public class DataService {
      * Save books to JSON file
      */
     public void saveBooks(List<Book> books) {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
-            JsonArray jsonArray = new JsonArray();
-            for (Book book : books) {
-                JsonObject bookObj = new JsonObject();
-                bookObj.addProperty("id", book.getId());
-                bookObj.addProperty("title", book.getTitle());
-                bookObj.addProperty("author", book.getAuthor());
-                bookObj.addProperty("isbn", book.getIsbn());
-                bookObj.addProperty("category", book.getCategory());
-                bookObj.addProperty("available", book.isAvailable());
-                bookObj.addProperty("bookType", book.getBookType());
-
-                // Add type-specific fields
-                if (book instanceof DigitalBook) {
-                    DigitalBook db = (DigitalBook) book;
-                    bookObj.addProperty("fileFormat", db.getFileFormat());
-                    bookObj.addProperty("fileSizeMB", db.getFileSizeMB());
-                } else if (book instanceof AudioBook) {
-                    AudioBook ab = (AudioBook) book;
-                    bookObj.addProperty("narrator", ab.getNarrator());
-                    bookObj.addProperty("durationMinutes", ab.getDurationMinutes());
-                    bookObj.addProperty("audioFormat", ab.getAudioFormat());
-                } else if (book instanceof EBook) {
-                    EBook eb = (EBook) book;
-                    bookObj.addProperty("hasInteractiveContent", eb.isHasInteractiveContent());
-                    bookObj.addProperty("pageCount", eb.getPageCount());
-                    bookObj.addProperty("publisher", eb.getPublisher());
-                }
+            // Streamed: a large catalog is never held as a JSON tree or string
+            long bytes = writeJsonFile("books.json", out -> {
+                out.beginArray();
+                for (Book book : books) {
+                    out.beginObject();
+                    out.name("id").value(book.getId());
+                    out.name("title").value(book.getTitle());
+                    out.name("author").value(book.getAuthor());
+                    out.name("isbn").value(book.getIsbn());
+                    out.name("category").value(book.getCategory());
+                    out.name("available").value(book.isAvailable());
+                    out.name("totalCopies").value(book.getTotalCopies());
+                    out.name("availableCopies").value(book.getAvailableCopies());
+                    out.name("bookType").value(book.getBookType());
 
-                jsonArray.add(bookObj);
-            }
+                    // Add type-specific fields
+                    if (book instanceof DigitalBook) {
+                        DigitalBook db = (DigitalBook) book;
+                        out.name("fileFormat").value(db.getFileFormat());
+                        out.name("fileSizeMB").value(db.getFileSizeMB());
+                    } else if (book instanceof AudioBook) {
+                        AudioBook ab = (AudioBook) book;
+                        out.name("narrator").value(ab.getNarrator());
+                        out.name("durationMinutes").value(ab.getDurationMinutes());
+                        out.name("audioFormat").value(ab.getAudioFormat());
+                    } else if (book instanceof EBook) {
+                        EBook eb = (EBook) book;
+                        out.name("hasInteractiveContent").value(eb.isHasInteractiveContent());
+                        out.name("pageCount").value(eb.getPageCount());
+                        out.name("publisher").value(eb.getPublisher());
+                    }
 
-            String json = new GsonBuilder().setPrettyPrinting().create().toJson(jsonArray);
-            String filePath = getResourcePath("books.json");
-            Files.write(Paths.get(filePath), json.getBytes());
-            System.out.println("💾 Saved " + books.size() + " books to JSON");
+                    out.endObject();
+                }
+                out.endArray();
+            });
+            finish(event, "saveBooks", OperationMetrics.SUCCESS, start, books.size(), bytes);
+            log.debug("💾 Saved {} books to JSON", books.size());
         } catch (Exception e) {
-            System.err.println("❌ Error saving books: " + e.getMessage());
+            finish(event, "saveBooks", OperationMetrics.ERROR, start, 0, 0);
+            log.error("❌ Error saving books: {}", e.getMessage());
         }
     }
 
@@ -194,13 +364,170 @@ public class DataService {
      * Save loans to JSON file
      */
     public void saveLoans(List<Loan> loans) {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
             String json = gson.toJson(loans);
-            String filePath = getResourcePath("loans.json");
-            Files.write(Paths.get(filePath), json.getBytes());
-            System.out.println("💾 Saved " + loans.size() + " loans to JSON");
+            byte[] data = json.getBytes(StandardCharsets.UTF_8);
+            writeFile("loans.json", data);
+            finish(event, "saveLoans", OperationMetrics.SUCCESS, start, loans.size(), data.length);
+            log.debug("💾 Saved {} loans to JSON", loans.size());
+        } catch (Exception e) {
+            finish(event, "saveLoans", OperationMetrics.ERROR, start, 0, 0);
+            log.error("❌ Error saving loans: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Save active holds to JSON file
+     */
+    public void saveHolds(List<Hold> holds) {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            String json = gson.toJson(holds);
+            byte[] data = json.getBytes(StandardCharsets.UTF_8);
+            writeFile("holds.json", data);
+            finish(event, "saveHolds", OperationMetrics.SUCCESS, start, holds.size(), data.length);
+            log.debug("💾 Saved {} holds to JSON", holds.size());
         } catch (Exception e) {
-            System.err.println("❌ Error saving loans: " + e.getMessage());
+            finish(event, "saveHolds", OperationMetrics.ERROR, start, 0, 0);
+            log.error("❌ Error saving holds: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Save loan rollups to JSON file
+     */
+    public void saveRollups(LoanRollups.Snapshot rollups) {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            String json = gson.toJson(rollups);
+            byte[] data = json.getBytes(StandardCharsets.UTF_8);
+            writeFile("rollups.json", data);
+            finish(event, "saveRollups", OperationMetrics.SUCCESS, start, 1, data.length);
+            log.debug("💾 Saved loan rollups to JSON");
+        } catch (Exception e) {
+            finish(event, "saveRollups", OperationMetrics.ERROR, start, 0, 0);
+            log.error("❌ Error saving loan rollups: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Save loans and books after a borrow or return
+     */
+    public void saveLoansAndBooks(List<Loan> loans, List<Book> books) {
+        saveAll(() -> saveLoans(loans), () -> saveBooks(books));
+    }
+
+    /**
+     * Save loans, books and holds after a borrow or return (which may have
+     * consumed or handed off a held copy). Loan rollups are saved on their
+     * own schedule (see LibraryInitializer).
+     */
+    public void saveCirculation(List<Loan> loans, List<Book> books, List<Hold> holds) {
+        saveAll(() -> saveLoans(loans), () -> saveBooks(books), () -> saveHolds(holds));
+    }
+
+    /**
+     * Save holds and books after a hold took, or gave back, a copy
+     */
+    public void saveHoldsAndBooks(List<Hold> holds, List<Book> books) {
+        saveAll(() -> saveHolds(holds), () -> saveBooks(books));
+    }
+
+    /**
+     * Runs several file writes
+     * With a persistence executor the files are written concurrently,
+     * otherwise they are written one after the other on the caller thread
+     */
+    private void saveAll(Runnable... writes) {
+        if (persistenceExecutor == null) {
+            for (Runnable write : writes) {
+                write.run();
+            }
+            return;
+        }
+
+        List<Future<?>> pending = new ArrayList<>(writes.length);
+        for (Runnable write : writes) {
+            pending.add(persistenceExecutor.submit(write));
+        }
+        try {
+            for (Future<?> write : pending) {
+                write.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("❌ Error saving data files: {}", e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Write a data file, serializing concurrent writers of the same file
+     */
+    private void writeFile(String filename, byte[] data) throws IOException {
+        ReentrantLock lock = fileLocks.computeIfAbsent(filename, f -> new ReentrantLock());
+        lock.lock();
+        try {
+            Files.write(Paths.get(getResourcePath(filename)), data);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write a data file as streamed JSON, pretty-printed like Gson
+     * The JSON goes to a temporary file that then replaces the data file,
+     * so readers never see a half-written file. Concurrent writers of the
+     * same file are serialized.
+     *
+     * @return Bytes written
+     */
+    private long writeJsonFile(String filename, JsonContent content) throws IOException {
+        ReentrantLock lock = fileLocks.computeIfAbsent(filename, f -> new ReentrantLock());
+        lock.lock();
+        try {
+            Path target = Paths.get(getResourcePath(filename));
+            Path temp = target.resolveSibling(filename + ".tmp");
+            try (JsonWriter out = new JsonWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+                out.setIndent("  ");
+                out.setHtmlSafe(true);
+                out.setSerializeNulls(false);
+                content.write(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return Files.size(target);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the JSON of a data file
+     */
+    private interface JsonContent {
+        void write(JsonWriter out) throws IOException;
+    }
+
+    /**
+     * Records latency metrics and commits the JFR persistence event
+     */
+    private void finish(PersistenceEvent event, String operation, String outcome,
+                        long start, int recordCount, long bytes) {
+        OperationMetrics.record(OperationMetrics.PERSISTENCE, operation, outcome, start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.outcome = outcome;
+            event.recordCount = recordCount;
+            event.bytes = bytes;
+            event.commit();
         }
     }
 
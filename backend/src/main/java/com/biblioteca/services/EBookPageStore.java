@@ -0,0 +1,461 @@
+package com.biblioteca.services;
+
+import com.biblioteca.patterns.factory.EBook;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * EBookPageStore
+ * Page-indexed content of EBooks for online reading
+ *
+ * Each EBook has a page file pages/{id}.pages under biblioteca.content.dir:
+ * - Header: magic "BPGS", format version (int), page count (int)
+ * - Offset table: page count + 1 longs, the start of each page blob and
+ *   the end of the last one
+ * - Page blobs: UTF-8 content of each page
+ *
+ * Only the header and offset table are read when a file is opened; pages
+ * are read individually with positional reads on a channel that stays open.
+ *
+ * Read pages are kept in an LRU bounded by total bytes
+ * (biblioteca.pages.cache-bytes). After each page read the next
+ * biblioteca.pages.read-ahead pages in the reader's direction are loaded
+ * into the cache in the background, so page turns come from memory.
+ *
+ * Hits and misses are counted in library.pages.cache{result=hit|miss}.
+ */
+@Service
+public class EBookPageStore {
+
+    private static final Logger log = LoggerFactory.getLogger(EBookPageStore.class);
+
+    private static final int MAGIC = 0x42504753; // "BPGS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+
+    // Readers tracked for read-ahead direction; the map is reset when it grows past this
+    private static final int MAX_TRACKED_READERS = 10_000;
+
+    @Value("${biblioteca.content.dir:data/content}")
+    private String contentDir;
+
+    @Value("${biblioteca.pages.cache-bytes:33554432}")
+    private long maxCacheBytes;
+
+    @Value("${biblioteca.pages.read-ahead:3}")
+    private int readAhead;
+
+    private Path pagesDir;
+
+    private ExecutorService prefetchExecutor;
+
+    // Open page files: path -> channel and offset table for the current version
+    private final Map<Path, PageFile> files = new ConcurrentHashMap<>();
+
+    // Cached pages in access order; guarded by its own monitor
+    private final LinkedHashMap<PageKey, byte[]> pages = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes;
+
+    // Pages being prefetched, so concurrent readers do not load them twice
+    private final Set<PageKey> inFlight = ConcurrentHashMap.newKeySet();
+
+    // Last page read per reader ("username|bookId"), to prefetch in the reading direction
+    private final Map<String, Integer> lastPages = new ConcurrentHashMap<>();
+
+    private final Counter hits = Metrics.counter("library.pages.cache", "result", "hit");
+    private final Counter misses = Metrics.counter("library.pages.cache", "result", "miss");
+
+    /**
+     * Create the pages directory and the prefetch thread on startup
+     */
+    @PostConstruct
+    private void init() {
+        this.pagesDir = Paths.get(contentDir, "pages").toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(pagesDir);
+        } catch (IOException e) {
+            log.warn("⚠️ Could not create pages directory {}: {}", pagesDir, e.getMessage());
+        }
+        this.prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "page-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stop prefetching and close open files on shutdown
+     */
+    @PreDestroy
+    private void shutdown() {
+        prefetchExecutor.shutdownNow();
+        files.values().forEach(this::close);
+        files.clear();
+    }
+
+    /**
+     * Check if an EBook has page content
+     */
+    public boolean hasPages(EBook book) {
+        return Files.isRegularFile(pageFilePath(book));
+    }
+
+    /**
+     * Read a page of an EBook and prefetch the following ones
+     *
+     * @param book EBook
+     * @param pageNumber Page number (1-based)
+     * @param reader Username of the reader, used to track the reading direction
+     * @return The page, or null if the book has no page file or the page does not exist
+     */
+    public Page readPage(EBook book, int pageNumber, String reader) throws IOException {
+        PageFile file = open(pageFilePath(book));
+        if (file == null || pageNumber < 1 || pageNumber > file.pageCount()) {
+            return null;
+        }
+
+        byte[] content = load(file, pageNumber);
+        scheduleReadAhead(file, pageNumber, reader + "|" + book.getId());
+        return new Page(pageNumber, file.pageCount(), new String(content, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write the page file of an EBook, replacing any existing one
+     *
+     * @param book EBook
+     * @param contents Content of each page, in order
+     */
+    public void writePages(EBook book, List<String> contents) throws IOException {
+        byte[][] blobs = new byte[contents.size()][];
+        for (int i = 0; i < blobs.length; i++) {
+            blobs[i] = contents.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + (blobs.length + 1) * Long.BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(blobs.length);
+        long offset = header.capacity();
+        for (byte[] blob : blobs) {
+            header.putLong(offset);
+            offset += blob.length;
+        }
+        header.putLong(offset);
+        header.flip();
+
+        // Write next to the target and move it in place, so readers never see a partial file
+        Path target = pageFilePath(book);
+        Path temp = Files.createTempFile(pagesDir, book.getId() + "-", ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            for (byte[] blob : blobs) {
+                writeFully(channel, ByteBuffer.wrap(blob));
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("📖 Stored {} pages for '{}'", blobs.length, book.getTitle());
+    }
+
+    /**
+     * Get a page from the cache, reading it from the file on a miss
+     */
+    private byte[] load(PageFile file, int pageNumber) throws IOException {
+        PageKey key = new PageKey(file, pageNumber);
+        synchronized (pages) {
+            byte[] cached = pages.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        byte[] content = file.read(pageNumber);
+        cache(key, content);
+        return content;
+    }
+
+    /**
+     * Add a page to the cache, evicting least recently used pages past the byte budget
+     */
+    private void cache(PageKey key, byte[] content) {
+        if (content.length > maxCacheBytes) {
+            return;
+        }
+        synchronized (pages) {
+            byte[] previous = pages.put(key, content);
+            cachedBytes += content.length - (previous != null ? previous.length : 0);
+            Iterator<Map.Entry<PageKey, byte[]>> eldest = pages.entrySet().iterator();
+            while (cachedBytes > maxCacheBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Prefetch the next pages in the reader's direction in the background
+     */
+    private void scheduleReadAhead(PageFile file, int pageNumber, String readerKey) {
+        if (readAhead <= 0) {
+            return;
+        }
+        if (lastPages.size() > MAX_TRACKED_READERS) {
+            lastPages.clear();
+        }
+        Integer previous = lastPages.put(readerKey, pageNumber);
+        int step = previous != null && pageNumber < previous ? -1 : 1;
+
+        for (int i = 1; i <= readAhead; i++) {
+            int next = pageNumber + i * step;
+            if (next < 1 || next > file.pageCount()) {
+                break;
+            }
+            PageKey key = new PageKey(file, next);
+            synchronized (pages) {
+                if (pages.containsKey(key)) {
+                    continue;
+                }
+            }
+            if (inFlight.add(key)) {
+                prefetchExecutor.execute(() -> prefetch(key));
+            }
+        }
+    }
+
+    private void prefetch(PageKey key) {
+        try {
+            cache(key, key.file.read(key.pageNumber));
+        } catch (IOException e) {
+            log.debug("⚠️ Prefetch of page {} failed: {}", key.pageNumber, e.getMessage());
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    /**
+     * Get the open page file for the current version of a path
+     *
+     * @return The page file, or null if it does not exist
+     */
+    private PageFile open(Path path) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        PageFile current = files.get(path);
+        if (current != null && current.matches(attributes.size(), lastModified)) {
+            return current;
+        }
+
+        try {
+            return files.compute(path, (key, existing) -> {
+                if (existing != null && existing.matches(attributes.size(), lastModified)) {
+                    return existing;
+                }
+                if (existing != null) {
+                    evict(existing);
+                }
+                try {
+                    log.debug("📖 Opening page file {}", key);
+                    return PageFile.open(key, attributes.size(), lastModified);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drop the cached pages of a replaced file and close it
+     */
+    private void evict(PageFile file) {
+        synchronized (pages) {
+            Iterator<Map.Entry<PageKey, byte[]>> entries = pages.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<PageKey, byte[]> entry = entries.next();
+                if (entry.getKey().file == file) {
+                    cachedBytes -= entry.getValue().length;
+                    entries.remove();
+                }
+            }
+        }
+        close(file);
+    }
+
+    private void close(PageFile file) {
+        try {
+            file.channel.close();
+        } catch (IOException e) {
+            log.warn("⚠️ Error closing page file: {}", e.getMessage());
+        }
+    }
+
+    private Path pageFilePath(EBook book) {
+        return pagesDir.resolve(book.getId() + ".pages");
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * A page of an EBook
+     */
+    public static class Page {
+
+        private final int number;
+        private final int pageCount;
+        private final String content;
+
+        public Page(int number, int pageCount, String content) {
+            this.number = number;
+            this.pageCount = pageCount;
+            this.content = content;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public int getPageCount() {
+            return pageCount;
+        }
+
+        public String getContent() {
+            return content;
+        }
+    }
+
+    /**
+     * An open page file: its channel, offset table and the version it was opened at
+     */
+    private static class PageFile {
+
+        private final FileChannel channel;
+        private final long[] offsets;
+        private final long size;
+        private final long lastModified;
+
+        private PageFile(FileChannel channel, long[] offsets, long size, long lastModified) {
+            this.channel = channel;
+            this.offsets = offsets;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Open a page file and read its header and offset table
+         */
+        static PageFile open(Path path, long size, long lastModified) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                ByteBuffer header = readAt(channel, 0, HEADER_SIZE);
+                if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                    throw new IOException("Not a page file: " + path);
+                }
+                int pageCount = header.getInt();
+                if (pageCount < 0 || HEADER_SIZE + (pageCount + 1L) * Long.BYTES > size) {
+                    throw new IOException("Corrupt page table: " + path);
+                }
+                ByteBuffer table = readAt(channel, HEADER_SIZE, (pageCount + 1) * Long.BYTES);
+                long[] offsets = new long[pageCount + 1];
+                for (int i = 0; i <= pageCount; i++) {
+                    offsets[i] = table.getLong();
+                }
+                return new PageFile(channel, offsets, size, lastModified);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        int pageCount() {
+            return offsets.length - 1;
+        }
+
+        boolean matches(long size, long lastModified) {
+            return this.size == size && this.lastModified == lastModified;
+        }
+
+        /**
+         * Read the blob of a page (1-based)
+         */
+        byte[] read(int pageNumber) throws IOException {
+            long start = offsets[pageNumber - 1];
+            return readAt(channel, start, (int) (offsets[pageNumber] - start)).array();
+        }
+
+        private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of page file");
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    /**
+     * Cache key: page number within one version of a page file
+     */
+    private static class PageKey {
+
+        private final PageFile file;
+        private final int pageNumber;
+
+        PageKey(PageFile file, int pageNumber) {
+            this.file = file;
+            this.pageNumber = pageNumber;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PageKey)) return false;
+            PageKey other = (PageKey) o;
+            return file == other.file && pageNumber == other.pageNumber;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(file) + pageNumber;
+        }
+    }
+}
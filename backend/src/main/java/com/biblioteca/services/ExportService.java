@@ -0,0 +1,129 @@
+package com.biblioteca.services;
+
+import com.biblioteca.export.ExportFormat;
+import com.biblioteca.export.ExportTable;
+import com.biblioteca.patterns.singleton.LibraryManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Spliterator;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ExportService
+ * Streams books, loans and users to an output stream as CSV or NDJSON
+ *
+ * Books and loans are read from a snapshot of LibraryManager's
+ * copy-on-write lists (bookSnapshot() / loanSnapshot()), so an export
+ * contains exactly the records that existed when it started and never
+ * copies the list. The records themselves are not copied: a loan returned,
+ * or a book borrowed, while the export runs may be written with its new
+ * state.
+ * Records are encoded one at a time into a fixed-size buffer (optionally
+ * through gzip), so memory stays constant whatever the export size.
+ * Users come from users.json, which is read whole (it is small).
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    // Write buffer (and gzip buffer) size
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private DataService dataService;
+
+    private final LibraryManager libraryManager;
+
+    public ExportService() {
+        this.libraryManager = LibraryManager.getInstance();
+    }
+
+    /**
+     * Writes a table to a stream (the stream is flushed, not closed)
+     *
+     * @param table ExportTable.BOOKS, LOANS or USERS
+     * @param format Record format
+     * @param gzip Compress the output
+     * @param out Destination
+     * @return Number of records written
+     * @throws IOException if the destination fails (e.g. client disconnected)
+     */
+    public long export(ExportTable<?> table, ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        if (table == ExportTable.BOOKS) {
+            return write(ExportTable.BOOKS, libraryManager.bookSnapshot(), format, gzip, out);
+        }
+        if (table == ExportTable.LOANS) {
+            return write(ExportTable.LOANS, libraryManager.loanSnapshot(), format, gzip, out);
+        }
+        return write(ExportTable.USERS, dataService.loadUsers().spliterator(), format, gzip, out);
+    }
+
+    private <T> long write(ExportTable<T> table, Spliterator<T> records, ExportFormat format,
+                           boolean gzip, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        FastGzipOutputStream compressed = gzip ? new FastGzipOutputStream(out) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(compressed != null ? compressed : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        long[] count = new long[1];
+        try {
+            format.writeHeader(writer, table.getColumns());
+            records.forEachRemaining(record -> {
+                try {
+                    format.writeRecord(writer, table.getColumns(), table.valuesOf(record));
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            writer.flush();
+            if (compressed != null) {
+                compressed.finish();
+            }
+            out.flush();
+        } catch (UncheckedIOException e) {
+            log.debug("📤 Export of {} aborted after {} records: {}", table.getName(), count[0], e.getMessage());
+            throw e.getCause();
+        } finally {
+            // The destination is not closed, so the deflater is not ended by close()
+            if (compressed != null) {
+                compressed.end();
+            }
+        }
+
+        log.info("📤 Exported {} {} as {}{} in {} ms", count[0], table.getName(), format,
+                gzip ? " (gzip)" : "", (System.nanoTime() - start) / 1_000_000);
+        return count[0];
+    }
+
+    /**
+     * gzip at the fastest level: exports are compressed on the fly, where
+     * throughput matters more than the last few percent of size
+     */
+    private static class FastGzipOutputStream extends GZIPOutputStream {
+        FastGzipOutputStream(OutputStream out) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+
+        /**
+         * Free the deflater's native memory, without closing the destination
+         */
+        void end() {
+            def.end();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.biblioteca.services;
+
+import com.biblioteca.analytics.CoBorrowIndex;
+import com.biblioteca.analytics.LoanRollups;
+import com.biblioteca.analytics.TrendingTracker;
+import com.biblioteca.circulation.HoldManager;
+import com.biblioteca.circulation.LoanLimiter;
+import com.biblioteca.models.Loan;
+import com.biblioteca.patterns.singleton.LibraryManager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LibraryInitializer
+ * Loads the library on startup and runs its background tasks, whatever
+ * the web stack (servlet controllers, or the "reactive" profile)
+ *
+ * Startup, in order:
+ * 1. The catalog
+ * 2. The loans; loans of the last week are replayed into the trending
+ *    counters, and the co-borrow index is rebuilt from the whole history
+ * 3. The holds, so available copies are reconciled against both active
+ *    loans and copies set aside for holders
+ * 4. The per-user active-loan counters, under the configured role limits
+ * 5. The loan rollups: reused if they match the history, otherwise
+ *    rebuilt from it (and saved)
+ *
+ * Background tasks:
+ * - Expired hold claims are swept and their copies passed on
+ * - Loan rollups are saved when loans changed (not on every borrow and
+ *   return), and once more on shutdown; rollups lost to a crash are
+ *   rebuilt from the loan history on the next startup
+ * - Audiobook playback positions are saved in batches (loans.json is
+ *   rewritten at most once per interval, not on every position update),
+ *   and once more on shutdown; a crash loses at most one interval of them
+ */
+@Service
+public class LibraryInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(LibraryInitializer.class);
+
+    @Autowired
+    private DataService dataService;
+
+    @Value("${biblioteca.loans.max-active.admin:-1}")
+    private int maxActiveAdmin;
+
+    @Value("${biblioteca.loans.max-active.user:5}")
+    private int maxActiveUser;
+
+    @Value("${biblioteca.loans.max-active.guest:0}")
+    private int maxActiveGuest;
+
+    @Value("${biblioteca.holds.claim-hours:48}")
+    private long claimHours;
+
+    @Value("${biblioteca.holds.sweep-seconds:60}")
+    private long sweepSeconds;
+
+    @Value("${biblioteca.rollups.save-seconds:300}")
+    private long rollupSaveSeconds;
+
+    @Value("${biblioteca.loans.position-save-seconds:30}")
+    private long positionSaveSeconds;
+
+    private final LibraryManager libraryManager;
+    private final HoldManager holdManager;
+
+    private ScheduledExecutorService scheduler;
+
+    // LibraryManager write version when the rollups were last saved
+    private long rollupsSavedVersion;
+
+    // LibraryManager position version when the loans were last saved for positions
+    private long positionsSavedVersion;
+
+    public LibraryInitializer() {
+        this.libraryManager = LibraryManager.getInstance();
+        this.holdManager = HoldManager.getInstance();
+    }
+
+    /**
+     * Load books, loans, holds and rollups, then start the background tasks
+     */
+    @PostConstruct
+    private void init() {
+        libraryManager.addBooks(dataService.loadBooks());
+
+        List<Loan> loans = dataService.loadLoans();
+        libraryManager.addLoans(loans);
+        TrendingTracker trendingTracker = TrendingTracker.getInstance();
+        LocalDate weekAgo = LocalDate.now().minusDays(7);
+        for (Loan loan : loans) {
+            if (loan.getLoanDate() != null && loan.getLoanDate().isAfter(weekAgo)) {
+                trendingTracker.recordBorrow(loan.getBookId(),
+                        loan.getLoanDate().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        }
+        CoBorrowIndex.getInstance().rebuild(libraryManager::getAllLoans);
+
+        holdManager.setClaimWindow(Duration.ofHours(claimHours));
+        holdManager.load(dataService.loadHolds());
+        libraryManager.reconcileCopies(holdManager.getReadyCounts());
+
+        LoanLimiter loanLimiter = LoanLimiter.getInstance();
+        loanLimiter.setLimit("ADMIN", maxActiveAdmin);
+        loanLimiter.setLimit("USER", maxActiveUser);
+        loanLimiter.setLimit("GUEST", maxActiveGuest);
+        loanLimiter.rebuild(libraryManager.getAllLoans());
+
+        LoanRollups loanRollups = LoanRollups.getInstance();
+        if (!loanRollups.restore(dataService.loadRollups(), libraryManager.getAllLoans())) {
+            loanRollups.rebuild(libraryManager.getAllLoans(), libraryManager::getBookById);
+            dataService.saveRollups(loanRollups.snapshot());
+        }
+        rollupsSavedVersion = libraryManager.getWriteVersion();
+        positionsSavedVersion = libraryManager.getPositionVersion();
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "library-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::expireClaims, sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::saveRollups, rollupSaveSeconds, rollupSaveSeconds, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::savePositions, positionSaveSeconds, positionSaveSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop the background tasks and save rollups and positions one last time on shutdown
+     */
+    @PreDestroy
+    private void shutdown() {
+        scheduler.shutdownNow();
+        saveRollups();
+        savePositions();
+    }
+
+    /**
+     * Pass on the copies of expired hold claims, and save the change
+     */
+    private void expireClaims() {
+        try {
+            if (holdManager.expireClaims(System.currentTimeMillis()) > 0) {
+                dataService.saveHoldsAndBooks(holdManager.getAllHolds(), libraryManager.getAllBooks());
+            }
+        } catch (RuntimeException e) {
+            // Keep the sweep scheduled; the next run retries
+            log.warn("⚠️ Hold expiry sweep failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Save the loan rollups if loans were made or returned since the last save
+     */
+    private synchronized void saveRollups() {
+        long version = libraryManager.getWriteVersion();
+        if (version != rollupsSavedVersion) {
+            dataService.saveRollups(LoanRollups.getInstance().snapshot());
+            rollupsSavedVersion = version;
+        }
+    }
+
+    /**
+     * Save the loans if playback positions moved since the last save
+     *
+     * A borrow or return saving loans.json at the same time may be
+     * overwritten by this older snapshot; the positions then stay marked
+     * unsaved, so the next run writes the file again.
+     */
+    private synchronized void savePositions() {
+        long version = libraryManager.getPositionVersion();
+        if (version == positionsSavedVersion) {
+            return;
+        }
+        long writes = libraryManager.getWriteVersion();
+        dataService.saveLoans(libraryManager.getAllLoans());
+        if (libraryManager.getWriteVersion() == writes) {
+            positionsSavedVersion = version;
+        }
+    }
+}
@@ -77,6 +77,10 @@ function switchTab(tabName) {
         loadAllLoans();
     } else if (tabName === 'statistics') {
         loadStatistics();
+    } else if (tabName === 'activity') {
+        loadActivity();
+    } else if (tabName === 'latency') {
+        loadLatency();
     }
 }
 
@@ -335,6 +339,12 @@ async function loadStatistics() {
         const activeLoans = loans.filter(loan => !loan.returned).length;
         const overdueLoans = loans.filter(loan => loan.overdue && !loan.returned).length;
 
+        // Get loan duration percentiles and distinct borrowers
+        const stats = await API.get('/metrics/statistics');
+        const duration = stats.loanDurationDays || {};
+        const borrowers = stats.distinctBorrowers || {};
+        const days = value => value === null || value === undefined ? '–' : `${value}d`;
+
         // Display statistics
         container.innerHTML = `
             <div class="stat-card">
@@ -353,9 +363,173 @@ async function loadStatistics() {
                 <h3>${overdueLoans}</h3>
                 <p>Overdue Loans</p>
             </div>
+            <div class="stat-card">
+                <h3>${days(duration.p50)} / ${days(duration.p90)} / ${days(duration.p99)}</h3>
+                <p>Loan Duration p50 / p90 / p99</p>
+            </div>
+            <div class="stat-card">
+                <h3>${borrowers.last30Days ?? 0}</h3>
+                <p>Borrowers (30 days)</p>
+            </div>
+            <div class="stat-card">
+                <h3>${borrowers.allTime ?? 0}</h3>
+                <p>Borrowers (all time)</p>
+            </div>
         `;
     } catch (error) {
         console.error('Error loading statistics:', error);
         container.innerHTML = '<div class="empty-state"><h3>Error loading statistics</h3></div>';
     }
 }
+
+/**
+ * Load loan activity (daily loans/returns, categories, book types)
+ */
+async function loadActivity() {
+    const chart = document.getElementById('activityChart');
+    const tables = document.getElementById('activityTables');
+    chart.innerHTML = '<div class="loading">Loading activity...</div>';
+    tables.innerHTML = '';
+
+    try {
+        const data = await API.get('/metrics/loans?days=30');
+
+        if (data.success) {
+            displayActivityChart(data.daily);
+            displayActivityTables(data.categories, data.bookTypes);
+        } else {
+            chart.innerHTML = '<div class="empty-state"><h3>Error loading activity</h3></div>';
+        }
+    } catch (error) {
+        console.error('Error loading activity:', error);
+        chart.innerHTML = '<div class="empty-state"><h3>Error loading activity</h3></div>';
+    }
+}
+
+/**
+ * Draw daily loans and returns as paired bars
+ */
+function displayActivityChart(daily) {
+    const chart = document.getElementById('activityChart');
+    const max = Math.max(1, ...daily.map(day => Math.max(day.loans, day.returns)));
+
+    chart.innerHTML = `
+        <div class="activity-bars">
+            ${daily.map(day => `
+                <div class="activity-day" title="${day.date}: ${day.loans} loans, ${day.returns} returns, ${day.borrowers} borrowers">
+                    <div class="activity-bar loans" style="height: ${day.loans / max * 100}%"></div>
+                    <div class="activity-bar returns" style="height: ${day.returns / max * 100}%"></div>
+                </div>
+            `).join('')}
+        </div>
+        <div class="activity-legend">
+            <span><span class="activity-swatch loans"></span> Loans</span>
+            <span><span class="activity-swatch returns"></span> Returns</span>
+            <span>${daily[0].date} – ${daily[daily.length - 1].date}</span>
+        </div>
+    `;
+}
+
+/**
+ * Display loans and average duration per category and book type
+ */
+function displayActivityTables(categories, bookTypes) {
+    const table = (title, rows) => `
+        <h3>${title}</h3>
+        <table>
+            <thead>
+                <tr>
+                    <th>${title.replace('By ', '')}</th>
+                    <th>Loans</th>
+                    <th>Returns</th>
+                    <th>Avg. Duration (days)</th>
+                </tr>
+            </thead>
+            <tbody>
+                ${rows.map(row => `
+                    <tr>
+                        <td><strong>${row.name}</strong></td>
+                        <td>${row.loans}</td>
+                        <td>${row.returns}</td>
+                        <td>${row.returns > 0 ? row.averageDurationDays : '-'}</td>
+                    </tr>
+                `).join('')}
+            </tbody>
+        </table>
+    `;
+
+    document.getElementById('activityTables').innerHTML =
+        table('By Category', categories) + table('By Type', bookTypes);
+}
+
+/**
+ * Load operation latency metrics
+ */
+async function loadLatency() {
+    const container = document.getElementById('latencyTable');
+    container.innerHTML = '<div class="loading">Loading latency metrics...</div>';
+
+    try {
+        const data = await API.get('/metrics/latency');
+
+        if (data.success && data.operations.length > 0) {
+            displayLatency(data.operations);
+        } else {
+            container.innerHTML = '<div class="empty-state"><h3>No operations recorded yet</h3></div>';
+        }
+    } catch (error) {
+        console.error('Error loading latency metrics:', error);
+        container.innerHTML = '<div class="empty-state"><h3>Error loading latency metrics</h3></div>';
+    }
+}
+
+/**
+ * Display latency metrics in table
+ */
+function displayLatency(operations) {
+    const container = document.getElementById('latencyTable');
+    const ms = value => value !== undefined ? value.toFixed(2) : '-';
+
+    let html = `
+        <table>
+            <thead>
+                <tr>
+                    <th>Metric</th>
+                    <th>Operation</th>
+                    <th>Count</th>
+                    <th>Failures</th>
+                    <th>Errors</th>
+                    <th>p50</th>
+                    <th>p90</th>
+                    <th>p99</th>
+                    <th>p999</th>
+                    <th>Max</th>
+                </tr>
+            </thead>
+            <tbody>
+    `;
+
+    operations.forEach(op => {
+        const errorBadge = op.errors > 0
+            ? `<span class="badge badge-danger">${op.errors}</span>`
+            : op.errors;
+
+        html += `
+            <tr>
+                <td>${op.metric}</td>
+                <td><strong>${op.operation}</strong></td>
+                <td>${op.count}</td>
+                <td>${op.failures}</td>
+                <td>${errorBadge}</td>
+                <td>${ms(op.p50)}</td>
+                <td>${ms(op.p90)}</td>
+                <td>${ms(op.p99)}</td>
+                <td>${ms(op.p999)}</td>
+                <td>${ms(op.max)}</td>
+            </tr>
+        `;
+    });
+
+    html += '</tbody></table>';
+    container.innerHTML = html;
+}
@@ -10,6 +10,10 @@ if (!isAuthenticated()) {
 
 const user = getCurrentUser();
 
+// Kind (title/author) of the last suggestions shown, by text
+let suggestionKinds = {};
+let suggestTimer = null;
+
 // Initialize dashboard
 document.addEventListener('DOMContentLoaded', () => {
     initDashboard();
@@ -43,6 +47,10 @@ function setupEventListeners() {
     document.getElementById('searchInput').addEventListener('keypress', (e) => {
         if (e.key === 'Enter') searchBooks();
     });
+    document.getElementById('searchInput').addEventListener('input', () => {
+        clearTimeout(suggestTimer);
+        suggestTimer = setTimeout(loadSuggestions, 150);
+    });
 
     // Category filter
     document.getElementById('categoryFilter').addEventListener('change', filterByCategory);
@@ -100,9 +108,10 @@ async function loadBooks() {
 /**
  * Display books in grid
  */
-function displayBooks(books) {
+function displayBooks(books, facets) {
     const grid = document.getElementById('booksGrid');
     grid.innerHTML = '';
+    displayFacets(facets);
 
     books.forEach(book => {
         const card = createBookCard(book);
@@ -110,6 +119,31 @@ function displayBooks(books) {
     });
 }
 
+/**
+ * Display facet counts (category, type, availability) of a result
+ */
+function displayFacets(facets) {
+    const summary = document.getElementById('facetSummary');
+
+    if (!facets) {
+        summary.innerHTML = '';
+        return;
+    }
+
+    const labels = { category: 'Category', bookType: 'Type', available: 'Availability' };
+    const valueLabel = (facet, value) =>
+        facet === 'available' ? (value === 'true' ? 'Available' : 'Not Available') : value;
+
+    summary.innerHTML = Object.entries(facets)
+        .filter(([, values]) => Object.keys(values).length > 0)
+        .map(([facet, values]) => `
+            <span class="facet">
+                <strong>${labels[facet] || facet}:</strong>
+                ${Object.entries(values).map(([value, count]) => `${valueLabel(facet, value)} (${count})`).join(', ')}
+            </span>
+        `).join('');
+}
+
 /**
  * Create book card element
  */
@@ -118,7 +152,7 @@ function createBookCard(book) {
     card.className = 'book-card';
 
     const statusClass = book.available ? 'available' : 'unavailable';
-    const statusText = book.available ? '✓ Available' : '✗ Not Available';
+    const statusText = (book.available ? '✓ Available' : '✗ Not Available') + copiesText(book);
 
     card.innerHTML = `
         <div class="book-icon">${getBookIcon(book.bookType)}</div>
@@ -136,6 +170,11 @@ function createBookCard(book) {
                     Borrow
                 </button>` : ''
             }
+            ${!book.available && user.role !== 'GUEST' ?
+                `<button class="btn btn-secondary btn-small" onclick="placeHold(${book.id})">
+                    Place Hold
+                </button>` : ''
+            }
         </div>
     `;
 
@@ -166,7 +205,7 @@ function showBookModal(book) {
     const details = document.getElementById('bookDetails');
 
     const statusClass = book.available ? 'available' : 'unavailable';
-    const statusText = book.available ? '✓ Available' : '✗ Not Available';
+    const statusText = (book.available ? '✓ Available' : '✗ Not Available') + copiesText(book);
 
     details.innerHTML = `
         <div style="text-align: center; font-size: 4rem; margin-bottom: 20px;">
@@ -185,9 +224,53 @@ function showBookModal(book) {
                 Borrow This Book
             </button>` : ''
         }
+        ${!book.available && user.role !== 'GUEST' ?
+            `<button class="btn btn-secondary" onclick="placeHold(${book.id}); closeModal();">
+                Place Hold
+            </button>` : ''
+        }
+        <div id="relatedBooks"></div>
     `;
 
     modal.classList.add('active');
+    loadRelatedBooks(book.id);
+}
+
+/**
+ * Copies left of a multi-copy book, e.g. " (3 of 50)"
+ */
+function copiesText(book) {
+    return book.totalCopies > 1 ? ` (${book.availableCopies} of ${book.totalCopies})` : '';
+}
+
+/**
+ * Load "Readers also borrowed" recommendations into the book modal
+ */
+async function loadRelatedBooks(bookId) {
+    const container = document.getElementById('relatedBooks');
+
+    try {
+        const data = await API.get(`/books/${bookId}/related?limit=5`);
+
+        if (data.success && data.books.length > 0) {
+            container.innerHTML = `
+                <hr style="margin: 20px 0;">
+                <h3>Readers also borrowed</h3>
+                <ul>
+                    ${data.books.map(related => `
+                        <li>
+                            <a href="#" onclick="viewBookDetails(${related.id}); return false;">
+                                ${getBookIcon(related.bookType)} ${related.title}
+                            </a>
+                            <small>by ${related.author}</small>
+                        </li>
+                    `).join('')}
+                </ul>
+            `;
+        }
+    } catch (error) {
+        console.error('Error loading related books:', error);
+    }
 }
 
 /**
@@ -222,7 +305,57 @@ async function borrowBook(bookId) {
 }
 
 /**
- * Search books
+ * Place a hold on an unavailable book
+ * A returned copy is then set aside for the user, who borrows it as usual
+ */
+async function placeHold(bookId) {
+    try {
+        const data = await API.post('/holds', { bookId });
+
+        if (data.success) {
+            const hold = data.hold;
+            alert(hold.status === 'READY'
+                ? `A copy is set aside for you until ${new Date(hold.expiresAt).toLocaleString()}`
+                : `Hold placed. You are number ${hold.position} in the queue.`);
+            loadBooks();
+        } else {
+            alert(data.message || 'Failed to place hold');
+        }
+    } catch (error) {
+        console.error('Error placing hold:', error);
+        alert('Error placing hold');
+    }
+}
+
+/**
+ * Load title and author suggestions for the text typed so far
+ */
+async function loadSuggestions() {
+    const prefix = document.getElementById('searchInput').value.trim();
+    const list = document.getElementById('searchSuggestions');
+
+    if (prefix.length < 2) {
+        list.innerHTML = '';
+        return;
+    }
+
+    try {
+        const data = await API.get(`/books/suggest?prefix=${encodeURIComponent(prefix)}&limit=8`);
+
+        if (data.success) {
+            suggestionKinds = {};
+            data.suggestions.forEach(suggestion => suggestionKinds[suggestion.text] = suggestion.kind);
+            list.innerHTML = data.suggestions.map(suggestion =>
+                `<option value="${suggestion.text}">${suggestion.kind === 'author' ? 'Author' : 'Title'}</option>`
+            ).join('');
+        }
+    } catch (error) {
+        console.error('Error loading suggestions:', error);
+    }
+}
+
+/**
+ * Search books (by author when an author suggestion was picked)
  */
 async function searchBooks() {
     const query = document.getElementById('searchInput').value.trim();
@@ -236,11 +369,14 @@ async function searchBooks() {
     grid.innerHTML = '<div class="loading">Searching...</div>';
 
     try {
-        const data = await API.get(`/books/search?q=${encodeURIComponent(query)}`);
+        const data = suggestionKinds[query] === 'author'
+            ? await API.get(`/books/query?author=${encodeURIComponent(query)}`)
+            : await API.get(`/books/search?q=${encodeURIComponent(query)}`);
 
         if (data.success && data.books.length > 0) {
-            displayBooks(data.books);
+            displayBooks(data.books, data.facets);
         } else {
+            displayFacets(null);
             grid.innerHTML = '<div class="empty-state"><h3>No books found</h3><p>Try a different search term</p></div>';
         }
     } catch (error) {
@@ -267,7 +403,7 @@ async function filterByCategory() {
         const data = await API.get(`/books/category/${encodeURIComponent(category)}`);
 
         if (data.success && data.books.length > 0) {
-            displayBooks(data.books);
+            displayBooks(data.books, data.facets);
         } else {
             grid.innerHTML = '<div class="empty-state"><h3>No books in this category</h3></div>';
         }
@@ -0,0 +1,102 @@
+package com.biblioteca.patterns.factory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent borrow / return of the copies of one book
+ */
+class BookCopiesTest {
+
+    private static final int BORROWERS = 4;
+    private static final int ROUNDS = 200;
+
+    /**
+     * Borrowers finding no copy must not hide a copy that is being returned
+     */
+    @Test
+    void returnedCopyIsVisibleWhileBorrowersAreRefused() throws InterruptedException {
+        Book book = new DigitalBook("Clean Code", "Robert C. Martin", "978-0132350884", "Programming", "PDF", 1.0);
+        book.setTotalCopies(ROUNDS);
+        book.setAvailableCopies(0);
+
+        AtomicInteger taken = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(BORROWERS);
+        List<Thread> borrowers = new ArrayList<>();
+        for (int i = 0; i < BORROWERS; i++) {
+            Thread borrower = new Thread(() -> {
+                started.countDown();
+                while (!done.get()) {
+                    if (book.acquireCopy() >= 0) {
+                        taken.incrementAndGet();
+                    }
+                }
+            });
+            borrower.start();
+            borrowers.add(borrower);
+        }
+        started.await();
+
+        try {
+            for (int round = 1; round <= ROUNDS; round++) {
+                // Nobody holds a free copy here, so the returned one is the only one
+                assertEquals(1, book.releaseCopy(), "copies after return in round " + round);
+                while (taken.get() < round) {
+                    Thread.yield();
+                }
+            }
+        } finally {
+            done.set(true);
+            for (Thread borrower : borrowers) {
+                borrower.join(TimeUnit.SECONDS.toMillis(10));
+            }
+        }
+
+        assertEquals(ROUNDS, taken.get());
+        assertEquals(0, book.getAvailableCopies());
+    }
+
+    /**
+     * Concurrent borrow and return cycles never lend more copies than exist
+     */
+    @Test
+    void borrowAndReturnKeepTheCount() throws InterruptedException {
+        int copies = 3;
+        Book book = new DigitalBook("Sapiens", "Yuval Noah Harari", "978-0062316097", "History", "EPUB", 1.0);
+        book.setTotalCopies(copies);
+        book.setAvailableCopies(copies);
+
+        AtomicInteger lent = new AtomicInteger();
+        AtomicInteger maxLent = new AtomicInteger();
+        List<Thread> borrowers = new ArrayList<>();
+        for (int i = 0; i < BORROWERS; i++) {
+            Thread borrower = new Thread(() -> {
+                for (int n = 0; n < 5_000; n++) {
+                    if (book.acquireCopy() >= 0) {
+                        maxLent.accumulateAndGet(lent.incrementAndGet(), Math::max);
+                        lent.decrementAndGet();
+                        book.releaseCopy();
+                    }
+                }
+            });
+            borrower.start();
+            borrowers.add(borrower);
+        }
+        for (Thread borrower : borrowers) {
+            borrower.join();
+        }
+
+        assertTrue(maxLent.get() <= copies, "lent " + maxLent.get() + " of " + copies + " copies");
+        assertEquals(copies, book.getAvailableCopies());
+    }
+}